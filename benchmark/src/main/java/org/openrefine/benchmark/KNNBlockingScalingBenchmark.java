@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package org.openrefine.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.knn.ApacheLevenshteinDistance;
+import com.google.refine.clustering.knn.DistanceFactory;
+import com.google.refine.clustering.knn.kNNClusterer;
+import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Compares the blocking strategies of kNN clustering on growing numbers of distinct values. The values are synthetic
+ * names, each with a few misspelled variants, drawn from a small alphabet so that common n-grams make for large blocks.
+ */
+public class KNNBlockingScalingBenchmark {
+
+    private static final String VALUE_COLUMN = "value";
+    private static final String DISTANCE_NAME = "benchmark-scaling-levenshtein";
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "1000", "10000", "100000" })
+        public int rowCount;
+
+        @Param({ "ngram", "bk-tree" })
+        public String blocking;
+
+        @Param({ "6" })
+        public int blockingNgramSize;
+
+        public Project project;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            DistanceFactory.remove(DISTANCE_NAME);
+            DistanceFactory.put(DISTANCE_NAME, new ApacheLevenshteinDistance());
+
+            project = createProject(generateDataset(rowCount));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @Fork(1)
+    public void kNNClustering(ExecutionPlan plan, Blackhole blackhole) throws IOException {
+        Engine engine = new Engine(plan.project);
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(
+                makeConfigJson(plan.blocking, plan.blockingNgramSize), kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(plan.project);
+        clusterer.computeClusters(engine);
+        blackhole.consume(clusterer.getJsonRepresentation().size());
+    }
+
+    private static String makeConfigJson(String blocking, int blockingNgramSize) {
+        return "{" +
+                "\"type\":\"knn\"," +
+                "\"function\":\"" + DISTANCE_NAME + "\"," +
+                "\"column\":\"" + VALUE_COLUMN + "\"," +
+                "\"params\":{\"radius\":1,\"blocking-ngram-size\":" + blockingNgramSize
+                + ",\"blocking\":\"" + blocking + "\"}" +
+                "}";
+    }
+
+    private static Project createProject(List<String> values) {
+        Project project = new Project();
+        int cellIndex = project.columnModel.allocateNewCellIndex();
+
+        try {
+            project.columnModel.addColumn(cellIndex, new Column(cellIndex, VALUE_COLUMN), true);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to initialize benchmark column", e);
+        }
+
+        for (String value : values) {
+            Row row = new Row(1);
+            row.setCell(cellIndex, new Cell(value, null));
+            project.rows.add(row);
+        }
+
+        project.columnModel.update();
+        project.recordModel.update(project);
+        return project;
+    }
+
+    private static List<String> generateDataset(int size) {
+        Random random = new Random(42L);
+        List<String> values = new ArrayList<>(size);
+        while (values.size() < size) {
+            String name = randomWord(8 + random.nextInt(8), random);
+            values.add(name);
+            // a few variants at distance 1 of the name
+            int variants = random.nextInt(3);
+            for (int i = 0; i < variants && values.size() < size; i++) {
+                StringBuilder sb = new StringBuilder(name);
+                sb.setCharAt(random.nextInt(sb.length()), (char) ('a' + random.nextInt(6)));
+                values.add(sb.toString());
+            }
+        }
+        return values;
+    }
+
+    private static String randomWord(int length, Random random) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(6)));
+        }
+        return sb.toString();
+    }
+}
@@ -53,6 +53,7 @@ import org.openjdk.jmh.infra.Blackhole;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.clustering.knn.ApacheLevenshteinDistance;
+import com.google.refine.clustering.knn.BitParallelLevenshteinDistance;
 import com.google.refine.clustering.knn.DistanceFactory;
 import com.google.refine.clustering.knn.VicinoDistance;
 import com.google.refine.clustering.knn.kNNClusterer;
@@ -71,6 +72,7 @@ public class KNNLevenshteinClusteringBenchmark {
     private static final String VALUE_COLUMN = "value";
     private static final String VICINO_NAME = "benchmark-vicino-levenshtein";
     private static final String APACHE_NAME = "benchmark-apache-levenshtein";
+    private static final String BIT_PARALLEL_NAME = "benchmark-bit-parallel-levenshtein";
 
     @State(Scope.Benchmark)
     public static class ExecutionPlan {
@@ -91,8 +93,10 @@ public class KNNLevenshteinClusteringBenchmark {
 
             DistanceFactory.remove(VICINO_NAME);
             DistanceFactory.remove(APACHE_NAME);
+            DistanceFactory.remove(BIT_PARALLEL_NAME);
             DistanceFactory.put(VICINO_NAME, new VicinoDistance(new LevenshteinDistance()));
             DistanceFactory.put(APACHE_NAME, new ApacheLevenshteinDistance());
+            DistanceFactory.put(BIT_PARALLEL_NAME, new BitParallelLevenshteinDistance());
 
             project = createProject(values);
         }
@@ -118,6 +122,16 @@ public class KNNLevenshteinClusteringBenchmark {
         blackhole.consume(runKnnClustering(plan.project, APACHE_NAME));
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 2, time = 300, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void bitParallelKNNClustering(ExecutionPlan plan, Blackhole blackhole) throws IOException {
+        blackhole.consume(runKnnClustering(plan.project, BIT_PARALLEL_NAME));
+    }
+
     private int runKnnClustering(Project project, String distanceName) throws IOException {
         Engine engine = new Engine(project);
         kNNClustererConfig config = ParsingUtilities.mapper.readValue(makeConfigJson(distanceName), kNNClustererConfig.class);
@@ -40,11 +40,12 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.python.core.Py;
+import org.python.core.PyCode;
 import org.python.core.PyException;
 import org.python.core.PyFloat;
-import org.python.core.PyFunction;
 import org.python.core.PyInteger;
 import org.python.core.PyLong;
 import org.python.core.PyNone;
@@ -76,15 +77,16 @@ public class JythonEvaluable implements Evaluable {
                     throw new ParsingException(e.getMessage(), e);
                 }
             }
-
         };
     }
 
+    static private final String[] s_parameterNames = { "value", "cell", "cells", "row", "rowIndex", "value1", "value2" };
+    static private final AtomicLong s_functionCount = new AtomicLong();
+
     private final String s_functionName;
     private final String s_originalSource;
     private final String s_languagePrefix;
-
-    private static PythonInterpreter _engine;
+    private final PyCode _code;
 
     // FIXME(SM): this initialization logic depends on the fact that the JVM's
     // current working directory is the root of the OpenRefine distributions
@@ -111,6 +113,8 @@ public class JythonEvaluable implements Evaluable {
         logger.debug("Done with static block in Jython initialization");
     }
 
+    static private final JythonInterpreterPool s_pool = new JythonInterpreterPool();
+
     // Convenience constructor for tests
     protected JythonEvaluable(String source) {
         this(source, "jython");
@@ -119,13 +123,8 @@ public class JythonEvaluable implements Evaluable {
     public JythonEvaluable(String source, String languagePrefix) {
         s_originalSource = source;
         s_languagePrefix = languagePrefix;
-        if (_engine == null) {
-            // TODO: This could potentially be done in the background, after startup, but before the user needs it
-            logger.debug("Invoking constructor for PythonInterpreter()");
-            _engine = new PythonInterpreter();
-            logger.debug("Done constructor for PythonInterpreter()");
-        }
-        this.s_functionName = String.format("__temp_%d__", Math.abs(source.hashCode()));
+        // names are unique, since functions of different expressions are defined in the same interpreters
+        this.s_functionName = String.format("__temp_%d__", s_functionCount.incrementAndGet());
 
         // indent and create a function out of the code
         String[] lines = source.split("\r\n|\r|\n");
@@ -133,34 +132,39 @@ public class JythonEvaluable implements Evaluable {
         StringBuffer sb = new StringBuffer(1024);
         sb.append("def ");
         sb.append(s_functionName);
-        sb.append("(value, cell, cells, row, rowIndex, value1, value2):");
+        sb.append("(");
+        sb.append(String.join(", ", s_parameterNames));
+        sb.append("):");
         for (String line : lines) {
             sb.append("\n  ");
             sb.append(line);
         }
 
-        _engine.exec(sb.toString());
+        _code = s_pool.compile(sb.toString());
     }
 
     @Override
     public Object evaluate(Properties bindings) {
+        PyObject[] args = new PyObject[] {
+                getValue("value", bindings),
+                getObject("cell", bindings),
+                getObject("cells", bindings),
+                getObject("row", bindings),
+                getValue("rowIndex", bindings),
+                getValue("value1", bindings),
+                getValue("value2", bindings)
+        };
+
+        JythonInterpreterPool.PooledInterpreter interpreter = s_pool.borrow();
         try {
             // call the temporary PyFunction directly
-            Object result = ((PyFunction) _engine.get(s_functionName)).__call__(
-
-                    new PyObject[] {
-                            getValue("value", bindings),
-                            getObject("cell", bindings),
-                            getObject("cells", bindings),
-                            getObject("row", bindings),
-                            getValue("rowIndex", bindings),
-                            getValue("value1", bindings),
-                            getValue("value2", bindings)
-                    });
+            Object result = interpreter.getFunction(s_functionName, _code).__call__(args);
 
             return unwrap(result);
         } catch (PyException e) {
             return new EvalError(e.getMessage());
+        } finally {
+            s_pool.release(interpreter);
         }
     }
 
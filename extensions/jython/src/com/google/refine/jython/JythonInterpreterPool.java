@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.jython;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.python.core.PyCode;
+import org.python.core.PyFunction;
+import org.python.util.PythonInterpreter;
+
+/**
+ * A pool of Python interpreters, which lets Python expressions be evaluated by several threads at once. An interpreter
+ * is only used by one thread at a time, between {@link #borrow()} and {@link #release(PooledInterpreter)}.
+ * <p>
+ * Expressions are compiled once, and the function of an expression is defined in each interpreter from its compiled
+ * code the first time the expression is evaluated with it.
+ */
+class JythonInterpreterPool {
+
+    // idle interpreters beyond this many are discarded
+    static int maxIdle = Math.max(2, Runtime.getRuntime().availableProcessors());
+    // functions kept by each interpreter
+    static int maxFunctions = 256;
+
+    static class PooledInterpreter {
+
+        final PythonInterpreter interpreter = new PythonInterpreter();
+
+        // least recently used first
+        final Map<String, PyFunction> functions = new LinkedHashMap<String, PyFunction>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 5283436582924436352L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PyFunction> eldest) {
+                return size() > maxFunctions;
+            }
+        };
+
+        /**
+         * @param name
+         *            the name of the function defined by the code
+         * @param code
+         *            the compiled definition of the function
+         */
+        PyFunction getFunction(String name, PyCode code) {
+            PyFunction function = functions.get(name);
+            if (function == null) {
+                interpreter.exec(code);
+                function = (PyFunction) interpreter.get(name);
+                // the function is only reachable from the pool, so that it can be evicted
+                interpreter.getLocals().__delitem__(name);
+                functions.put(name, function);
+            }
+            return function;
+        }
+    }
+
+    private final Deque<PooledInterpreter> _idle = new ArrayDeque<>();
+
+    /**
+     * @return an interpreter which is not used by any other thread, created if none is idle
+     */
+    PooledInterpreter borrow() {
+        synchronized (_idle) {
+            // the most recently released interpreter is likely to have the function defined already
+            PooledInterpreter interpreter = _idle.pollFirst();
+            if (interpreter != null) {
+                return interpreter;
+            }
+        }
+        return new PooledInterpreter();
+    }
+
+    void release(PooledInterpreter interpreter) {
+        synchronized (_idle) {
+            if (_idle.size() < maxIdle) {
+                _idle.addFirst(interpreter);
+            }
+        }
+    }
+
+    /**
+     * Compiles Python code with a pooled interpreter.
+     */
+    PyCode compile(String source) {
+        PooledInterpreter interpreter = borrow();
+        try {
+            return interpreter.interpreter.compile(source);
+        } finally {
+            release(interpreter);
+        }
+    }
+}
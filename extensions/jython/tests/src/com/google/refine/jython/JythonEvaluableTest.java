@@ -6,7 +6,12 @@ import static org.testng.Assert.assertTrue;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.python.core.PyObject;
 import org.testng.Assert;
@@ -72,6 +77,62 @@ public class JythonEvaluableTest {
         Assert.assertEquals(value1, value2);
     }
 
+    @Test
+    public void testJythonInParallel() throws Exception {
+        Evaluable evaluable = new JythonEvaluable("return value * 2");
+        Evaluable other = new JythonEvaluable("return value * 10");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    Properties bindings = new Properties();
+                    for (long i = 0; i < 200; i++) {
+                        bindings.put("value", i);
+                        if (!Long.valueOf(i * 2).equals(evaluable.evaluate(bindings))
+                                || !Long.valueOf(i * 10).equals(other.evaluate(bindings))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameSourceParsedTwice() throws ParsingException {
+        Evaluable first = JythonEvaluable.createParser().parse("return value + 1", "jython");
+        Evaluable second = JythonEvaluable.createParser().parse("return value + 1", "jython");
+        Properties bindings = new Properties();
+        bindings.put("value", 1);
+
+        assertEquals(first.evaluate(bindings), 2L);
+        assertEquals(second.evaluate(bindings), 2L);
+        assertEquals(first.evaluate(bindings), 2L);
+    }
+
+    @Test
+    public void testParametersBoundWhenNotNamed() {
+        Properties bindings = new Properties();
+        bindings.put("value", 1);
+
+        assertEquals(new JythonEvaluable("return locals()['value'] + 1").evaluate(bindings), 2L);
+        assertEquals(new JythonEvaluable("return eval('va' + 'lue') + 1").evaluate(bindings), 2L);
+    }
+
+    @Test
+    public void testMissingCellIsWrapped() {
+        Evaluable evaluable = new JythonEvaluable("return cell is not None");
+
+        assertEquals(evaluable.evaluate(new Properties()), 1L);
+    }
+
     @Test
     public void testJythonDate() {
         Properties bindings = createBindings();
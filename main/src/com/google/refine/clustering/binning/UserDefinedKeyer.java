@@ -42,15 +42,9 @@ import com.google.refine.expr.ParsingException;
 public class UserDefinedKeyer extends Keyer {
 
     private Evaluable eval;
-    private Properties bindings;
 
     public UserDefinedKeyer(String expression) throws ParsingException {
         eval = MetaParser.parse(expression);
-        bindings = new Properties();
-
-        bindings.put("true", true);
-        bindings.put("false", false);
-        bindings.put("PI", Math.PI);
     }
 
     @Override
@@ -59,10 +53,20 @@ public class UserDefinedKeyer extends Keyer {
             throw new IllegalArgumentException("Keying functions accepts a single string parameter");
         }
 
+        // bindings are not shared, so that keys can be computed by several threads at once
+        Properties bindings = new Properties();
+        bindings.put("true", true);
+        bindings.put("false", false);
+        bindings.put("PI", Math.PI);
         bindings.put("value", s);
 
         Object result = eval.evaluate(bindings);
 
         return result == null ? "null" : result.toString();
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return eval.isThreadSafe();
+    }
 }
@@ -43,15 +43,9 @@ import com.google.refine.expr.ParsingException;
 public class UserDefinedDistance implements SimilarityDistance {
 
     private Evaluable eval;
-    private Properties bindings;
 
     public UserDefinedDistance(String expression) throws ParsingException {
         eval = MetaParser.parse(expression);
-        bindings = new Properties();
-
-        bindings.put("true", true);
-        bindings.put("false", false);
-        bindings.put("PI", Math.PI);
     }
 
     @Override
@@ -63,6 +57,11 @@ public class UserDefinedDistance implements SimilarityDistance {
             throw new IllegalArgumentException("Input strings cannot be empty");
         }
 
+        // bindings are not shared, as pairs can be compared by several threads
+        Properties bindings = new Properties();
+        bindings.put("true", true);
+        bindings.put("false", false);
+        bindings.put("PI", Math.PI);
         bindings.put("value1", a);
         bindings.put("value2", b);
 
@@ -71,6 +70,11 @@ public class UserDefinedDistance implements SimilarityDistance {
         return convertToDouble(result);
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return eval.isThreadSafe();
+    }
+
     public static double convertToDouble(Object obj) {
         if (obj == null) {
             throw new IllegalArgumentException("The object is null");
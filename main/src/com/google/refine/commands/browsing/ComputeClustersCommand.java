@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.commands.browsing;
 
 import java.io.IOException;
+import java.util.Map;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -46,6 +47,8 @@ import org.slf4j.LoggerFactory;
 import com.google.refine.browsing.Engine;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.clustering.ClusteringManager;
+import com.google.refine.clustering.ClusteringProcess;
 import com.google.refine.clustering.binning.KeyerFactory;
 import com.google.refine.clustering.binning.UserDefinedKeyer;
 import com.google.refine.clustering.knn.DistanceFactory;
@@ -89,11 +92,24 @@ public class ComputeClustersCommand extends Command {
 
             Clusterer clusterer = clustererConfig.apply(project);
 
-            clusterer.computeClusters(engine);
-
             KeyerFactory.remove("userdefinedkeyer");
             DistanceFactory.remove("userdefineddistance");
 
+            if ("true".equals(request.getParameter("async"))) {
+                // the clustering this one replaces, if any, is no longer needed
+                String previousProcessId = request.getParameter("previousProcessId");
+                if (previousProcessId != null) {
+                    ClusteringManager.cancel(project.id, Long.parseLong(previousProcessId));
+                }
+
+                // the clusters are then fetched with GetClustersCommand, using the id of the clustering
+                ClusteringProcess process = ClusteringManager.start(project.id, clusterer, engine);
+                respondJSON(response, Map.of("code", "pending", "processId", process.getId()));
+                return;
+            }
+
+            clusterer.computeClusters(engine);
+
             respondJSON(response, clusterer);
             logger.info("computed clusters [{}] in {}ms",
                     new Object[] { clustererConfig.getType(), Long.toString(System.currentTimeMillis() - start) });
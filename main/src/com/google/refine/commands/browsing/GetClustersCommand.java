@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.commands.browsing;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.refine.clustering.ClusteringManager;
+import com.google.refine.clustering.ClusteringProcess;
+import com.google.refine.commands.Command;
+import com.google.refine.model.Project;
+
+/**
+ * Returns the clusters computed by a clustering started with {@link ComputeClustersCommand} in asynchronous mode, or
+ * its progress while it is running.
+ */
+public class GetClustersCommand extends Command {
+
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        try {
+            Project project = getProject(request);
+            ClusteringProcess process = ClusteringManager.get(project.id, Long.parseLong(request.getParameter("processId")));
+            if (process == null) {
+                respondCodeError(response, "No such clustering in this project");
+                return;
+            }
+            if (!process.isFinished()) {
+                respondJSON(response, Map.of("code", "pending", "progress", process.getProgress()));
+                return;
+            }
+
+            ClusteringManager.remove(process);
+            if (process.getException() instanceof CancellationException) {
+                respondJSON(response, Map.of("code", "canceled"));
+            } else if (process.getException() != null) {
+                respondException(response, process.getException());
+            } else {
+                respondJSON(response, Map.of("code", "ok", "clusters", process.getClusterer()));
+            }
+        } catch (Exception e) {
+            respondException(response, e);
+        }
+    }
+}
@@ -59,9 +59,8 @@ import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
+import com.google.refine.sorting.SortedOrder;
 import com.google.refine.sorting.SortingConfig;
-import com.google.refine.sorting.SortingRecordVisitor;
-import com.google.refine.sorting.SortingRowVisitor;
 import com.google.refine.util.Pool;
 
 /**
@@ -231,32 +230,25 @@ public class GetRowsCommand extends Command {
                 return;
             }
 
-            if (engine.getMode() == Mode.RowBased) {
-                FilteredRows filteredRows = engine.getAllFilteredRows();
-                RowVisitor visitor = rwv;
-
-                if (sortingConfig != null) {
-                    SortingRowVisitor srv = new SortingRowVisitor(visitor);
-
-                    srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
-                    }
+            SortedOrder sortedOrder = sortingConfig != null
+                    ? SortedOrder.get(project, engine, sortingConfig, start, end, limit)
+                    : null;
+            if (sortedOrder != null) {
+                // only visit the requested page of the cached sorted order
+                int[] page = sortedOrder.getPage(start, end, limit);
+                if (engine.getMode() == Mode.RowBased) {
+                    sortedOrder.accept(project, (RowVisitor) rwv, page[0], page[1]);
+                } else {
+                    sortedOrder.accept(project, (RecordVisitor) rwv, page[0], page[1]);
                 }
-                filteredRows.accept(project, visitor);
+                rwv.total = sortedOrder.size();
+                rwv.totalRows = sortedOrder.getRowCount();
+            } else if (engine.getMode() == Mode.RowBased) {
+                FilteredRows filteredRows = engine.getAllFilteredRows();
+                filteredRows.accept(project, rwv);
             } else {
                 FilteredRecords filteredRecords = engine.getFilteredRecords();
-                RecordVisitor visitor = rwv;
-
-                if (sortingConfig != null) {
-                    SortingRecordVisitor srv = new SortingRecordVisitor(visitor);
-
-                    srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
-                    }
-                }
-                filteredRecords.accept(project, visitor);
+                filteredRecords.accept(project, rwv);
             }
 
             // Pool all the recons occurring in the rows seen
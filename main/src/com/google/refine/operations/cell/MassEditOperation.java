@@ -47,6 +47,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.lang.Validate;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
@@ -195,7 +196,6 @@ public class MassEditOperation extends EngineDependentMassCellOperation {
         Column column = project.columnModel.getColumnByName(_columnName);
 
         Evaluable eval = MetaParser.parse(_expression);
-        Properties bindings = ExpressionUtils.createBindings(project);
 
         Map<String, Serializable> fromTo = new HashMap<String, Serializable>();
         Serializable fromBlankTo = null;
@@ -215,75 +215,97 @@ public class MassEditOperation extends EngineDependentMassCellOperation {
             }
         }
 
-        return new RowVisitor() {
-
-            int cellIndex;
-            Properties bindings;
-            List<CellChange> cellChanges;
-            Evaluable eval;
-
-            Map<String, Serializable> fromTo;
-            Serializable fromBlankTo;
-            Serializable fromErrorTo;
-
-            public RowVisitor init(
-                    int cellIndex,
-                    Properties bindings,
-                    List<CellChange> cellChanges,
-                    Evaluable eval,
-                    Map<String, Serializable> fromTo,
-                    Serializable fromBlankTo,
-                    Serializable fromErrorTo) {
-                this.cellIndex = cellIndex;
-                this.bindings = bindings;
-                this.cellChanges = cellChanges;
-                this.eval = eval;
-                this.fromTo = fromTo;
-                this.fromBlankTo = fromBlankTo;
-                this.fromErrorTo = fromErrorTo;
-                return this;
-            }
+        return new MassEditRowVisitor(project, column.getCellIndex(), cellChanges, eval, fromTo, fromBlankTo, fromErrorTo);
+    }
 
-            @Override
-            public void start(Project project) {
-                // nothing to do
-            }
+    /**
+     * Computes the changes of the edited cells. Ranges of rows can be evaluated in parallel by partial visitors, each
+     * with their own bindings and changes, which are then appended in row order.
+     */
+    protected class MassEditRowVisitor implements RowVisitor, CombinableVisitor<MassEditRowVisitor> {
+
+        final Project project;
+        final int cellIndex;
+        final Properties bindings;
+        final List<CellChange> cellChanges;
+        final Evaluable eval;
+
+        final Map<String, Serializable> fromTo;
+        final Serializable fromBlankTo;
+        final Serializable fromErrorTo;
+
+        MassEditRowVisitor(
+                Project project,
+                int cellIndex,
+                List<CellChange> cellChanges,
+                Evaluable eval,
+                Map<String, Serializable> fromTo,
+                Serializable fromBlankTo,
+                Serializable fromErrorTo) {
+            this.project = project;
+            this.cellIndex = cellIndex;
+            this.bindings = ExpressionUtils.createBindings(project);
+            this.cellChanges = cellChanges;
+            this.eval = eval;
+            this.fromTo = fromTo;
+            this.fromBlankTo = fromBlankTo;
+            this.fromErrorTo = fromErrorTo;
+        }
 
-            @Override
-            public void end(Project project) {
-                // nothing to do
-            }
+        @Override
+        public MassEditRowVisitor createPartialVisitor() {
+            return new MassEditRowVisitor(project, cellIndex, new ArrayList<>(), eval, fromTo, fromBlankTo, fromErrorTo);
+        }
 
-            @Override
-            public boolean visit(Project project, int rowIndex, Row row) {
-                Cell cell = row.getCell(cellIndex);
-                Cell newCell = null;
-
-                ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
-
-                Object v = eval.evaluate(bindings);
-                if (ExpressionUtils.isError(v)) {
-                    if (fromErrorTo != null) {
-                        newCell = new Cell(fromErrorTo, (cell != null) ? cell.recon : null);
-                    }
-                } else if (ExpressionUtils.isNonBlankData(v)) {
-                    String from = StringUtils.toString(v);
-                    Serializable to = fromTo.get(from);
-                    if (to != null) {
-                        newCell = new Cell(to, (cell != null) ? cell.recon : null);
-                    }
-                } else {
-                    if (fromBlankTo != null) {
-                        newCell = new Cell(fromBlankTo, (cell != null) ? cell.recon : null);
-                    }
-                }
+        @Override
+        public void combine(MassEditRowVisitor partial) {
+            cellChanges.addAll(partial.cellChanges);
+        }
+
+        @Override
+        public boolean isParallelizable() {
+            return eval.isThreadSafe();
+        }
+
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
 
-                if (newCell != null) {
-                    CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, newCell);
-                    cellChanges.add(cellChange);
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(cellIndex);
+            Cell newCell = null;
+
+            ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
+
+            Object v = eval.evaluate(bindings);
+            if (ExpressionUtils.isError(v)) {
+                if (fromErrorTo != null) {
+                    newCell = new Cell(fromErrorTo, (cell != null) ? cell.recon : null);
+                }
+            } else if (ExpressionUtils.isNonBlankData(v)) {
+                String from = StringUtils.toString(v);
+                Serializable to = fromTo.get(from);
+                if (to != null) {
+                    newCell = new Cell(to, (cell != null) ? cell.recon : null);
+                }
+            } else {
+                if (fromBlankTo != null) {
+                    newCell = new Cell(fromBlankTo, (cell != null) ? cell.recon : null);
                 }
-                return false;
             }
-        }.init(column.getCellIndex(), bindings, cellChanges, eval, fromTo, fromBlankTo, fromErrorTo);
+
+            if (newCell != null) {
+                CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, newCell);
+                cellChanges.add(cellChange);
+            }
+            return false;
+        }
     }
 }
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.operations.cell;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,9 +44,12 @@ import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.EvaluationMemo;
+import com.google.refine.expr.EvaluationMemo.MemoizingRowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
@@ -167,91 +171,126 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
         Column column = project.columnModel.getColumnByName(_columnName);
 
         Evaluable eval = MetaParser.parse(_expression);
-        Properties bindings = ExpressionUtils.createBindings(project);
 
-        return new RowVisitor() {
+        return new TextTransformRowVisitor(project, column.getCellIndex(), cellChanges, eval);
+    }
 
-            int cellIndex;
-            Properties bindings;
-            List<CellChange> cellChanges;
-            Evaluable eval;
+    /**
+     * Computes the changes of the transformed cells. Ranges of rows can be transformed in parallel by partial visitors,
+     * each with their own bindings and changes, which are then appended in row order.
+     */
+    protected class TextTransformRowVisitor implements MemoizingRowVisitor, CombinableVisitor<TextTransformRowVisitor> {
+
+        final Project project;
+        final int cellIndex;
+        final Properties bindings;
+        final List<CellChange> cellChanges;
+        final Evaluable eval;
+        final EvaluationMemo memo;
+
+        TextTransformRowVisitor(Project project, int cellIndex, List<CellChange> cellChanges, Evaluable eval) {
+            this.project = project;
+            this.cellIndex = cellIndex;
+            this.bindings = ExpressionUtils.createBindings(project);
+            this.cellChanges = cellChanges;
+            this.eval = eval;
+            this.memo = EvaluationMemo.create(eval);
+        }
 
-            public RowVisitor init(int cellIndex, Properties bindings, List<CellChange> cellChanges, Evaluable eval) {
-                this.cellIndex = cellIndex;
-                this.bindings = bindings;
-                this.cellChanges = cellChanges;
-                this.eval = eval;
-                return this;
-            }
+        @Override
+        public EvaluationMemo getEvaluationMemo() {
+            return memo;
+        }
 
-            @Override
-            public void start(Project project) {
-                // nothing to do
-            }
+        @Override
+        public TextTransformRowVisitor createPartialVisitor() {
+            return new TextTransformRowVisitor(project, cellIndex, new ArrayList<>(), eval);
+        }
 
-            @Override
-            public void end(Project project) {
-                // nothing to do
+        @Override
+        public void combine(TextTransformRowVisitor partial) {
+            cellChanges.addAll(partial.cellChanges);
+            if (memo != null) {
+                memo.combine(partial.memo);
             }
+        }
 
-            @Override
-            public boolean visit(Project project, int rowIndex, Row row) {
-                Cell cell = row.getCell(cellIndex);
-                Cell newCell = null;
+        @Override
+        public boolean isParallelizable() {
+            return eval.isThreadSafe();
+        }
+
+        private Object evaluate(Cell cell) {
+            return memo != null ? memo.evaluate(bindings, cell != null ? cell.value : null) : eval.evaluate(bindings);
+        }
 
-                Object oldValue = cell != null ? cell.value : null;
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
 
-                ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
 
-                Object o = eval.evaluate(bindings);
-                if (o == null) {
-                    if (oldValue != null) {
-                        CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, null);
-                        cellChanges.add(cellChange);
-                    }
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(cellIndex);
+            Cell newCell = null;
+
+            Object oldValue = cell != null ? cell.value : null;
+
+            ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
+
+            Object o = evaluate(cell);
+            if (o == null) {
+                if (oldValue != null) {
+                    CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, null);
+                    cellChanges.add(cellChange);
+                }
+            } else {
+                if (o instanceof Cell) {
+                    newCell = (Cell) o;
+                } else if (o instanceof WrappedCell) {
+                    newCell = ((WrappedCell) o).cell;
                 } else {
-                    if (o instanceof Cell) {
-                        newCell = (Cell) o;
-                    } else if (o instanceof WrappedCell) {
-                        newCell = ((WrappedCell) o).cell;
-                    } else {
-                        Serializable newValue = ExpressionUtils.wrapStorable(o);
-                        if (ExpressionUtils.isError(newValue)) {
-                            if (_onError == OnError.KeepOriginal) {
-                                return false;
-                            } else if (_onError == OnError.SetToBlank) {
-                                newValue = null;
-                            }
+                    Serializable newValue = ExpressionUtils.wrapStorable(o);
+                    if (ExpressionUtils.isError(newValue)) {
+                        if (_onError == OnError.KeepOriginal) {
+                            return false;
+                        } else if (_onError == OnError.SetToBlank) {
+                            newValue = null;
                         }
+                    }
 
-                        if (!ExpressionUtils.sameValue(oldValue, newValue)) {
-                            newCell = new Cell(newValue, (cell != null) ? cell.recon : null);
-
-                            if (_repeat) {
-                                for (int i = 0; i < _repeatCount; i++) {
-                                    ExpressionUtils.bind(bindings, row, rowIndex, _columnName, newCell);
+                    if (!ExpressionUtils.sameValue(oldValue, newValue)) {
+                        newCell = new Cell(newValue, (cell != null) ? cell.recon : null);
 
-                                    newValue = ExpressionUtils.wrapStorable(eval.evaluate(bindings));
-                                    if (ExpressionUtils.isError(newValue)) {
-                                        break;
-                                    } else if (ExpressionUtils.sameValue(newCell.value, newValue)) {
-                                        break;
-                                    }
+                        if (_repeat) {
+                            for (int i = 0; i < _repeatCount; i++) {
+                                ExpressionUtils.bind(bindings, row, rowIndex, _columnName, newCell);
 
-                                    newCell = new Cell(newValue, newCell.recon);
+                                newValue = ExpressionUtils.wrapStorable(evaluate(newCell));
+                                if (ExpressionUtils.isError(newValue)) {
+                                    break;
+                                } else if (ExpressionUtils.sameValue(newCell.value, newValue)) {
+                                    break;
                                 }
+
+                                newCell = new Cell(newValue, newCell.recon);
                             }
                         }
                     }
-
-                    if (newCell != null) {
-                        CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, newCell);
-                        cellChanges.add(cellChange);
-                    }
                 }
 
-                return false;
+                if (newCell != null) {
+                    CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, newCell);
+                    cellChanges.add(cellChange);
+                }
             }
-        }.init(column.getCellIndex(), bindings, cellChanges, eval);
+
+            return false;
+        }
     }
 }
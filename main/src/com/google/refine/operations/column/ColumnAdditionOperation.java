@@ -45,11 +45,14 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.lang.Validate;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.EvaluationMemo;
+import com.google.refine.expr.EvaluationMemo.MemoizingRowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
@@ -193,9 +196,10 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
         List<CellAtRow> cellsAtRows = new ArrayList<CellAtRow>(project.rows.size());
 
         FilteredRows filteredRows = engine.getAllFilteredRows();
-        filteredRows.accept(project, createRowVisitor(project, cellsAtRows));
+        RowVisitor visitor = createRowVisitor(project, cellsAtRows);
+        filteredRows.accept(project, visitor);
 
-        String description = createDescription(column, cellsAtRows);
+        String description = EvaluationMemo.describe(createDescription(column, cellsAtRows), visitor);
 
         Change change = new ColumnAdditionChange(_newColumnName, _columnInsertIndex, cellsAtRows);
 
@@ -207,68 +211,99 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
         Column column = project.columnModel.getColumnByName(_baseColumnName);
 
         Evaluable eval = MetaParser.parse(_expression);
-        Properties bindings = ExpressionUtils.createBindings(project);
 
-        return new RowVisitor() {
+        return new ColumnAdditionRowVisitor(project, column.getCellIndex(), cellsAtRows, eval);
+    }
 
-            int cellIndex;
-            Properties bindings;
-            List<CellAtRow> cellsAtRows;
-            Evaluable eval;
+    /**
+     * Computes the cells of the new column. Ranges of rows can be evaluated in parallel by partial visitors, each with
+     * their own bindings and cells, which are then appended in row order.
+     */
+    protected class ColumnAdditionRowVisitor implements MemoizingRowVisitor, CombinableVisitor<ColumnAdditionRowVisitor> {
+
+        final Project project;
+        final int cellIndex;
+        final Properties bindings;
+        final List<CellAtRow> cellsAtRows;
+        final Evaluable eval;
+        final EvaluationMemo memo;
+
+        ColumnAdditionRowVisitor(Project project, int cellIndex, List<CellAtRow> cellsAtRows, Evaluable eval) {
+            this.project = project;
+            this.cellIndex = cellIndex;
+            this.bindings = ExpressionUtils.createBindings(project);
+            this.cellsAtRows = cellsAtRows;
+            this.eval = eval;
+            this.memo = EvaluationMemo.create(eval);
+        }
 
-            public RowVisitor init(int cellIndex, Properties bindings, List<CellAtRow> cellsAtRows, Evaluable eval) {
-                this.cellIndex = cellIndex;
-                this.bindings = bindings;
-                this.cellsAtRows = cellsAtRows;
-                this.eval = eval;
-                return this;
-            }
+        @Override
+        public EvaluationMemo getEvaluationMemo() {
+            return memo;
+        }
 
-            @Override
-            public void start(Project project) {
-                // nothing to do
-            }
+        @Override
+        public ColumnAdditionRowVisitor createPartialVisitor() {
+            return new ColumnAdditionRowVisitor(project, cellIndex, new ArrayList<>(), eval);
+        }
 
-            @Override
-            public void end(Project project) {
-                // nothing to do
+        @Override
+        public void combine(ColumnAdditionRowVisitor partial) {
+            cellsAtRows.addAll(partial.cellsAtRows);
+            if (memo != null) {
+                memo.combine(partial.memo);
             }
+        }
 
-            @Override
-            public boolean visit(Project project, int rowIndex, Row row) {
-                Cell cell = row.getCell(cellIndex);
-                Cell newCell = null;
-
-                ExpressionUtils.bind(bindings, row, rowIndex, _baseColumnName, cell);
-
-                Object o = eval.evaluate(bindings);
-                if (o != null) {
-                    if (o instanceof Cell) {
-                        newCell = (Cell) o;
-                    } else if (o instanceof WrappedCell) {
-                        newCell = ((WrappedCell) o).cell;
-                    } else {
-                        Serializable v = ExpressionUtils.wrapStorable(o);
-                        if (ExpressionUtils.isError(v)) {
-                            if (_onError == OnError.SetToBlank) {
-                                return false;
-                            } else if (_onError == OnError.KeepOriginal) {
-                                v = cell != null ? cell.value : null;
-                            }
-                        }
+        @Override
+        public boolean isParallelizable() {
+            return eval.isThreadSafe();
+        }
 
-                        if (v != null) {
-                            newCell = new Cell(v, null);
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(cellIndex);
+            Cell newCell = null;
+
+            ExpressionUtils.bind(bindings, row, rowIndex, _baseColumnName, cell);
+
+            Object o = memo != null ? memo.evaluate(bindings, cell != null ? cell.value : null) : eval.evaluate(bindings);
+            if (o != null) {
+                if (o instanceof Cell) {
+                    newCell = (Cell) o;
+                } else if (o instanceof WrappedCell) {
+                    newCell = ((WrappedCell) o).cell;
+                } else {
+                    Serializable v = ExpressionUtils.wrapStorable(o);
+                    if (ExpressionUtils.isError(v)) {
+                        if (_onError == OnError.SetToBlank) {
+                            return false;
+                        } else if (_onError == OnError.KeepOriginal) {
+                            v = cell != null ? cell.value : null;
                         }
                     }
-                }
 
-                if (newCell != null) {
-                    cellsAtRows.add(new CellAtRow(rowIndex, newCell));
+                    if (v != null) {
+                        newCell = new Cell(v, null);
+                    }
                 }
+            }
 
-                return false;
+            if (newCell != null) {
+                cellsAtRows.add(new CellAtRow(rowIndex, newCell));
             }
-        }.init(column.getCellIndex(), bindings, cellsAtRows, eval);
+
+            return false;
+        }
     }
 }
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.browsing.util.FilterBitmapCache;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.grel.Parser;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class EngineComputeFacetsTests extends RefineTest {
+
+    Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        MetaParser.registerLanguageParser("grel", "GREL", Parser.grelParser, "value");
+        project = createProject(
+                new String[] { "Column A", "Column B" },
+                new Serializable[][] {
+                        { "a", "x" },
+                        { null, "y" },
+                        { "b", "x" },
+                        { "a", "z" },
+                        { null, "x" },
+                        { "c", null },
+                        { "b", "y" }
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        MetaParser.unregisterLanguageParser("grel");
+    }
+
+    @Test
+    public void testRowsMatchPerFacetFiltering() throws Exception {
+        assertComputedFacetsMatchPerFacetFiltering(Engine.MODE_ROW_BASED);
+    }
+
+    @Test
+    public void testRecordsMatchPerFacetFiltering() throws Exception {
+        assertComputedFacetsMatchPerFacetFiltering(Engine.MODE_RECORD_BASED);
+    }
+
+    @Test
+    public void testFilterBitmapsAreCachedUntilContentChanges() throws Exception {
+        FacetConfig facetConfig = EngineConfig.reconstruct("{\"facets\":["
+                + listFacetConfig("Column A", "[{\"v\":{\"v\":\"a\",\"l\":\"a\"}}]", true) + "]}")
+                .getFacetConfigs().get(0);
+        Engine engine = newEngineWithOtherFacet(facetConfig);
+
+        assertNull(FilterBitmapCache.get(project, facetConfig, Engine.Mode.RowBased, project.rows.size()));
+        engine.computeFacets();
+        BitSet rejected = FilterBitmapCache.get(project, facetConfig, Engine.Mode.RowBased, project.rows.size());
+        assertEquals(rejected, BitSet.valueOf(new long[] { 0b1100100 }));
+        // filtering rows does not need the masks of the facets
+        assertEquals(matchingRows(engine), List.of(0, 1, 3, 4));
+
+        project.markContentChanged();
+        assertNull(FilterBitmapCache.get(project, facetConfig, Engine.Mode.RowBased, project.rows.size()));
+        engine.computeFacets();
+        assertEquals(FilterBitmapCache.get(project, facetConfig, Engine.Mode.RowBased, project.rows.size()), rejected);
+
+        project.columnModel.getColumnByName("Column A").clearPrecomputes();
+        assertNull(FilterBitmapCache.get(project, facetConfig, Engine.Mode.RowBased, project.rows.size()));
+    }
+
+    @Test
+    public void testFilterBitmapsOfImpureFacetsAreNotCached() throws Exception {
+        String config = listFacetConfig("Column A", "[{\"v\":{\"v\":\"a\",\"l\":\"a\"}}]", true)
+                .replace("\"expression\":\"value\"", "\"expression\":\"if(randomNumber() < 1, value, 'b')\"");
+        FacetConfig facetConfig = EngineConfig.reconstruct("{\"facets\":[" + config + "]}")
+                .getFacetConfigs().get(0);
+        Engine engine = newEngineWithOtherFacet(facetConfig);
+
+        engine.computeFacets();
+        assertEquals(matchingRows(engine), List.of(0, 1, 3, 4));
+        assertNull(FilterBitmapCache.get(project, facetConfig, Engine.Mode.RowBased, project.rows.size()));
+    }
+
+    /**
+     * @return an engine with the given facet and an unfiltered one, so that computing the facets evaluates their
+     *         filters once each
+     */
+    private Engine newEngineWithOtherFacet(FacetConfig facetConfig) throws Exception {
+        FacetConfig otherConfig = EngineConfig.reconstruct(
+                "{\"facets\":[" + listFacetConfig("Column B", "[]", false) + "]}").getFacetConfigs().get(0);
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(new EngineConfig(List.of(facetConfig, otherConfig), Engine.Mode.RowBased));
+        return engine;
+    }
+
+    private List<Integer> matchingRows(Engine engine) {
+        List<Integer> rowIndices = new ArrayList<>();
+        engine.getAllFilteredRows().accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rowIndices.add(rowIndex);
+                return false;
+            }
+        });
+        return rowIndices;
+    }
+
+    private void assertComputedFacetsMatchPerFacetFiltering(String mode) throws Exception {
+        EngineConfig config = EngineConfig.reconstruct("{\"mode\":\"" + mode + "\",\"facets\":["
+                + listFacetConfig("Column A", "[{\"v\":{\"v\":\"a\",\"l\":\"a\"}}]", true) + ","
+                + listFacetConfig("Column B", "[{\"v\":{\"v\":\"x\",\"l\":\"x\"}}]", false) + ","
+                + listFacetConfig("Column B", "[]", false) + "]}");
+
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(config);
+        engine.computeFacets();
+
+        Engine expected = new Engine(project);
+        expected.initializeFromConfig(config);
+        for (Facet facet : expected._facets) {
+            if (expected.getMode() == Engine.Mode.RowBased) {
+                facet.computeChoices(project, expected.getFilteredRows(facet));
+            } else {
+                facet.computeChoices(project, expected.getFilteredRecords(facet));
+            }
+        }
+
+        TestUtils.assertEqualsAsJson(ParsingUtilities.mapper.writeValueAsString(engine),
+                ParsingUtilities.mapper.writeValueAsString(expected));
+    }
+
+    private static String listFacetConfig(String columnName, String selection, boolean selectBlank) {
+        return "{\"type\":\"list\",\"name\":\"" + columnName + "\",\"columnName\":\"" + columnName + "\","
+                + "\"expression\":\"value\",\"omitBlank\":false,\"omitError\":false,"
+                + "\"selection\":" + selection + ",\"selectBlank\":" + selectBlank + ","
+                + "\"selectError\":false,\"invert\":false}";
+    }
+}
@@ -1,19 +1,33 @@
 
 package com.google.refine.commands.browsing;
 
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.Clusterer;
+import com.google.refine.clustering.ClusteringManager;
+import com.google.refine.clustering.ClusteringProcess;
 import com.google.refine.commands.Command;
 import com.google.refine.commands.CommandTestBase;
 import com.google.refine.expr.MetaParser;
@@ -70,4 +84,109 @@ public class ComputeClustersCommandTests extends CommandTestBase {
         JsonNode results = ParsingUtilities.mapper.readTree(writer.toString());
         assertEquals(results.get(0).size(), 3);
     }
+
+    @Test
+    public void testAsynchronousClustering() throws Exception {
+        String clusteringConf = "{"
+                + "  \"type\": \"binning\","
+                + "  \"params\":{"
+                + "    \"expression\": \"value.fingerprint()\""
+                + "  },"
+                + "  \"function\": \"UserDefinedKeyer\""
+                + "}";
+        when(request.getParameter("project")).thenReturn(Long.toString(project.id));
+        when(request.getParameter("csrf_token")).thenReturn(Command.csrfFactory.getFreshToken());
+        when(request.getParameter("clusterer")).thenReturn(clusteringConf);
+        when(request.getParameter("async")).thenReturn("true");
+
+        command.doPost(request, response);
+        JsonNode pending = ParsingUtilities.mapper.readTree(writer.toString());
+        assertEquals(pending.get("code").asText(), "pending");
+        long processId = pending.get("processId").asLong();
+
+        JsonNode results = getClusters(processId);
+        for (int i = 0; i < 100 && "pending".equals(results.get("code").asText()); i++) {
+            Thread.sleep(50);
+            results = getClusters(processId);
+        }
+        assertEquals(results.get("code").asText(), "ok");
+        assertEquals(results.get("clusters").get(0).size(), 3);
+
+        // the clusters are only returned once
+        assertEquals(getClusters(processId).get("code").asText(), "error");
+    }
+
+    @Test
+    public void testCancelOneOfTheClusteringsOfAProject() throws Exception {
+        // two clusterings of the same project, as started from two tabs
+        BlockingClusterer first = new BlockingClusterer();
+        BlockingClusterer second = new BlockingClusterer();
+        ClusteringProcess firstProcess = ClusteringManager.start(project.id, first, null);
+        ClusteringProcess secondProcess = ClusteringManager.start(project.id, second, null);
+        when(request.getParameter("project")).thenReturn(Long.toString(project.id));
+
+        try {
+            assertEquals(getClusters(firstProcess.getId()).get("code").asText(), "pending");
+            // a clustering is only found in its own project
+            assertNull(ClusteringManager.get(project.id + 1, firstProcess.getId()));
+
+            when(request.getParameter("csrf_token")).thenReturn(Command.csrfFactory.getFreshToken());
+            when(request.getParameter("processId")).thenReturn(Long.toString(firstProcess.getId()));
+            StringWriter cancelWriter = new StringWriter();
+            HttpServletResponse cancelResponse = mock(HttpServletResponse.class);
+            when(cancelResponse.getWriter()).thenReturn(new PrintWriter(cancelWriter));
+            new CancelClusteringCommand().doPost(request, cancelResponse);
+
+            assertEquals(ParsingUtilities.mapper.readTree(cancelWriter.toString()).get("code").asText(), "ok");
+            firstProcess.waitUntilFinished();
+            assertTrue(firstProcess.getException() instanceof CancellationException);
+            assertNull(ClusteringManager.get(project.id, firstProcess.getId()));
+
+            assertFalse(secondProcess.isFinished());
+            assertEquals(getClusters(secondProcess.getId()).get("code").asText(), "pending");
+            second.latch.countDown();
+            secondProcess.waitUntilFinished();
+            assertNull(secondProcess.getException());
+        } finally {
+            first.latch.countDown();
+            second.latch.countDown();
+            ClusteringManager.remove(secondProcess);
+        }
+    }
+
+    @Test
+    public void testCancelClusteringCSRFProtection() throws ServletException, IOException {
+        new CancelClusteringCommand().doPost(request, response);
+        assertCSRFCheckFailed();
+    }
+
+    private JsonNode getClusters(long processId) throws ServletException, IOException {
+        when(request.getParameter("processId")).thenReturn(Long.toString(processId));
+        StringWriter getWriter = new StringWriter();
+        HttpServletResponse getResponse = mock(HttpServletResponse.class);
+        when(getResponse.getWriter()).thenReturn(new PrintWriter(getWriter));
+        new GetClustersCommand().doGet(request, getResponse);
+        return ParsingUtilities.mapper.readTree(getWriter.toString());
+    }
+
+    /**
+     * Computes no clusters, only waiting to be released or canceled.
+     */
+    private static class BlockingClusterer extends Clusterer {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void computeClusters(Engine engine) {
+            try {
+                while (!latch.await(10, TimeUnit.MILLISECONDS)) {
+                    if (_canceled) {
+                        throw new CancellationException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
@@ -2,7 +2,9 @@
 package com.google.refine.operations.cell;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -14,11 +16,15 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.expr.EvalError;
+import com.google.refine.expr.EvaluationMemo;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.grel.Parser;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.messages.OpenRefineMessage;
 import com.google.refine.model.ColumnsDiff;
 import com.google.refine.model.Project;
 import com.google.refine.operations.OnError;
@@ -262,4 +268,81 @@ public class TextTransformOperationTests extends RefineTest {
         assertProjectEquals(project, expected);
     }
 
+    @Test
+    public void testTransformMemoizedByValue() throws Exception {
+        ProjectManager.singleton.getPreferenceStore().put(EvaluationMemo.ENABLED_PREF, "true");
+        try {
+            TextTransformOperation operation = new TextTransformOperation(
+                    defaultEngineConfig,
+                    "bar",
+                    "grel:value.toUppercase() + '_' + value",
+                    OnError.SetToBlank,
+                    false, 0);
+
+            runOperation(operation, project);
+
+            Project expected = createProject(
+                    new String[] { "foo", "bar", "hello" },
+                    new Serializable[][] {
+                            { "v1", "A_a", "d" },
+                            { "v3", "A_a", "f" },
+                            { "", "A_a", "g" },
+                            { "", "B_b", "h" },
+                            { new EvalError("error"), "A_a", "i" },
+                            { "v1", "B_b", "j" }
+                    });
+            assertProjectEquals(project, expected);
+
+            HistoryEntry entry = project.history.getLastPastEntries(1).get(0);
+            assertTrue(entry.description.endsWith(" " + OpenRefineMessage.evaluation_memo_hit_rate(4.0 / 6)));
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(EvaluationMemo.ENABLED_PREF, null);
+        }
+    }
+
+    @Test
+    public void testTransformNotMemoizedWhenReadingOtherCells() throws Exception {
+        ProjectManager.singleton.getPreferenceStore().put(EvaluationMemo.ENABLED_PREF, "true");
+        try {
+            TextTransformOperation operation = new TextTransformOperation(
+                    defaultEngineConfig,
+                    "bar",
+                    "grel:cells[\"hello\"].value + '_' + value",
+                    OnError.SetToBlank,
+                    false, 0);
+
+            runOperation(operation, project);
+
+            assertEquals(project.rows.get(0).getCellValue(1), "d_a");
+            assertEquals(project.rows.get(1).getCellValue(1), "f_a");
+            HistoryEntry entry = project.history.getLastPastEntries(1).get(0);
+            assertFalse(entry.description.endsWith(")"));
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(EvaluationMemo.ENABLED_PREF, null);
+        }
+    }
+
+    @Test
+    public void testTransformManyRows() throws Exception {
+        // enough rows to be transformed in parallel on multi-core machines
+        Serializable[][] grid = new Serializable[20000][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { i % 3 == 0 ? null : "v" + i };
+        }
+        Project manyRows = createProject(new String[] { "foo" }, grid);
+
+        runOperation(new TextTransformOperation(
+                defaultEngineConfig,
+                "foo",
+                "grel:if(isBlank(value), value, value + '_' + rowIndex)",
+                OnError.SetToBlank,
+                false, 0), manyRows);
+
+        for (int i = 0; i < grid.length; i++) {
+            assertEquals(manyRows.rows.get(i).getCellValue(0), i % 3 == 0 ? null : "v" + i + "_" + i);
+        }
+        assertEquals(manyRows.history.getLastPastEntries(1).get(0).description,
+                OperationDescription.cell_text_transform_desc(13333, "foo",
+                        "grel:if(isBlank(value), value, value + '_' + rowIndex)"));
+    }
 }
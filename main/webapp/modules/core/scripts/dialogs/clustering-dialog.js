@@ -438,32 +438,114 @@ ClusteringDialog.prototype._cluster = function() {
     $(".clustering-dialog-facet").css("display","none");
     var self = this;
 
+    var params = {
+        engine: JSON.stringify(ui.browsingEngine.getJSON()),
+        clusterer: JSON.stringify({
+            'type' : this._method,
+            'function' : this._function,
+            'column' : this._columnName,
+            'params' : this._params
+        }),
+        async: true
+    };
+    // polling stops for the previous clustering, which compute-clusters then cancels
+    if (this._clusteringPending && this._processId !== undefined) {
+        params.previousProcessId = this._processId;
+    }
+    window.clearTimeout(this._pollTimer);
+    var clusteringRequest = this._clusteringRequest = {};
+    this._processId = undefined;
+    this._clusteringPending = true;
     var container = this._elmts.tableContainer.html(
-        '<div style="margin: 1em; font-size: 130%; color: #888;">'+$.i18n('core-dialogs/clustering')+'<img src="images/small-spinner.gif"></div>'
+        '<div style="margin: 1em; font-size: 130%; color: #888;">'+$.i18n('core-dialogs/clustering')+'<img src="images/small-spinner.gif"> ' +
+        '<span class="clustering-progress"></span> <a href="javascript:{}" class="clustering-cancel">'+$.i18n('core-buttons/cancel')+'</a></div>'
     );
+    container.find('.clustering-cancel').on('click', function() {
+        self._cancelClustering();
+        self._showClusteringMessage($.i18n('core-dialogs/clustering-canceled'));
+    });
 
     this._elmts.resultSummary.empty();
 
+    // clusters are computed in the background, and fetched once ready
     Refine.postCSRF(
         "command/core/compute-clusters?" + $.param({ project: theProject.id }),
-        {
-            engine: JSON.stringify(ui.browsingEngine.getJSON()),
-            clusterer: JSON.stringify({
-                'type' : this._method,
-                'function' : this._function,
-                'column' : this._columnName,
-                'params' : this._params
-            })
-        },
+        params,
         function(data) {
-            self._updateData(data);
-            $(".clustering-dialog-facet").css("display","block");
-            $('#cluster-and-edit-dialog :input').not('.Checkbox_Choice').prop('disabled', false);
+            if (!self._clusteringPending || self._clusteringRequest !== clusteringRequest) {
+                // canceled or replaced in the meantime
+                if (data.processId !== undefined) {
+                    self._postCancelClustering(data.processId);
+                }
+            } else if (data.code === "error") {
+                self._clusteringPending = false;
+                self._showClusteringMessage(data.message);
+            } else {
+                self._processId = data.processId;
+                self._pollClusters(data.processId);
+            }
         },
         "json"
     );
 };
 
+ClusteringDialog.prototype._pollClusters = function(processId) {
+    var self = this;
+    this._pollTimer = window.setTimeout(function() {
+        $.getJSON(
+            "command/core/get-clusters?" + $.param({ project: theProject.id, processId: processId }),
+            null,
+            function(data) {
+                if (!self._clusteringPending || self._processId !== processId) {
+                    // canceled or replaced in the meantime
+                    return;
+                }
+                if (data.code === "pending") {
+                    self._elmts.tableContainer.find('.clustering-progress').text(data.progress + '%');
+                    self._pollClusters(processId);
+                    return;
+                }
+                self._clusteringPending = false;
+                if (data.code === "ok") {
+                    self._updateData(data.clusters);
+                    $(".clustering-dialog-facet").css("display","block");
+                    $('#cluster-and-edit-dialog :input').not('.Checkbox_Choice').prop('disabled', false);
+                } else if (data.code === "canceled") {
+                    self._showClusteringMessage($.i18n('core-dialogs/clustering-canceled'));
+                } else {
+                    self._showClusteringMessage(data.message);
+                }
+            }
+        );
+    }, 500);
+};
+
+ClusteringDialog.prototype._cancelClustering = function() {
+    if (this._clusteringPending) {
+        this._clusteringPending = false;
+        window.clearTimeout(this._pollTimer);
+        if (this._processId !== undefined) {
+            this._postCancelClustering(this._processId);
+        }
+    }
+};
+
+ClusteringDialog.prototype._postCancelClustering = function(processId) {
+    Refine.postCSRF(
+        "command/core/cancel-clustering?" + $.param({ project: theProject.id }),
+        { processId: processId },
+        function(data) {},
+        "json"
+    );
+};
+
+ClusteringDialog.prototype._showClusteringMessage = function(message) {
+    this._elmts.tableContainer.html(
+        '<div style="margin: 2em;"><div style="font-size: 130%; color: #333;"></div></div>'
+    ).find('div div').text(message);
+    $('#cluster-and-edit-dialog :input').not('.Checkbox_Choice').prop('disabled', false);
+};
+
 ClusteringDialog.prototype._updateData = function(data) {
     var clusters = [];
     $.each(data, function() {
@@ -592,6 +674,7 @@ ClusteringDialog.prototype._export = function() {
 };
 
 ClusteringDialog.prototype._dismiss = function() {
+    this._cancelClustering();
     DialogSystem.dismissUntil(this._level - 1);
 };
 
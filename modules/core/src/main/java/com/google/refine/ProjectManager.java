@@ -39,7 +39,9 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -55,8 +57,10 @@ import org.slf4j.LoggerFactory;
 
 import com.google.refine.history.HistoryEntryManager;
 import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
+import com.google.refine.sorting.SortedOrder;
 import com.google.refine.util.GetProjectIDException;
 import com.google.refine.util.ParsingUtilities;
 
@@ -73,6 +77,9 @@ public abstract class ProjectManager {
     // If a project has been idle this long, flush it from memory
     static protected final Duration PROJECT_FLUSH_DELAY = Duration.ofMinutes(15);
 
+    // Heap budget for the projects held in memory, in megabytes. Defaults to half of the maximum heap size.
+    static public final String CACHE_BUDGET_PREF = "project.cache.maxMemoryMB";
+
     // Don't spend more than this much time saving projects if doing a quick save
     static protected final Duration QUICK_SAVE_MAX_TIME = Duration.ofSeconds(30);
 
@@ -97,17 +104,26 @@ public abstract class ProjectManager {
 
     /**
      * While each project's metadata is loaded completely at start-up, each project's raw data is loaded only when the
-     * project is accessed by the user. This is because project metadata is tiny compared to raw project data. This hash
-     * map from project ID to project is more like a last accessed-last out cache.
+     * project is accessed by the user. This is because project metadata is tiny compared to raw project data. Projects
+     * which have been idle for {@link #PROJECT_FLUSH_DELAY} are flushed, and when the projects exceed the heap budget,
+     * the least recently accessed ones which are saved are evicted first.
      */
     transient protected Map<Long, Project> _projects;
 
+    /**
+     * Access stamp of each project held in memory, from {@link #_accessCount}, used to evict the least recently
+     * accessed projects. Guarded by the project manager lock, like {@link #_projects}.
+     */
+    transient private Map<Long, Long> _projectsLastAccess;
+    transient private long _accessCount = 0;
+
     static public ProjectManager singleton;
 
     protected ProjectManager() {
         _projectsMetadata = new HashMap<Long, ProjectMetadata>();
         _preferenceStore = new PreferenceStore();
         _projects = new HashMap<Long, Project>();
+        _projectsLastAccess = new HashMap<>();
         _projectsTags = new HashMap<>();
 
         preparePreferenceStore(_preferenceStore);
@@ -123,6 +139,7 @@ public abstract class ProjectManager {
         }
 
         _projects.clear();
+        _projectsLastAccess.clear();
         _projectsMetadata.clear();
     }
 
@@ -137,8 +154,10 @@ public abstract class ProjectManager {
             // Row count is duplicated in metadata, so make sure it is up-to-date
             projectMetadata.setRowCount(project.rows.size());
             _projects.put(project.id, project);
+            markAccessed(project.id);
             _projectsMetadata.put(project.id, projectMetadata);
             addProjectTags(projectMetadata.getTags());
+            evictProjects(project.id);
         }
     }
 
@@ -183,8 +202,10 @@ public abstract class ProjectManager {
      * @param id
      */
     public void ensureProjectSaved(long id) {
+        Project project;
+        ProjectMetadata metadata;
         synchronized (this) {
-            ProjectMetadata metadata = this.getProjectMetadata(id);
+            metadata = this.getProjectMetadata(id);
             if (metadata != null) {
                 try {
                     saveMetadata(metadata, id);
@@ -193,17 +214,18 @@ public abstract class ProjectManager {
                 }
             } // FIXME what should be the behaviour if metadata is null? i.e. not found
 
-            Project project = getProject(id);
-            if (project != null && metadata != null && metadata.getModified().isAfter(project.getLastSave())) {
-                try {
-                    saveProject(project);
-                } catch (Exception e) {
-                    logger.error("Error saving project ", e);
-                }
-            } // FIXME what should be the behaviour if project is null? i.e. not found or loaded.
-              // FIXME what should happen if the metadata is found, but not the project? or vice versa?
+            project = getProject(id);
         }
 
+        // the project is saved without holding the manager lock, so that other projects remain accessible meanwhile
+        if (project != null && metadata != null && metadata.getModified().isAfter(project.getLastSave())) {
+            try {
+                saveProject(project);
+            } catch (Exception e) {
+                logger.error("Error saving project ", e);
+            }
+        } // FIXME what should be the behaviour if project is null? i.e. not found or loaded.
+          // FIXME what should happen if the metadata is found, but not the project? or vice versa?
     }
 
     /**
@@ -266,11 +288,13 @@ public abstract class ProjectManager {
         Instant quicksaveDeadline = startTimeOfSave.plus(QUICK_SAVE_MAX_TIME);
 
         synchronized (this) {
-            for (long id : _projectsMetadata.keySet()) {
-                ProjectMetadata metadata = getProjectMetadata(id);
-                Project project = _projects.get(id); // don't call getProject() as that will load the project.
+            Iterator<Entry<Long, Project>> iterator = _projects.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry<Long, Project> entry = iterator.next();
+                ProjectMetadata metadata = getProjectMetadata(entry.getKey());
+                Project project = entry.getValue();
 
-                if (project != null) {
+                if (metadata != null) {
                     // We use after or equals to avoid the case where a newly created project
                     // has the same modified and last save times, resulting in the project not getting
                     // saved at all.
@@ -288,7 +312,9 @@ public abstract class ProjectManager {
                          * It's been a while since the project was last saved, and it hasn't been modified. We can
                          * safely remove it from the cache to save some memory.
                          */
-                        _projects.remove(id).dispose();
+                        iterator.remove();
+                        _projectsLastAccess.remove(entry.getKey());
+                        project.dispose();
                     }
                 }
             }
@@ -314,6 +340,165 @@ public abstract class ProjectManager {
                 }
             }
         }
+
+        compactProjects(allModified ? null : quicksaveDeadline);
+
+        // projects which have just been saved can now be evicted
+        evictProjects();
+    }
+
+    /**
+     * Saves in full the projects whose latest changes were saved incrementally and which are no longer being modified.
+     * Does nothing by default.
+     *
+     * @param deadline
+     *            time after which no more projects are compacted, or null to compact all of them
+     */
+    protected void compactProjects(Instant deadline) {
+    }
+
+    /**
+     * Evicts the least recently accessed projects from memory until the estimated size of the projects held in memory
+     * fits in the heap budget. Only projects which are saved and have no pending process are evicted.
+     */
+    protected void evictProjects() {
+        evictProjects(-1);
+    }
+
+    /**
+     * Evicts projects as {@link #evictProjects()} does, except the given one, which has just been loaded or registered
+     * and is about to be used.
+     */
+    protected void evictProjects(long keptId) {
+        synchronized (this) {
+            long budget = getProjectCacheBudget();
+            Map<Long, Long> sizes = estimateProjectSizes();
+            long used = sizes.values().stream().mapToLong(Long::longValue).sum();
+            if (used <= budget) {
+                return;
+            }
+
+            for (long id : getProjectIdsByAccess()) {
+                if (used <= budget) {
+                    break;
+                }
+                if (id == keptId) {
+                    continue;
+                }
+                Project project = _projects.get(id);
+                ProjectMetadata metadata = _projectsMetadata.get(id);
+                if (metadata == null || project.getProcessManager().hasPending()
+                        || !project.getLastSave().isAfter(metadata.getModified())) {
+                    continue;
+                }
+                _projects.remove(id).dispose();
+                _projectsLastAccess.remove(id);
+                used -= sizes.get(id);
+                logger.info("Evicted project {} from memory ({} KB) to stay within the cache budget of {} MB",
+                        id, sizes.get(id) / 1024, budget / (1024 * 1024));
+            }
+            if (used > budget) {
+                logger.warn("Projects held in memory ({} MB) exceed the cache budget of {} MB but cannot be evicted",
+                        used / (1024 * 1024), budget / (1024 * 1024));
+            }
+        }
+    }
+
+    private void markAccessed(long id) {
+        _projectsLastAccess.put(id, ++_accessCount);
+    }
+
+    /**
+     * @return the ids of the projects held in memory, from the least to the most recently accessed
+     */
+    private List<Long> getProjectIdsByAccess() {
+        List<Long> ids = new ArrayList<>(_projects.keySet());
+        ids.sort(Comparator.comparing(id -> _projectsLastAccess.getOrDefault(id, 0L)));
+        return ids;
+    }
+
+    private Map<Long, Long> estimateProjectSizes() {
+        Map<Long, Long> sizes = new HashMap<>();
+        for (Entry<Long, Project> entry : _projects.entrySet()) {
+            sizes.put(entry.getKey(), estimateProjectSize(entry.getValue()));
+        }
+        return sizes;
+    }
+
+    /**
+     * @return an estimate of the heap occupied by the project, including the data derived from it which is cached
+     */
+    private long estimateProjectSize(Project project) {
+        return ProjectSizeEstimator.estimate(project) + SortedOrder.estimateCachedSize(project);
+    }
+
+    /**
+     * @return the heap budget for the projects held in memory, in bytes
+     */
+    @JsonIgnore
+    public long getProjectCacheBudget() {
+        Object v = _preferenceStore.get(CACHE_BUDGET_PREF);
+        if (v != null) {
+            if (v instanceof Number) {
+                return ((Number) v).longValue() * 1024 * 1024;
+            } else {
+                try {
+                    return Long.parseLong(v.toString()) * 1024 * 1024;
+                } catch (NumberFormatException e) {
+                    // ignore
+                }
+            }
+        }
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * Reports the estimated memory used by the projects held in memory, with respect to the heap budget.
+     */
+    @JsonIgnore
+    public CacheOccupancy getProjectCacheOccupancy() {
+        synchronized (this) {
+            List<CachedProject> projects = new ArrayList<>();
+            long used = 0;
+            for (long id : getProjectIdsByAccess()) {
+                long size = estimateProjectSize(_projects.get(id));
+                projects.add(new CachedProject(id, size));
+                used += size;
+            }
+            return new CacheOccupancy(getProjectCacheBudget(), used, projects);
+        }
+    }
+
+    /**
+     * Occupancy of the in-memory project cache, with the projects listed from the least to the most recently accessed.
+     */
+    static public class CacheOccupancy {
+
+        @JsonProperty("budget")
+        public final long budget;
+        @JsonProperty("used")
+        public final long used;
+        @JsonProperty("projects")
+        public final List<CachedProject> projects;
+
+        protected CacheOccupancy(long budget, long used, List<CachedProject> projects) {
+            this.budget = budget;
+            this.used = used;
+            this.projects = projects;
+        }
+    }
+
+    static public class CachedProject {
+
+        @JsonProperty("id")
+        public final long id;
+        @JsonProperty("estimatedSize")
+        public final long estimatedSize;
+
+        protected CachedProject(long id, long estimatedSize) {
+            this.id = id;
+            this.estimatedSize = estimatedSize;
+        }
     }
 
     /**
@@ -321,12 +506,16 @@ public abstract class ProjectManager {
      */
     protected void disposeUnmodifiedProjects() {
         synchronized (this) {
-            for (long id : _projectsMetadata.keySet()) {
-                ProjectMetadata metadata = getProjectMetadata(id);
-                Project project = _projects.get(id);
-                if (project != null && !project.getProcessManager().hasPending()
+            Iterator<Entry<Long, Project>> iterator = _projects.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry<Long, Project> entry = iterator.next();
+                ProjectMetadata metadata = getProjectMetadata(entry.getKey());
+                Project project = entry.getValue();
+                if (metadata != null && !project.getProcessManager().hasPending()
                         && project.getLastSave().isAfter(metadata.getModified())) {
-                    _projects.remove(id).dispose();
+                    iterator.remove();
+                    _projectsLastAccess.remove(entry.getKey());
+                    project.dispose();
                 }
             }
         }
@@ -554,11 +743,14 @@ public abstract class ProjectManager {
     public Project getProject(long id) {
         synchronized (this) {
             if (_projects.containsKey(id)) {
+                markAccessed(id);
                 return _projects.get(id);
             } else {
                 Project project = loadProject(id);
                 if (project != null) {
                     _projects.put(id, project);
+                    markAccessed(id);
+                    evictProjects(id);
                 }
                 return project;
             }
@@ -618,6 +810,7 @@ public abstract class ProjectManager {
         if (_projects.containsKey(projectID)) {
             _projects.remove(projectID).dispose();
         }
+        _projectsLastAccess.remove(projectID);
         _projectsMetadata.remove(projectID);
     }
 
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing;
+
+/**
+ * A {@link RowVisitor} or {@link RecordVisitor} whose results over disjoint ranges of rows or records can be combined,
+ * which lets the rows or records be visited in parallel.
+ * <p>
+ * Each range is visited by a partial visitor, obtained from {@link #createPartialVisitor()} after
+ * {@link RowVisitor#start} has been called on this visitor. The partial visitors are then combined into this one in the
+ * order of their ranges, before {@link RowVisitor#end} is called on this visitor. The start and end methods are never
+ * called on partial visitors.
+ * <p>
+ * A combinable visitor must not abort visitation early, and its visit methods must not modify any state shared with
+ * other partial visitors.
+ *
+ * @param <T>
+ *            the type of the partial visitors
+ */
+public interface CombinableVisitor<T extends CombinableVisitor<T>> {
+
+    /**
+     * @return a visitor with empty results, configured like this one
+     */
+    public T createPartialVisitor();
+
+    /**
+     * Adds the results of a partial visitor to the results of this visitor. The partial visitor has visited rows or
+     * records after all those visited by this visitor.
+     */
+    public void combine(T partial);
+
+    /**
+     * @return false if the rows or records must nonetheless be visited serially, for instance because the visitor
+     *         evaluates an expression which is not thread-safe
+     */
+    public default boolean isParallelizable() {
+        return true;
+    }
+}
@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,9 +43,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.FacetConfig;
 import com.google.refine.browsing.util.ConjunctiveFilteredRecords;
 import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.FacetFilterMasks;
 import com.google.refine.browsing.util.FilteredRecordsAsFilteredRows;
+import com.google.refine.browsing.util.ParallelScan;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
@@ -90,6 +94,11 @@ public class Engine {
         return _config.getMode();
     }
 
+    @JsonIgnore
+    public EngineConfig getConfig() {
+        return _config;
+    }
+
     public void setMode(Mode mode) {
         _config = new EngineConfig(_config.getFacetConfigs(), mode);
     }
@@ -104,11 +113,11 @@ public class Engine {
                     visitor.start(project);
 
                     int c = project.rows.size();
-                    for (int rowIndex = 0; rowIndex < c; rowIndex++) {
-                        Row row = project.rows.get(rowIndex);
-                        if (visitor.visit(project, rowIndex, rowIndex, row)) {
-                            break;
-                        }
+                    if (ParallelScan.isApplicable(visitor, c)) {
+                        ParallelScan.visit((CombinableVisitor<?>) visitor, c,
+                                (partial, from, to) -> visitRows(project, (RowVisitor) partial, from, to));
+                    } else {
+                        visitRows(project, visitor, 0, c);
                     }
                 } finally {
                     visitor.end(project);
@@ -150,9 +159,11 @@ public class Engine {
                     visitor.start(project);
 
                     int c = project.recordModel.getRecordCount();
-                    for (int r = 0; r < c; r++) {
-                        Record record = project.recordModel.getRecord(r);
-                        visitor.visit(project, record.fromRowIndex, record);
+                    if (ParallelScan.isApplicable(visitor, c)) {
+                        ParallelScan.visit((CombinableVisitor<?>) visitor, c,
+                                (partial, from, to) -> visitRecords(project, (RecordVisitor) partial, from, to));
+                    } else {
+                        visitRecords(project, visitor, 0, c);
                     }
                 } finally {
                     visitor.end(project);
@@ -161,6 +172,22 @@ public class Engine {
         };
     }
 
+    static private void visitRows(Project project, RowVisitor visitor, int from, int to) {
+        for (int rowIndex = from; rowIndex < to; rowIndex++) {
+            Row row = project.rows.get(rowIndex);
+            if (visitor.visit(project, rowIndex, rowIndex, row)) {
+                break;
+            }
+        }
+    }
+
+    static private void visitRecords(Project project, RecordVisitor visitor, int from, int to) {
+        for (int r = from; r < to; r++) {
+            Record record = project.recordModel.getRecord(r);
+            visitor.visit(project, record.fromRowIndex, record);
+        }
+    }
+
     @JsonIgnore
     public FilteredRecords getFilteredRecords() {
         return getFilteredRecords(null);
@@ -190,6 +217,10 @@ public class Engine {
     }
 
     public void computeFacets() {
+        if (_facets.size() > 1) {
+            computeFacetsFused();
+            return;
+        }
         if (_config.getMode().equals(Mode.RowBased)) {
             for (Facet facet : _facets) {
                 FilteredRows filteredRows = getFilteredRows(facet);
@@ -206,4 +237,42 @@ public class Engine {
             throw new InternalError("Unknown mode.");
         }
     }
+
+    /**
+     * @return the configurations of the facets, in the same order as the facets, or null if they are not known
+     */
+    private List<FacetConfig> getFacetConfigs() {
+        List<FacetConfig> facetConfigs = _config.getFacetConfigs();
+        return facetConfigs.size() == _facets.size() ? facetConfigs : null;
+    }
+
+    /**
+     * Computes the choices of the facets after evaluating the filter of each facet once per row or record, rather than
+     * evaluating the filters of all other facets again for each facet.
+     */
+    protected void computeFacetsFused() {
+        if (_config.getMode().equals(Mode.RowBased)) {
+            List<RowFilter> rowFilters = new ArrayList<>(_facets.size());
+            for (Facet facet : _facets) {
+                rowFilters.add(facet.getRowFilter(_project));
+            }
+            FacetFilterMasks masks = FacetFilterMasks.ofRows(_project, rowFilters, getFacetConfigs());
+            int f = 0;
+            for (Facet facet : _facets) {
+                facet.computeChoices(_project, masks.getFilteredRowsExcept(f++));
+            }
+        } else if (_config.getMode().equals(Mode.RecordBased)) {
+            List<RecordFilter> recordFilters = new ArrayList<>(_facets.size());
+            for (Facet facet : _facets) {
+                recordFilters.add(facet.getRecordFilter(_project));
+            }
+            FacetFilterMasks masks = FacetFilterMasks.ofRecords(_project, recordFilters, getFacetConfigs());
+            int f = 0;
+            for (Facet facet : _facets) {
+                facet.computeChoices(_project, masks.getFilteredRecordsExcept(f++));
+            }
+        } else {
+            throw new InternalError("Unknown mode.");
+        }
+    }
 }
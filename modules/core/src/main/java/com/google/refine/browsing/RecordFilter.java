@@ -43,4 +43,12 @@ import com.google.refine.model.Record;
 public interface RecordFilter {
 
     public boolean filterRecord(Project project, Record record);
+
+    /**
+     * @return false if records must nonetheless be filtered on a single thread, for instance because the filter
+     *         evaluates an expression which is not thread-safe
+     */
+    public default boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -43,4 +43,12 @@ import com.google.refine.model.Row;
 public interface RowFilter {
 
     public boolean filterRow(Project project, int rowIndex, Row row);
+
+    /**
+     * @return false if rows must nonetheless be filtered on a single thread, for instance because the filter evaluates
+     *         an expression which is not thread-safe
+     */
+    public default boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -93,6 +93,18 @@ public interface FacetConfig {
         return Optional.empty();
     }
 
+    /**
+     * Whether the rows selected by this facet only depend on the contents of the columns returned by
+     * {@link #getColumnDependencies()}, so that they can be reused as long as these columns are unchanged. This is not
+     * the case for facets whose expressions read other projects, draw random numbers or read the current time.
+     *
+     * @return false by default, when this cannot be established
+     */
+    @JsonIgnore
+    public default boolean isPureFunctionOfColumns() {
+        return false;
+    }
+
     /**
      * Translates this facet by simultaneously substituting column names, as specified by the supplied map. This is a
      * best effort transformation: some references to columns might not get renamed in complex expressions. It can
@@ -57,11 +57,13 @@ import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AllRowsRecordFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
+import com.google.refine.browsing.util.ColumnNominalValueGrouper;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
+import com.google.refine.model.ColumnData;
 import com.google.refine.model.Project;
 import com.google.refine.util.NotImplementedException;
 
@@ -156,6 +158,15 @@ public class ListFacet implements Facet {
             }
         }
 
+        @Override
+        public boolean isPureFunctionOfColumns() {
+            try {
+                return MetaParser.parse(expression).isPureFunctionOfRow();
+            } catch (ParsingException e) {
+                return false;
+            }
+        }
+
         @Override
         public FacetConfig renameColumnDependencies(Map<String, String> substitutions) {
             String newExpression;
@@ -347,7 +358,7 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = createGrouper(project);
 
             filteredRows.accept(project, grouper);
 
@@ -358,7 +369,7 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRecords filteredRecords) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = createGrouper(project);
 
             filteredRecords.accept(project, grouper);
 
@@ -366,6 +377,24 @@ public class ListFacet implements Facet {
         }
     }
 
+    /**
+     * Creates the grouper computing the choices. Facets on the values of a column holding only strings read the column
+     * data directly rather than evaluating the expression on each row.
+     */
+    protected ExpressionNominalValueGrouper createGrouper(Project project) {
+        String expression = _config.expression == null ? "" : _config.expression.trim();
+        if (_cellIndex >= 0 && ("value".equals(expression) || "grel:value".equals(expression))) {
+            Column column = project.columnModel.getColumnByName(_config.columnName);
+            if (column != null) {
+                ColumnData data = ColumnData.get(project, column);
+                if (data.isStringsOnly()) {
+                    return new ColumnNominalValueGrouper(_eval, _config.columnName, data);
+                }
+            }
+        }
+        return new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+    }
+
     protected void postProcessGrouper(ExpressionNominalValueGrouper grouper) {
         _choices.clear();
         _choices.addAll(grouper.choices.values());
@@ -152,6 +152,15 @@ public class RangeFacet implements Facet {
             }
         }
 
+        @Override
+        public boolean isPureFunctionOfColumns() {
+            try {
+                return MetaParser.parse(_expression).isPureFunctionOfRow();
+            } catch (ParsingException e) {
+                return false;
+            }
+        }
+
         @Override
         public FacetConfig renameColumnDependencies(Map<String, String> substitutions) {
             String newExpression;
@@ -204,6 +204,16 @@ public class ScatterplotFacet implements Facet {
             }
         }
 
+        @Override
+        public boolean isPureFunctionOfColumns() {
+            try {
+                return MetaParser.parse(expression_x).isPureFunctionOfRow()
+                        && MetaParser.parse(expression_y).isPureFunctionOfRow();
+            } catch (ParsingException e) {
+                return false;
+            }
+        }
+
         @Override
         public FacetConfig renameColumnDependencies(Map<String, String> substitutions) {
             String newExpressionX;
@@ -39,6 +39,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.IntPredicate;
 import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -49,10 +50,12 @@ import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionStringComparisonRowFilter;
+import com.google.refine.browsing.util.TrigramIndex;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.util.PatternSyntaxExceptionParser;
 
 public class TextSearchFacet implements Facet {
@@ -105,6 +108,11 @@ public class TextSearchFacet implements Facet {
             return Optional.of(Collections.singleton(_columnName));
         }
 
+        @Override
+        public boolean isPureFunctionOfColumns() {
+            return true;
+        }
+
         @Override
         public FacetConfig renameColumnDependencies(Map<String, String> substitutions) {
             TextSearchFacetConfig newConfig = new TextSearchFacetConfig();
@@ -215,8 +223,9 @@ public class TextSearchFacet implements Facet {
 
         };
 
+        IntPredicate candidates = getCandidateRows(project);
         if ("regex".equals(_config._mode)) {
-            return new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
+            return new IndexedRowFilter(eval, _config._invert, _config._columnName, _cellIndex, candidates) {
 
                 @Override
                 protected boolean checkValue(String s) {
@@ -224,7 +233,7 @@ public class TextSearchFacet implements Facet {
                 };
             };
         } else {
-            return new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
+            return new IndexedRowFilter(eval, _config._invert, _config._columnName, _cellIndex, candidates) {
 
                 @Override
                 protected boolean checkValue(String s) {
@@ -234,6 +243,43 @@ public class TextSearchFacet implements Facet {
         }
     }
 
+    /**
+     * Uses the trigram index of the column, if any, to find the rows which can match the query.
+     *
+     * @return the candidate rows, or null if all rows must be checked
+     */
+    protected IntPredicate getCandidateRows(Project project) {
+        String literal = "regex".equals(_config._mode) ? TrigramIndex.getLiteralPrefix(_query) : _query;
+        if (literal.length() < 3) {
+            return null;
+        }
+        Column column = project.columnModel.getColumnByName(_config._columnName);
+        TrigramIndex index = column == null ? null : TrigramIndex.get(project, column);
+        return index == null ? null : index.getCandidateRows(literal);
+    }
+
+    /**
+     * Row filter which skips checking the rows that cannot match.
+     */
+    abstract static protected class IndexedRowFilter extends ExpressionStringComparisonRowFilter {
+
+        final protected IntPredicate _candidates;
+
+        public IndexedRowFilter(Evaluable evaluable, Boolean invert, String columnName, int cellIndex,
+                IntPredicate candidates) {
+            super(evaluable, invert, columnName, cellIndex);
+            _candidates = candidates;
+        }
+
+        @Override
+        public boolean filterRow(Project project, int rowIndex, Row row) {
+            if (_candidates != null && !_candidates.test(rowIndex)) {
+                return _invert;
+            }
+            return super.filterRow(project, rowIndex, row);
+        }
+    }
+
     @Override
     public RecordFilter getRecordFilter(Project project) {
         RowFilter rowFilter = getRowFilter(project);
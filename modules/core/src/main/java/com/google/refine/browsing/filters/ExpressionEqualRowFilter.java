@@ -184,4 +184,9 @@ public class ExpressionEqualRowFilter implements RowFilter {
         return (v instanceof Number && match instanceof Number) ? ((Number) match).doubleValue() == ((Number) v).doubleValue()
                 : match.equals(v);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _evaluable.isThreadSafe();
+    }
 }
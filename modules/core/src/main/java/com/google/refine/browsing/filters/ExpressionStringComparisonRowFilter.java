@@ -107,4 +107,9 @@ abstract public class ExpressionStringComparisonRowFilter implements RowFilter {
     }
 
     abstract protected boolean checkValue(String s);
+
+    @Override
+    public boolean isThreadSafe() {
+        return _evaluable.isThreadSafe();
+    }
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import com.google.refine.browsing.DecoratedValue;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.ColumnData;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Groups matched rows or records by the values of a column which only holds strings, as a text facet on the
+ * {@code value} expression does. The values are read from the {@link ColumnData} of the column and counted by
+ * dictionary id, without evaluating the expression.
+ */
+public class ColumnNominalValueGrouper extends ExpressionNominalValueGrouper {
+
+    final protected ColumnData _data;
+    final protected int[] _counts;
+    final protected int[] _latestIndices;
+
+    public ColumnNominalValueGrouper(Evaluable evaluable, String columnName, ColumnData data) {
+        super(evaluable, columnName, data.getCellIndex());
+        if (!data.isStringsOnly()) {
+            throw new IllegalArgumentException("Column data must only contain strings");
+        }
+        _data = data;
+        _counts = new int[data.getDictionarySize()];
+        _latestIndices = new int[data.getDictionarySize()];
+        Arrays.fill(_latestIndices, -1);
+    }
+
+    @Override
+    public ColumnNominalValueGrouper createPartialVisitor() {
+        return new ColumnNominalValueGrouper(_evaluable, _columnName, _data);
+    }
+
+    @Override
+    public void combine(ExpressionNominalValueGrouper partial) {
+        ColumnNominalValueGrouper other = (ColumnNominalValueGrouper) partial;
+        for (int id = 0; id < _counts.length; id++) {
+            _counts[id] += other._counts[id];
+            _latestIndices[id] = Math.max(_latestIndices[id], other._latestIndices[id]);
+        }
+        blankCount += other.blankCount;
+        errorCount += other.errorCount;
+    }
+
+    @Override
+    public void end(Project project) {
+        for (int id = 0; id < _counts.length; id++) {
+            if (_counts[id] > 0) {
+                String value = _data.getString(id);
+                IndexedNominalFacetChoice choice = new IndexedNominalFacetChoice(new DecoratedValue(value, value),
+                        _latestIndices[id]);
+                choice.count = _counts[id];
+                choices.put(value, choice);
+            }
+        }
+    }
+
+    @Override
+    public boolean visit(Project project, int rowIndex, Row row) {
+        hasBlank = false;
+
+        visitRow(project, rowIndex, row, null, rowIndex);
+
+        if (hasBlank) {
+            blankCount++;
+        }
+        return false;
+    }
+
+    @Override
+    protected void visitRow(Project project, int rowIndex, Row row, Properties bindings, int index) {
+        int id = _data.getStringId(rowIndex);
+        if (id >= 0 && !_data.getString(id).isEmpty()) {
+            // choices are counted once per row, in records mode too, as ExpressionNominalValueGrouper does
+            if (_latestIndices[id] < rowIndex) {
+                _latestIndices[id] = rowIndex;
+                _counts[id]++;
+            }
+        } else {
+            hasBlank = true;
+        }
+    }
+}
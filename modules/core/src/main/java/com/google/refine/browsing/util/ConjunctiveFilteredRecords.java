@@ -36,6 +36,7 @@ package com.google.refine.browsing.util;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.FilteredRecords;
 import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RecordVisitor;
@@ -59,19 +60,28 @@ public class ConjunctiveFilteredRecords implements FilteredRecords {
             visitor.start(project);
 
             int c = project.recordModel.getRecordCount();
-            for (int r = 0; r < c; r++) {
-                Record record = project.recordModel.getRecord(r);
-                if (matchRecord(project, record)) {
-                    if (visitor.visit(project, record.fromRowIndex, record)) {
-                        return;
-                    }
-                }
+            if (ParallelScan.isApplicable(visitor, c) && ParallelScan.areThreadSafe(_recordFilters)) {
+                ParallelScan.visit((CombinableVisitor<?>) visitor, c,
+                        (partial, from, to) -> visitRecords(project, (RecordVisitor) partial, from, to));
+            } else {
+                visitRecords(project, visitor, 0, c);
             }
         } finally {
             visitor.end(project);
         }
     }
 
+    protected void visitRecords(Project project, RecordVisitor visitor, int from, int to) {
+        for (int r = from; r < to; r++) {
+            Record record = project.recordModel.getRecord(r);
+            if (matchRecord(project, record)) {
+                if (visitor.visit(project, record.fromRowIndex, record)) {
+                    return;
+                }
+            }
+        }
+    }
+
     protected boolean matchRecord(Project project, Record record) {
         for (RecordFilter recordFilter : _recordFilters) {
             if (!recordFilter.filterRecord(project, record)) {
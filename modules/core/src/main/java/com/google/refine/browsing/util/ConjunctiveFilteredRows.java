@@ -36,6 +36,7 @@ package com.google.refine.browsing.util;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.RowVisitor;
@@ -60,19 +61,28 @@ public class ConjunctiveFilteredRows implements FilteredRows {
             visitor.start(project);
 
             int c = project.rows.size();
-            for (int rowIndex = 0; rowIndex < c; rowIndex++) {
-                Row row = project.rows.get(rowIndex);
-                if (matchRow(project, rowIndex, row)) {
-                    if (visitRow(project, visitor, rowIndex, row)) {
-                        break;
-                    }
-                }
+            if (ParallelScan.isApplicable(visitor, c) && ParallelScan.areThreadSafe(_rowFilters)) {
+                ParallelScan.visit((CombinableVisitor<?>) visitor, c,
+                        (partial, from, to) -> visitRows(project, (RowVisitor) partial, from, to));
+            } else {
+                visitRows(project, visitor, 0, c);
             }
         } finally {
             visitor.end(project);
         }
     }
 
+    protected void visitRows(Project project, RowVisitor visitor, int from, int to) {
+        for (int rowIndex = from; rowIndex < to; rowIndex++) {
+            Row row = project.rows.get(rowIndex);
+            if (matchRow(project, rowIndex, row)) {
+                if (visitRow(project, visitor, rowIndex, row)) {
+                    break;
+                }
+            }
+        }
+    }
+
     protected boolean visitRow(Project project, RowVisitor visitor, int rowIndex, Row row) {
         return visitor.visit(project, rowIndex, rowIndex, row);
     }
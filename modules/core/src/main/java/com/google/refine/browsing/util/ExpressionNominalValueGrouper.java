@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.DecoratedValue;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
@@ -55,7 +56,8 @@ import com.google.refine.util.StringUtils;
 /**
  * Visit matched rows or records and group them into facet choices based on the values computed from a given expression.
  */
-public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor {
+public class ExpressionNominalValueGrouper
+        implements RowVisitor, RecordVisitor, CombinableVisitor<ExpressionNominalValueGrouper> {
 
     static public class IndexedNominalFacetChoice extends NominalFacetChoice {
 
@@ -103,6 +105,31 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         // nothing to do
     }
 
+    @Override
+    public ExpressionNominalValueGrouper createPartialVisitor() {
+        return new ExpressionNominalValueGrouper(_evaluable, _columnName, _cellIndex);
+    }
+
+    @Override
+    public void combine(ExpressionNominalValueGrouper partial) {
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : partial.choices.entrySet()) {
+            IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+            if (choice == null) {
+                choices.put(entry.getKey(), entry.getValue());
+            } else {
+                choice.count += entry.getValue().count;
+                choice._latestIndex = Math.max(choice._latestIndex, entry.getValue()._latestIndex);
+            }
+        }
+        blankCount += partial.blankCount;
+        errorCount += partial.errorCount;
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return _evaluable.isThreadSafe();
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         hasError = false;
@@ -206,6 +233,11 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
                 return getChoiceValueCountMultiple(value);
             }
 
+            @Override
+            public boolean isThreadSafe() {
+                return _evaluable.isThreadSafe();
+            }
+
         };
     }
 
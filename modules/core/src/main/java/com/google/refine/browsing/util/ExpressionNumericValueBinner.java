@@ -36,6 +36,7 @@ package com.google.refine.browsing.util;
 import java.util.Collection;
 import java.util.Properties;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
@@ -46,7 +47,7 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the numbers computed from a given expression.
  */
-public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor, CombinableVisitor<ExpressionNumericValueBinner> {
 
     /*
      * Configuration
@@ -87,6 +88,27 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public ExpressionNumericValueBinner createPartialVisitor() {
+        return new ExpressionNumericValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void combine(ExpressionNumericValueBinner partial) {
+        for (int b = 0; b < bins.length; b++) {
+            bins[b] += partial.bins[b];
+        }
+        numericCount += partial.numericCount;
+        nonNumericCount += partial.nonNumericCount;
+        blankCount += partial.blankCount;
+        errorCount += partial.errorCount;
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return _rowEvaluable.isThreadSafe();
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
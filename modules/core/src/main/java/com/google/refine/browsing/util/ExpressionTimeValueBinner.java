@@ -37,6 +37,7 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Properties;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
@@ -47,7 +48,7 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the date computed from a given expression.
  */
-public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor, CombinableVisitor<ExpressionTimeValueBinner> {
 
     /*
      * Configuration
@@ -88,6 +89,27 @@ public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public ExpressionTimeValueBinner createPartialVisitor() {
+        return new ExpressionTimeValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void combine(ExpressionTimeValueBinner partial) {
+        for (int b = 0; b < bins.length; b++) {
+            bins[b] += partial.bins[b];
+        }
+        timeCount += partial.timeCount;
+        nonTimeCount += partial.nonTimeCount;
+        blankCount += partial.blankCount;
+        errorCount += partial.errorCount;
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return _rowEvaluable.isThreadSafe();
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
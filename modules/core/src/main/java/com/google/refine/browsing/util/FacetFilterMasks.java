@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.refine.browsing.CombinableVisitor;
+import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.browsing.util.ParallelScan.RangeVisit;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+/**
+ * Evaluates the filters of all facets once per row (or record), so that the rows matching all filters but the one of a
+ * given facet can then be enumerated without evaluating any filter. This makes computing the choices of all facets
+ * linear in the number of facets, instead of quadratic.
+ * <p>
+ * For each row, the number of filters it fails is recorded, capped at 2. A row is visited for a facet if it fails no
+ * filter, or if the only filter it fails is the one of that facet.
+ */
+public class FacetFilterMasks {
+
+    // for each facet, a bitmap of the rows or records which its filter rejects, or null if it has no filter
+    final protected long[][] _rejected;
+    final protected byte[] _rejectionCounts;
+
+    protected FacetFilterMasks(int facetCount, int itemCount) {
+        _rejected = new long[facetCount][];
+        _rejectionCounts = new byte[itemCount];
+    }
+
+    /**
+     * Evaluates the row filters of the facets on all rows.
+     *
+     * @param rowFilters
+     *            the row filters of the facets, with null for facets which do not filter
+     */
+    static public FacetFilterMasks ofRows(Project project, List<RowFilter> rowFilters) {
+        return ofRows(project, rowFilters, null);
+    }
+
+    /**
+     * Evaluates the row filters of the facets on all rows, reusing the results cached in the {@link FilterBitmapCache}
+     * and caching the new ones.
+     *
+     * @param rowFilters
+     *            the row filters of the facets, with null for facets which do not filter
+     * @param facetConfigs
+     *            the configurations of the facets, in the same order, or null to bypass the cache
+     */
+    static public FacetFilterMasks ofRows(Project project, List<RowFilter> rowFilters, List<FacetConfig> facetConfigs) {
+        int rowCount = project.rows.size();
+        long contentVersion = project.getContentVersion();
+        FacetFilterMasks masks = new FacetFilterMasks(rowFilters.size(), rowCount);
+        List<RowFilter> evaluated = masks.loadCached(project, rowFilters, facetConfigs, Mode.RowBased);
+        masks.allocate(evaluated);
+        RangeVisit evaluation = (unused, from, to) -> {
+            for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                Row row = project.rows.get(rowIndex);
+                for (int f = 0; f < evaluated.size(); f++) {
+                    RowFilter rowFilter = evaluated.get(f);
+                    if (rowFilter != null && !rowFilter.filterRow(project, rowIndex, row)) {
+                        masks.reject(f, rowIndex);
+                    }
+                }
+            }
+        };
+        masks.evaluate(rowCount, evaluated, evaluation);
+        masks.storeCached(project, contentVersion, evaluated, facetConfigs, Mode.RowBased);
+        return masks;
+    }
+
+    /**
+     * Evaluates the record filters of the facets on all records.
+     *
+     * @param recordFilters
+     *            the record filters of the facets, with null for facets which do not filter
+     */
+    static public FacetFilterMasks ofRecords(Project project, List<RecordFilter> recordFilters) {
+        return ofRecords(project, recordFilters, null);
+    }
+
+    /**
+     * Evaluates the record filters of the facets on all records, reusing the results cached in the
+     * {@link FilterBitmapCache} and caching the new ones.
+     *
+     * @param recordFilters
+     *            the record filters of the facets, with null for facets which do not filter
+     * @param facetConfigs
+     *            the configurations of the facets, in the same order, or null to bypass the cache
+     */
+    static public FacetFilterMasks ofRecords(Project project, List<RecordFilter> recordFilters,
+            List<FacetConfig> facetConfigs) {
+        int recordCount = project.recordModel.getRecordCount();
+        long contentVersion = project.getContentVersion();
+        FacetFilterMasks masks = new FacetFilterMasks(recordFilters.size(), recordCount);
+        List<RecordFilter> evaluated = masks.loadCached(project, recordFilters, facetConfigs, Mode.RecordBased);
+        masks.allocate(evaluated);
+        RangeVisit evaluation = (unused, from, to) -> {
+            for (int r = from; r < to; r++) {
+                Record record = project.recordModel.getRecord(r);
+                for (int f = 0; f < evaluated.size(); f++) {
+                    RecordFilter recordFilter = evaluated.get(f);
+                    if (recordFilter != null && !recordFilter.filterRecord(project, record)) {
+                        masks.reject(f, r);
+                    }
+                }
+            }
+        };
+        masks.evaluate(recordCount, evaluated, evaluation);
+        masks.storeCached(project, contentVersion, evaluated, facetConfigs, Mode.RecordBased);
+        return masks;
+    }
+
+    /**
+     * Fills in the masks of the facets whose rejections are cached.
+     *
+     * @return the filters which remain to be evaluated
+     */
+    private <T> List<T> loadCached(Project project, List<T> filters, List<FacetConfig> facetConfigs, Mode mode) {
+        if (facetConfigs == null) {
+            return filters;
+        }
+        List<T> remaining = new ArrayList<>(filters);
+        for (int f = 0; f < filters.size(); f++) {
+            if (filters.get(f) == null) {
+                continue;
+            }
+            BitSet rejected = FilterBitmapCache.get(project, facetConfigs.get(f), mode, _rejectionCounts.length);
+            if (rejected != null) {
+                _rejected[f] = Arrays.copyOf(rejected.toLongArray(), (_rejectionCounts.length + 63) >>> 6);
+                for (int i = rejected.nextSetBit(0); i >= 0; i = rejected.nextSetBit(i + 1)) {
+                    if (_rejectionCounts[i] < 2) {
+                        _rejectionCounts[i]++;
+                    }
+                }
+                remaining.set(f, null);
+            }
+        }
+        return remaining;
+    }
+
+    private void storeCached(Project project, long contentVersion, List<?> evaluated, List<FacetConfig> facetConfigs,
+            Mode mode) {
+        if (facetConfigs == null) {
+            return;
+        }
+        for (int f = 0; f < evaluated.size(); f++) {
+            if (evaluated.get(f) != null) {
+                FilterBitmapCache.put(project, contentVersion, facetConfigs.get(f), mode, _rejectionCounts.length,
+                        BitSet.valueOf(_rejected[f]));
+            }
+        }
+    }
+
+    private void allocate(List<?> filters) {
+        for (int f = 0; f < filters.size(); f++) {
+            if (filters.get(f) != null) {
+                _rejected[f] = new long[(_rejectionCounts.length + 63) >>> 6];
+            }
+        }
+    }
+
+    private void evaluate(int count, List<?> filters, RangeVisit evaluation) {
+        // ranges are aligned on words of the bitmaps, so that no word is written by two threads
+        if (ParallelScan.isApplicable(count) && ParallelScan.areThreadSafe(filters)) {
+            ParallelScan.forEachRange(count, evaluation);
+        } else {
+            evaluation.visit(null, 0, count);
+        }
+    }
+
+    private void reject(int facetIndex, int index) {
+        _rejected[facetIndex][index >>> 6] |= 1L << index;
+        if (_rejectionCounts[index] < 2) {
+            _rejectionCounts[index]++;
+        }
+    }
+
+    /**
+     * @return true if the row or record at the given index matches the filters of all facets except the given one, or
+     *         of all facets if the index is negative
+     */
+    protected boolean matchesExcept(int facetIndex, int index) {
+        byte count = _rejectionCounts[index];
+        return count == 0
+                || (count == 1 && facetIndex >= 0 && _rejected[facetIndex] != null
+                        && (_rejected[facetIndex][index >>> 6] & (1L << index)) != 0);
+    }
+
+    /**
+     * @return the rows matching the filters of all facets except the given one, or of all facets if the index is
+     *         negative
+     */
+    public FilteredRows getFilteredRowsExcept(int facetIndex) {
+        return new FilteredRows() {
+
+            @Override
+            public void accept(Project project, RowVisitor visitor) {
+                try {
+                    visitor.start(project);
+
+                    int c = Math.min(project.rows.size(), _rejectionCounts.length);
+                    if (ParallelScan.isApplicable(visitor, c)) {
+                        ParallelScan.visit((CombinableVisitor<?>) visitor, c,
+                                (partial, from, to) -> visitRows(project, (RowVisitor) partial, facetIndex, from, to));
+                    } else {
+                        visitRows(project, visitor, facetIndex, 0, c);
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    protected void visitRows(Project project, RowVisitor visitor, int facetIndex, int from, int to) {
+        for (int rowIndex = from; rowIndex < to; rowIndex++) {
+            if (matchesExcept(facetIndex, rowIndex)) {
+                Row row = project.rows.get(rowIndex);
+                if (visitor.visit(project, rowIndex, rowIndex, row)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the records matching the filters of all facets except the given one, or of all facets if the index is
+     *         negative
+     */
+    public FilteredRecords getFilteredRecordsExcept(int facetIndex) {
+        return new FilteredRecords() {
+
+            @Override
+            public void accept(Project project, RecordVisitor visitor) {
+                try {
+                    visitor.start(project);
+
+                    int c = Math.min(project.recordModel.getRecordCount(), _rejectionCounts.length);
+                    if (ParallelScan.isApplicable(visitor, c)) {
+                        ParallelScan.visit((CombinableVisitor<?>) visitor, c,
+                                (partial, from, to) -> visitRecords(project, (RecordVisitor) partial, facetIndex, from, to));
+                    } else {
+                        visitRecords(project, visitor, facetIndex, 0, c);
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    protected void visitRecords(Project project, RecordVisitor visitor, int facetIndex, int from, int to) {
+        for (int r = from; r < to; r++) {
+            if (matchesExcept(facetIndex, r)) {
+                Record record = project.recordModel.getRecord(r);
+                if (visitor.visit(project, record.fromRowIndex, record)) {
+                    return;
+                }
+            }
+        }
+    }
+}
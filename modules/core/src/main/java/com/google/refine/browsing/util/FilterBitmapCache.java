@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.model.Column;
+import com.google.refine.model.DerivedData;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Caches the rows or records rejected by the filters of facets, keyed by the JSON serialization of the facet
+ * configuration and the engine mode. The bitmaps are stored as precomputes of the columns the facets depend on, so they
+ * are discarded by {@link Column#clearPrecomputes()}, and they are only reused while the content version of the project
+ * is unchanged. Facets whose column dependencies are unknown, or which depend on anything else than these columns (see
+ * {@link FacetConfig#isPureFunctionOfColumns()}), are not cached.
+ */
+public class FilterBitmapCache {
+
+    static final String PRECOMPUTE_KEY = "filter-bitmaps";
+    static final int MAX_ENTRIES_PER_COLUMN = 16;
+
+    static private class Entry {
+
+        final long contentVersion;
+        final int count;
+        final BitSet rejected;
+        // number of columns sharing the entry, among which its size is split
+        final int columnCount;
+
+        Entry(long contentVersion, int count, BitSet rejected, int columnCount) {
+            this.contentVersion = contentVersion;
+            this.count = count;
+            this.rejected = rejected;
+            this.columnCount = columnCount;
+        }
+    }
+
+    static private class Entries extends LinkedHashMap<String, Entry> implements DerivedData {
+
+        private static final long serialVersionUID = -2150546719862040582L;
+
+        Entries() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES_PER_COLUMN;
+        }
+
+        @Override
+        public synchronized long estimateSize() {
+            long size = ProjectSizeEstimator.OBJECT_OVERHEAD;
+            for (Map.Entry<String, Entry> entry : entrySet()) {
+                long entrySize = ProjectSizeEstimator.MAP_ENTRY + ProjectSizeEstimator.OBJECT_OVERHEAD
+                        + ProjectSizeEstimator.STRING_OVERHEAD + entry.getKey().length()
+                        + ProjectSizeEstimator.OBJECT_OVERHEAD + entry.getValue().rejected.size() / 8;
+                size += entrySize / entry.getValue().columnCount;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * @param count
+     *            the number of rows or records the filter applies to
+     * @return the rows or records rejected by the filter of the given facet, or null if they are not cached
+     */
+    static public BitSet get(Project project, FacetConfig facetConfig, Mode mode, int count) {
+        Column[] columns = getColumns(project, facetConfig);
+        String key = getKey(facetConfig, mode);
+        if (columns == null || key == null) {
+            return null;
+        }
+        Entry entry;
+        Object cached = columns[0].getPrecompute(PRECOMPUTE_KEY);
+        if (!(cached instanceof Entries)) {
+            return null;
+        }
+        synchronized (cached) {
+            entry = ((Entries) cached).get(key);
+        }
+        if (entry == null || entry.contentVersion != project.getContentVersion() || entry.count != count) {
+            return null;
+        }
+        return entry.rejected;
+    }
+
+    /**
+     * Caches the rows or records rejected by the filter of the given facet, as evaluated on the given content version
+     * of the project.
+     */
+    static public void put(Project project, long contentVersion, FacetConfig facetConfig, Mode mode, int count,
+            BitSet rejected) {
+        Column[] columns = getColumns(project, facetConfig);
+        String key = getKey(facetConfig, mode);
+        if (columns == null || key == null) {
+            return;
+        }
+        Entry entry = new Entry(contentVersion, count, rejected, columns.length);
+        for (Column column : columns) {
+            synchronized (column) {
+                Object cached = column.getPrecompute(PRECOMPUTE_KEY);
+                if (!(cached instanceof Entries)) {
+                    cached = new Entries();
+                    column.setPrecompute(PRECOMPUTE_KEY, cached);
+                }
+                synchronized (cached) {
+                    ((Entries) cached).put(key, entry);
+                }
+            }
+        }
+    }
+
+    static private Column[] getColumns(Project project, FacetConfig facetConfig) {
+        if (facetConfig == null || !facetConfig.isPureFunctionOfColumns()) {
+            return null;
+        }
+        Optional<Set<String>> dependencies = facetConfig.getColumnDependencies();
+        if (dependencies.isEmpty() || dependencies.get().isEmpty()) {
+            return null;
+        }
+        Set<String> names = new TreeSet<>(dependencies.get());
+        Column[] columns = new Column[names.size()];
+        int i = 0;
+        for (String name : names) {
+            columns[i] = project.columnModel.getColumnByName(name);
+            if (columns[i] == null) {
+                return null;
+            }
+            i++;
+        }
+        return columns;
+    }
+
+    static private String getKey(FacetConfig facetConfig, Mode mode) {
+        try {
+            return mode.name() + ParsingUtilities.mapper.writeValueAsString(facetConfig);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.CombinableVisitor;
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RowFilter;
+
+/**
+ * Visits ranges of rows or records in parallel on the common fork-join pool, for visitors which are
+ * {@link CombinableVisitor}s. Each range is visited by a partial visitor, and the partial visitors are combined in the
+ * order of their ranges.
+ */
+public class ParallelScan {
+
+    static public final String ENABLED_PREF = "browsing.parallelScan";
+
+    // below this many rows or records per partition, the overhead of forking is not worth it
+    static int minPartitionSize = 4096;
+
+    /**
+     * Visits a range of rows or records with a partial visitor.
+     */
+    public interface RangeVisit {
+
+        public void visit(Object partialVisitor, int from, int to);
+    }
+
+    /**
+     * @return true if the given visitor should visit the given number of rows or records in parallel
+     */
+    static public boolean isApplicable(Object visitor, int count) {
+        return visitor instanceof CombinableVisitor && ((CombinableVisitor<?>) visitor).isParallelizable()
+                && isApplicable(count);
+    }
+
+    /**
+     * @return true if all the given row or record filters can be evaluated by several threads at once. Null filters are
+     *         ignored.
+     */
+    static public boolean areThreadSafe(Collection<?> filters) {
+        for (Object filter : filters) {
+            if (filter instanceof RowFilter && !((RowFilter) filter).isThreadSafe()
+                    || filter instanceof RecordFilter && !((RecordFilter) filter).isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the given number of rows or records should be processed in parallel
+     */
+    static public boolean isApplicable(int count) {
+        return count >= 2 * minPartitionSize
+                && ForkJoinPool.getCommonPoolParallelism() > 1
+                && isEnabledByPreference();
+    }
+
+    /**
+     * Processes the rows or records from 0 (inclusive) to count (exclusive) in parallel, in ranges whose bounds are
+     * multiples of 64 (except for count). The range visits are passed no visitor.
+     */
+    static public void forEachRange(int count, RangeVisit rangeVisit) {
+        ForkJoinPool.commonPool().invoke(new RangeTask(null, 0, count, partitionSize(count), rangeVisit));
+    }
+
+    /**
+     * Visits the rows or records from 0 (inclusive) to count (exclusive) in parallel, and combines the results into the
+     * given visitor.
+     */
+    static public void visit(CombinableVisitor<?> visitor, int count, RangeVisit rangeVisit) {
+        CombinableVisitor<?> result = ForkJoinPool.commonPool()
+                .invoke(new RangeTask(visitor, 0, count, partitionSize(count), rangeVisit));
+        combine(visitor, result);
+    }
+
+    static private int partitionSize(int count) {
+        return Math.max(minPartitionSize, count / (4 * ForkJoinPool.getCommonPoolParallelism()));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static private void combine(CombinableVisitor visitor, CombinableVisitor partial) {
+        visitor.combine(partial);
+    }
+
+    static private class RangeTask extends RecursiveTask<CombinableVisitor<?>> {
+
+        private static final long serialVersionUID = 3086612213418925452L;
+
+        final CombinableVisitor<?> _visitor;
+        final int _from;
+        final int _to;
+        final int _partitionSize;
+        final RangeVisit _rangeVisit;
+
+        RangeTask(CombinableVisitor<?> visitor, int from, int to, int partitionSize, RangeVisit rangeVisit) {
+            _visitor = visitor;
+            _from = from;
+            _to = to;
+            _partitionSize = partitionSize;
+            _rangeVisit = rangeVisit;
+        }
+
+        @Override
+        protected CombinableVisitor<?> compute() {
+            int middle = _from + (((_to - _from) / 2) & ~63);
+            if (_to - _from <= _partitionSize || middle == _from) {
+                CombinableVisitor<?> partial = _visitor == null ? null : _visitor.createPartialVisitor();
+                _rangeVisit.visit(partial, _from, _to);
+                return partial;
+            }
+            RangeTask left = new RangeTask(_visitor, _from, middle, _partitionSize, _rangeVisit);
+            RangeTask right = new RangeTask(_visitor, middle, _to, _partitionSize, _rangeVisit);
+            left.fork();
+            CombinableVisitor<?> rightResult = right.compute();
+            CombinableVisitor<?> leftResult = left.join();
+            if (leftResult != null) {
+                combine(leftResult, rightResult);
+            }
+            return leftResult;
+        }
+    }
+
+    static private boolean isEnabledByPreference() {
+        if (ProjectManager.singleton == null || ProjectManager.singleton.getPreferenceStore() == null) {
+            return true;
+        }
+        Object v = ProjectManager.singleton.getPreferenceStore().get(ENABLED_PREF);
+        if (v != null) {
+            if (v instanceof Boolean) {
+                return (Boolean) v;
+            } else {
+                return !"false".equalsIgnoreCase(v.toString());
+            }
+        }
+        return true;
+    }
+}
@@ -41,4 +41,12 @@ import com.google.refine.model.Row;
 public interface RowEvaluable {
 
     public Object eval(Project project, int rowIndex, Row row, Properties bindings);
+
+    /**
+     * @return false if this must not be evaluated by several threads at once, for instance because it evaluates an
+     *         expression which is not thread-safe
+     */
+    public default boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -33,12 +33,17 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 
-public class RowVisitorAsRecordVisitor implements RecordVisitor {
+/**
+ * Visits the rows of each record with a row visitor. If the row visitor is a {@link CombinableVisitor}, so is this
+ * visitor, which lets records be visited in parallel.
+ */
+public class RowVisitorAsRecordVisitor implements RecordVisitor, CombinableVisitor<RowVisitorAsRecordVisitor> {
 
     final protected RowVisitor _rowVisitor;
 
@@ -65,4 +70,20 @@ public class RowVisitorAsRecordVisitor implements RecordVisitor {
         }
         return false;
     }
+
+    @Override
+    public RowVisitorAsRecordVisitor createPartialVisitor() {
+        return new RowVisitorAsRecordVisitor((RowVisitor) ((CombinableVisitor<?>) _rowVisitor).createPartialVisitor());
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void combine(RowVisitorAsRecordVisitor partial) {
+        ((CombinableVisitor) _rowVisitor).combine((CombinableVisitor) partial._rowVisitor);
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return _rowVisitor instanceof CombinableVisitor && ((CombinableVisitor<?>) _rowVisitor).isParallelizable();
+    }
 }
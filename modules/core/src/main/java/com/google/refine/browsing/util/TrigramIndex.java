@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.model.Column;
+import com.google.refine.model.ColumnData;
+import com.google.refine.model.DerivedData;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+
+/**
+ * Index of the trigrams of the distinct strings of a column, used by text search facets to narrow down the rows which
+ * can contain a literal before testing them. Trigrams are taken on lowercased characters, so the index serves both
+ * case-sensitive and case-insensitive searches.
+ * <p>
+ * The index is built on the dictionary of the {@link ColumnData} of the column, and cached as a precompute of the
+ * column. It is only built for projects with many rows, unless disabled by the {@link #ENABLED_PREF} preference.
+ */
+public class TrigramIndex implements DerivedData {
+
+    static public final String ENABLED_PREF = "facets.textSearch.trigramIndex";
+
+    static final String PRECOMPUTE_KEY = "trigram-index";
+    // scanning smaller projects is fast enough
+    static int minRows = 10000;
+    // longer strings are not indexed, and are always candidates
+    static final int MAX_LENGTH = 1000;
+
+    final protected ColumnData _data;
+    // the dictionary ids of the strings containing each trigram, in increasing order
+    final protected Map<Long, int[]> _postings;
+    // the dictionary ids of the strings which are not indexed
+    final protected int[] _unindexedIds;
+    // estimated size of the postings, excluding the column data shared with other precomputes
+    final protected long _size;
+
+    protected TrigramIndex(ColumnData data) {
+        _data = data;
+
+        Map<Long, int[]> postings = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        int[] unindexed = new int[16];
+        int unindexedCount = 0;
+        for (int id = 0; id < data.getDictionarySize(); id++) {
+            String s = data.getString(id);
+            String normalized = normalize(s);
+            if (s.length() > MAX_LENGTH || normalized == null) {
+                if (unindexedCount == unindexed.length) {
+                    unindexed = Arrays.copyOf(unindexed, unindexedCount * 2);
+                }
+                unindexed[unindexedCount++] = id;
+                continue;
+            }
+            for (int i = 0; i + 3 <= normalized.length(); i++) {
+                Long trigram = trigram(normalized, i);
+                int[] ids = postings.get(trigram);
+                int size = ids == null ? 0 : sizes.get(trigram);
+                if (size > 0 && ids[size - 1] == id) {
+                    continue;
+                }
+                if (ids == null) {
+                    ids = new int[2];
+                    postings.put(trigram, ids);
+                } else if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    postings.put(trigram, ids);
+                }
+                ids[size] = id;
+                sizes.put(trigram, size + 1);
+            }
+        }
+        long size = ProjectSizeEstimator.OBJECT_OVERHEAD;
+        for (Map.Entry<Long, int[]> entry : postings.entrySet()) {
+            entry.setValue(Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey())));
+            size += ProjectSizeEstimator.MAP_ENTRY + ProjectSizeEstimator.OBJECT_OVERHEAD
+                    + ProjectSizeEstimator.ARRAY_OVERHEAD + 4L * entry.getValue().length;
+        }
+        _postings = postings;
+        _unindexedIds = Arrays.copyOf(unindexed, unindexedCount);
+        _size = size + ProjectSizeEstimator.ARRAY_OVERHEAD + 4L * _unindexedIds.length;
+    }
+
+    @Override
+    public long estimateSize() {
+        return _size;
+    }
+
+    /**
+     * Returns the trigram index of the given column, building it if it is not cached or out of date.
+     *
+     * @return the index, or null if the project is too small to need one or indexing is disabled
+     */
+    static public TrigramIndex get(Project project, Column column) {
+        if (project.rows.size() < minRows || !isEnabledByPreference()) {
+            return null;
+        }
+        ColumnData data = ColumnData.get(project, column);
+        Object cached = column.getPrecompute(PRECOMPUTE_KEY);
+        if (cached instanceof TrigramIndex && ((TrigramIndex) cached)._data == data) {
+            return (TrigramIndex) cached;
+        }
+        TrigramIndex index = new TrigramIndex(data);
+        column.setPrecompute(PRECOMPUTE_KEY, index);
+        return index;
+    }
+
+    /**
+     * Returns the rows whose value may contain the given literal, possibly ignoring case. A row whose value is a string
+     * is only a candidate if the string contains all trigrams of the literal. Rows without a value are never
+     * candidates, and rows with other values always are.
+     *
+     * @return the candidate rows, or null if the literal is too short to narrow them down
+     */
+    public IntPredicate getCandidateRows(String literal) {
+        String normalized = normalize(literal);
+        if (normalized == null || normalized.length() < 3) {
+            return null;
+        }
+        Set<Long> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            trigrams.add(trigram(normalized, i));
+        }
+        int[][] lists = new int[trigrams.size()][];
+        int n = 0;
+        for (Long trigram : trigrams) {
+            int[] ids = _postings.get(trigram);
+            lists[n++] = ids != null ? ids : new int[0];
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] ids = lists[0];
+        for (int i = 1; i < lists.length && ids.length > 0; i++) {
+            ids = intersect(ids, lists[i]);
+        }
+
+        boolean[] candidateIds = new boolean[_data.getDictionarySize()];
+        for (int id : ids) {
+            candidateIds[id] = true;
+        }
+        for (int id : _unindexedIds) {
+            candidateIds[id] = true;
+        }
+        ColumnData data = _data;
+        return rowIndex -> {
+            if (rowIndex >= data.size()) {
+                return true;
+            }
+            switch (data.getKind(rowIndex)) {
+                case ColumnData.STRING:
+                    return candidateIds[data.getStringId(rowIndex)];
+                case ColumnData.NO_CELL:
+                case ColumnData.NULL_VALUE:
+                    return false;
+                default:
+                    return true;
+            }
+        };
+    }
+
+    /**
+     * Extracts a literal which any match of the given regular expression contains, from the characters it starts with.
+     * Patterns with alternatives have no such literal.
+     *
+     * @return the literal, possibly empty
+     */
+    static public String getLiteralPrefix(String regex) {
+        StringBuilder sb = new StringBuilder();
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        for (int i = regex.startsWith("^") ? 1 : 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if ("\\[](){}.*+?^$|".indexOf(c) >= 0) {
+                if ((c == '*' || c == '?' || c == '{') && sb.length() > 0) {
+                    // the last character is optional
+                    sb.setLength(sb.length() - 1);
+                }
+                break;
+            } else if (Character.isSurrogate(c)) {
+                break;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lowercases a string character by character. If s contains t, then normalize(s) contains normalize(t).
+     *
+     * @return the lowercased string, or null if lowercasing it as a whole gives a different result, in which case its
+     *         trigrams cannot be trusted for case-insensitive searches
+     */
+    static String normalize(String s) {
+        char[] chars = new char[s.length()];
+        for (int i = 0; i < chars.length; i++) {
+            char c = Character.toLowerCase(s.charAt(i));
+            if (Character.toLowerCase(c) != c) {
+                return null;
+            }
+            chars[i] = c;
+        }
+        String normalized = new String(chars);
+        return normalized.equals(s.toLowerCase()) ? normalized : null;
+    }
+
+    static private Long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    static private int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    static private boolean isEnabledByPreference() {
+        if (ProjectManager.singleton == null || ProjectManager.singleton.getPreferenceStore() == null) {
+            return true;
+        }
+        Object v = ProjectManager.singleton.getPreferenceStore().get(ENABLED_PREF);
+        if (v != null) {
+            if (v instanceof Boolean) {
+                return (Boolean) v;
+            } else {
+                return !"false".equalsIgnoreCase(v.toString());
+            }
+        }
+        return true;
+    }
+}
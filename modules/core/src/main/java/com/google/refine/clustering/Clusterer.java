@@ -41,9 +41,25 @@ public abstract class Clusterer {
 
     protected Project _project;
     protected int _colindex;
+    protected volatile boolean _canceled = false;
 
     public abstract void computeClusters(Engine engine);
 
+    /**
+     * Asks a computation of clusters running in another thread to stop. Clusterers which support it make
+     * {@link #computeClusters(Engine)} throw a {@link java.util.concurrent.CancellationException}.
+     */
+    public void cancel() {
+        _canceled = true;
+    }
+
+    /**
+     * @return an estimate of the progress of a running computation of clusters, out of 100
+     */
+    public int getProgress() {
+        return 0;
+    }
+
     protected void initializeFromConfig(Project project, ClustererConfig c) {
         _project = project;
 
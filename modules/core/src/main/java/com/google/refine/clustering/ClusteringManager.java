@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.browsing.Engine;
+
+/**
+ * Runs clusterings in the background, on threads of their own rather than in the process queue of their project: a
+ * clustering neither waits for operations of the project nor holds them up. Each clustering is given an id, with which
+ * its progress is polled, its clusters are fetched and it is canceled.
+ */
+public class ClusteringManager {
+
+    final static Logger logger = LoggerFactory.getLogger("clustering");
+
+    final static private Map<Long, ClusteringProcess> processes = Collections.synchronizedMap(new HashMap<>());
+    static private long processIdCounter = 0;
+    final static private Object processIdLock = new Object();
+
+    final static private ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "clustering");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // clusterings nobody asked about for that long are dropped, along with their clusters
+    final static private long STALE_PERIOD = 60 * 60 * 1000; // 60 minutes in milliseconds
+
+    /**
+     * Starts computing clusters in the background.
+     *
+     * @return the clustering, whose id is then used to look it up
+     */
+    static public ClusteringProcess start(long projectId, Clusterer clusterer, Engine engine) {
+        cleanUpStaleProcesses();
+
+        long id;
+        synchronized (processIdLock) {
+            ++processIdCounter;
+
+            // Avoid negative ids when the counter wraps around.
+            if (processIdCounter < 0) {
+                processIdCounter = 1;
+            }
+
+            id = processIdCounter;
+        }
+
+        ClusteringProcess process = new ClusteringProcess(id, projectId, clusterer, engine);
+        processes.put(id, process);
+        executor.execute(process);
+        return process;
+    }
+
+    /**
+     * @return the clustering with this id if it was started in this project, or null
+     */
+    static public ClusteringProcess get(long projectId, long id) {
+        ClusteringProcess process = processes.get(id);
+        if (process == null || process.getProjectId() != projectId) {
+            return null;
+        }
+        process.touch();
+        return process;
+    }
+
+    /**
+     * Forgets about a clustering, once its clusters are fetched.
+     */
+    static public void remove(ClusteringProcess process) {
+        processes.remove(process.getId(), process);
+    }
+
+    /**
+     * Cancels the clustering with this id if it was started in this project, leaving other clusterings running.
+     */
+    static public void cancel(long projectId, long id) {
+        ClusteringProcess process = get(projectId, id);
+        if (process != null) {
+            remove(process);
+            process.cancel();
+        }
+    }
+
+    static private void cleanUpStaleProcesses() {
+        long now = System.currentTimeMillis();
+        Collection<ClusteringProcess> values;
+        synchronized (processes) {
+            values = new ArrayList<>(processes.values());
+        }
+        for (ClusteringProcess process : values) {
+            if (now - process.getLastTouched() > STALE_PERIOD) {
+                remove(process);
+                process.cancel();
+                logger.info("Removed stale clustering " + process.getId());
+            }
+        }
+    }
+}
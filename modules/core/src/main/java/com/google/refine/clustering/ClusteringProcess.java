@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.refine.browsing.Engine;
+
+/**
+ * A computation of clusters run by the {@link ClusteringManager}. Unlike operations, it does not add any history entry:
+ * the clusters are kept in the clusterer once computed.
+ */
+public class ClusteringProcess implements Runnable {
+
+    final protected long _id;
+    final protected long _projectId;
+    final protected Clusterer _clusterer;
+    final protected Engine _engine;
+    protected volatile boolean _canceled;
+    protected volatile boolean _started;
+    protected volatile Exception _exception;
+    protected volatile long _lastTouched = System.currentTimeMillis();
+    final protected CountDownLatch _finished = new CountDownLatch(1);
+
+    public ClusteringProcess(long id, long projectId, Clusterer clusterer, Engine engine) {
+        _id = id;
+        _projectId = projectId;
+        _clusterer = clusterer;
+        _engine = engine;
+    }
+
+    public long getId() {
+        return _id;
+    }
+
+    public long getProjectId() {
+        return _projectId;
+    }
+
+    public Clusterer getClusterer() {
+        return _clusterer;
+    }
+
+    /**
+     * @return the exception thrown while computing clusters, or null if there was none
+     */
+    public Exception getException() {
+        return _exception;
+    }
+
+    public boolean isCanceled() {
+        return _canceled;
+    }
+
+    public boolean isFinished() {
+        return _finished.getCount() == 0;
+    }
+
+    public int getProgress() {
+        return isFinished() ? 100 : _clusterer.getProgress();
+    }
+
+    void touch() {
+        _lastTouched = System.currentTimeMillis();
+    }
+
+    long getLastTouched() {
+        return _lastTouched;
+    }
+
+    /**
+     * Waits until clusters are computed, the computation fails or it is canceled, including before it started.
+     */
+    public void waitUntilFinished() throws InterruptedException {
+        _finished.await();
+    }
+
+    public void cancel() {
+        _canceled = true;
+        _clusterer.cancel();
+        synchronized (this) {
+            if (!_started) {
+                // the computation was canceled before it started
+                _exception = new CancellationException("Clustering was canceled");
+                _finished.countDown();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (_canceled) {
+                return;
+            }
+            _started = true;
+        }
+        try {
+            _clusterer.computeClusters(_engine);
+        } catch (Exception e) {
+            _exception = e;
+        }
+        _finished.countDown();
+    }
+}
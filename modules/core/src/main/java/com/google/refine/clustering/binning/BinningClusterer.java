@@ -35,6 +35,7 @@ package com.google.refine.clustering.binning;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -52,14 +53,21 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.refine.browsing.CombinableVisitor;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.ParallelScan;
+import com.google.refine.browsing.util.ParallelScan.RangeVisit;
 import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
 import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ColumnData;
+import com.google.refine.model.DerivedData;
 import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
 import com.google.refine.model.Row;
 
 public class BinningClusterer extends Clusterer {
@@ -128,23 +136,92 @@ public class BinningClusterer extends Clusterer {
 
     List<Map<String, Integer>> _clusters;
 
-    class BinningRowVisitor implements RowVisitor {
+    /**
+     * Keys of the strings in the dictionary of a column, computed as clusterings need them. They are kept as a
+     * precompute of the column, to be reused by later clusterings of the same column with the same keyer.
+     */
+    static class KeyCache implements DerivedData {
+
+        static final String PRECOMPUTE_KEY_PREFIX = "binning-keys:";
+
+        final ColumnData _data;
+        final Keyer _keyer;
+        final String[] _keys;
+
+        KeyCache(ColumnData data, Keyer keyer) {
+            _data = data;
+            _keyer = keyer;
+            _keys = new String[data.getDictionarySize()];
+        }
+
+        static KeyCache get(Column column, ColumnData data, Keyer keyer, Object[] params) {
+            String precomputeKey = PRECOMPUTE_KEY_PREFIX + keyer.getClass().getName() + Arrays.toString(params);
+            Object cached = column.getPrecompute(precomputeKey);
+            if (cached instanceof KeyCache && ((KeyCache) cached)._data == data && ((KeyCache) cached)._keyer == keyer) {
+                return (KeyCache) cached;
+            }
+            KeyCache cache = new KeyCache(data, keyer);
+            column.setPrecompute(precomputeKey, cache);
+            return cache;
+        }
+
+        @Override
+        public long estimateSize() {
+            // keys are computed lazily, so the size of those computed is extrapolated from a sample
+            int step = Math.max(1, _keys.length / ProjectSizeEstimator.SAMPLE_SIZE);
+            long sampledSize = 0;
+            int sampledKeys = 0;
+            for (int i = 0; i < _keys.length; i += step) {
+                String key = _keys[i];
+                if (key != null) {
+                    sampledSize += ProjectSizeEstimator.STRING_OVERHEAD + key.length();
+                }
+                sampledKeys++;
+            }
+            long size = ProjectSizeEstimator.OBJECT_OVERHEAD + ProjectSizeEstimator.ARRAY_OVERHEAD
+                    + ProjectSizeEstimator.REFERENCE * _keys.length;
+            return sampledKeys == 0 ? size : size + sampledSize * _keys.length / sampledKeys;
+        }
+    }
+
+    static Object[] getKeyerParameters(Keyer k, BinningParameters parameters) {
+        if (k instanceof NGramFingerprintKeyer && parameters != null) {
+            return new Object[] { parameters.ngramSize };
+        }
+        return null;
+    }
+
+    class BinningRowVisitor implements RowVisitor, CombinableVisitor<BinningRowVisitor> {
 
         Keyer _keyer;
         Object[] _params;
         BinningParameters _parameters;
+        // when available, strings are counted by dictionary id; all values are keyed once per distinct value
+        ColumnData _data;
+        int[] _stringCounts;
+        Map<String, Integer> _valueCounts = new HashMap<>();
+        // keys of the strings in the dictionary, if they are cached
+        KeyCache _keyCache;
 
         Map<String, Map<String, Integer>> _map = new HashMap<String, Map<String, Integer>>();
 
         public BinningRowVisitor(Keyer k, BinningParameters parameters) {
+            this(k, parameters, null);
+        }
+
+        public BinningRowVisitor(Keyer k, BinningParameters parameters, ColumnData data) {
+            this(k, parameters, data, null);
+        }
+
+        BinningRowVisitor(Keyer k, BinningParameters parameters, ColumnData data, KeyCache keyCache) {
             _keyer = k;
             _parameters = parameters;
-            if (k instanceof NGramFingerprintKeyer) {
-                if (_parameters != null) {
-                    _params = new Object[1];
-                    _params[0] = _parameters.ngramSize;
-                }
+            _data = data;
+            _keyCache = keyCache != null && keyCache._data == data ? keyCache : null;
+            if (data != null) {
+                _stringCounts = new int[data.getDictionarySize()];
             }
+            _params = getKeyerParameters(k, parameters);
         }
 
         @Override
@@ -154,30 +231,130 @@ public class BinningClusterer extends Clusterer {
 
         @Override
         public void end(Project project) {
-            // nothing to do
+            // the distinct values are keyed first, in parallel if there are enough of them, and then grouped
+            int distinctStrings = 0;
+            if (_data != null) {
+                for (int id = 0; id < _stringCounts.length; id++) {
+                    if (_stringCounts[id] > 0) {
+                        distinctStrings++;
+                    }
+                }
+            }
+            int n = distinctStrings + _valueCounts.size();
+            String[] values = new String[n];
+            int[] counts = new int[n];
+            int[] ids = new int[n];
+            int i = 0;
+            if (_data != null) {
+                for (int id = 0; id < _stringCounts.length; id++) {
+                    if (_stringCounts[id] > 0) {
+                        values[i] = _data.getString(id);
+                        counts[i] = _stringCounts[id];
+                        ids[i++] = id;
+                    }
+                }
+            }
+            for (Entry<String, Integer> entry : _valueCounts.entrySet()) {
+                values[i] = entry.getKey();
+                counts[i] = entry.getValue();
+                ids[i++] = -1;
+            }
+
+            String[] keys = new String[n];
+            RangeVisit keying = (unused, from, to) -> {
+                for (int j = from; j < to; j++) {
+                    keys[j] = key(values[j], ids[j]);
+                }
+            };
+            if (_keyer.isThreadSafe() && ParallelScan.isApplicable(n)) {
+                ParallelScan.forEachRange(n, keying);
+            } else {
+                keying.visit(null, 0, n);
+            }
+
+            for (int j = 0; j < n; j++) {
+                add(values[j], keys[j], counts[j]);
+            }
+        }
+
+        @Override
+        public BinningRowVisitor createPartialVisitor() {
+            return new BinningRowVisitor(_keyer, _parameters, _data, _keyCache);
+        }
+
+        @Override
+        public void combine(BinningRowVisitor partial) {
+            if (_stringCounts != null) {
+                for (int id = 0; id < _stringCounts.length; id++) {
+                    _stringCounts[id] += partial._stringCounts[id];
+                }
+            }
+            for (Entry<String, Integer> entry : partial._valueCounts.entrySet()) {
+                _valueCounts.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
         }
 
         @Override
         public boolean visit(Project project, int rowIndex, Row row) {
+            if (_data != null) {
+                int id = _data.getStringId(rowIndex);
+                if (id >= 0) {
+                    _stringCounts[id]++;
+                } else {
+                    Object v = _data.getValue(rowIndex);
+                    if (v != null) {
+                        count(v.toString());
+                    }
+                }
+                return false;
+            }
+
             Cell cell = row.getCell(_colindex);
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString();
-                String key = _keyer.key(s, _params);
-                if (_map.containsKey(key)) {
-                    Map<String, Integer> m = _map.get(key);
-                    if (m.containsKey(s)) {
-                        m.put(s, m.get(s) + 1);
-                    } else {
-                        m.put(s, 1);
-                    }
+                count(s);
+            }
+            return false;
+        }
+
+        protected void count(String s) {
+            _valueCounts.merge(s, 1, Integer::sum);
+        }
+
+        /**
+         * @param id
+         *            the dictionary id of the string, or -1 if it has none
+         */
+        protected String key(String s, int id) {
+            if (id < 0 || _keyCache == null) {
+                return _keyer.key(s, _params);
+            }
+            String key = _keyCache._keys[id];
+            if (key == null) {
+                key = _keyer.key(s, _params);
+                _keyCache._keys[id] = key;
+            }
+            return key;
+        }
+
+        protected void add(String s, int count) {
+            add(s, _keyer.key(s, _params), count);
+        }
+
+        protected void add(String s, String key, int count) {
+            if (_map.containsKey(key)) {
+                Map<String, Integer> m = _map.get(key);
+                if (m.containsKey(s)) {
+                    m.put(s, m.get(s) + count);
                 } else {
-                    Map<String, Integer> m = new TreeMap<String, Integer>();
-                    m.put(s, 1);
-                    _map.put(key, m);
+                    m.put(s, count);
                 }
+            } else {
+                Map<String, Integer> m = new TreeMap<String, Integer>();
+                m.put(s, count);
+                _map.put(key, m);
             }
-            return false;
         }
 
         public Map<String, Map<String, Integer>> getMap() {
@@ -227,7 +404,10 @@ public class BinningClusterer extends Clusterer {
 
     @Override
     public void computeClusters(Engine engine) {
-        BinningRowVisitor visitor = new BinningRowVisitor(_keyer, _parameters);
+        Column column = _project.columnModel.getColumnByCellIndex(_colindex);
+        ColumnData data = column == null ? null : ColumnData.get(_project, column);
+        KeyCache keyCache = data == null ? null : KeyCache.get(column, data, _keyer, getKeyerParameters(_keyer, _parameters));
+        BinningRowVisitor visitor = new BinningRowVisitor(_keyer, _parameters, data, keyCache);
         FilteredRows filteredRows = engine.getAllFilteredRows();
         filteredRows.accept(_project, visitor);
 
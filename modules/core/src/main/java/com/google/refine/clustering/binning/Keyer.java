@@ -41,4 +41,14 @@ public abstract class Keyer {
 
     public abstract String key(String string, Object... params);
 
+    /**
+     * Whether this keyer can compute keys on several threads at once. Clusterers compute the keys of distinct values in
+     * parallel with thread-safe keyers.
+     *
+     * @return true by default
+     */
+    public boolean isThreadSafe() {
+        return true;
+    }
+
 }
@@ -40,4 +40,9 @@ public class ApacheLevenshteinDistance implements SimilarityDistance {
     public double compute(String a, String b) {
         return distance.apply(a, b).doubleValue();
     }
+
+    @Override
+    public boolean isMetric() {
+        return true;
+    }
 }
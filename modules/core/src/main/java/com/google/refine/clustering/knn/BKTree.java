@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * A BK-tree, which indexes strings by their distances to each other so that the strings within a radius of a given
+ * string can be found without computing its distance to all of them. This relies on the triangle inequality, so the
+ * distance must be a metric (see {@link SimilarityDistance#isMetric()}).
+ */
+class BKTree {
+
+    static private class Node {
+
+        final String value;
+        final int index;
+        // children by their distance to this node
+        TreeMap<Double, Node> children;
+
+        Node(String value, int index) {
+            this.value = value;
+            this.index = index;
+        }
+    }
+
+    private final SimilarityDistance _distance;
+    private Node _root;
+
+    BKTree(SimilarityDistance distance) {
+        _distance = distance;
+    }
+
+    /**
+     * Adds a string to the tree.
+     *
+     * @param index
+     *            the index of the string, reported when it is found by {@link #search}
+     */
+    void add(String value, int index) {
+        if (_root == null) {
+            _root = new Node(value, index);
+            return;
+        }
+        Node node = _root;
+        while (true) {
+            double d = distance(node.value, value);
+            if (node.children == null) {
+                node.children = new TreeMap<>();
+            }
+            Node child = node.children.get(d);
+            if (child == null) {
+                node.children.put(d, new Node(value, index));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Reports the indices of the strings of the tree whose distance to the given string is at most the radius.
+     */
+    void search(String value, double radius, IntConsumer consumer) {
+        if (_root == null) {
+            return;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(_root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            double d = distance(value, node.value);
+            if (d <= radius) {
+                consumer.accept(node.index);
+            }
+            if (node.children != null) {
+                // by the triangle inequality, other children are further than the radius
+                for (Map.Entry<Double, Node> entry : node.children.subMap(d - radius, true, d + radius, true).entrySet()) {
+                    stack.push(entry.getValue());
+                }
+            }
+        }
+    }
+
+    private double distance(String a, String b) {
+        return _distance.compute(a, b);
+    }
+}
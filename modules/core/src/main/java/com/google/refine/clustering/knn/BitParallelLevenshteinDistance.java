@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.util.Arrays;
+
+/**
+ * Levenshtein distance computed with the bit-parallel algorithm of Myers, as formulated by Hyyrö, which processes one
+ * character of the longer string per step for strings of up to 64 characters. Longer strings are compared with the
+ * usual dynamic programming, restricted to a diagonal band when a threshold is given.
+ * <p>
+ * It returns the same distances as {@link ApacheLevenshteinDistance}, counting edits on UTF-16 chars. The buffers it
+ * needs are kept per thread, so comparing strings does not allocate.
+ */
+public class BitParallelLevenshteinDistance implements SimilarityDistance {
+
+    private static final int WORD_SIZE = Long.SIZE;
+
+    private final ThreadLocal<Workspace> workspace = ThreadLocal.withInitial(Workspace::new);
+
+    @Override
+    public double compute(String a, String b) {
+        return distance(a, b, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public double compute(String a, String b, double threshold) {
+        return distance(a, b, threshold >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, threshold));
+    }
+
+    @Override
+    public boolean isMetric() {
+        return true;
+    }
+
+    /**
+     * Computes the distance between two strings if it is at most {@code k}, or returns {@code k + 1} otherwise.
+     */
+    int distance(String a, String b, int k) {
+        // common prefixes and suffixes do not change the distance
+        int start = 0;
+        int aEnd = a.length();
+        int bEnd = b.length();
+        while (start < aEnd && start < bEnd && a.charAt(start) == b.charAt(start)) {
+            start++;
+        }
+        while (aEnd > start && bEnd > start && a.charAt(aEnd - 1) == b.charAt(bEnd - 1)) {
+            aEnd--;
+            bEnd--;
+        }
+        int aLength = aEnd - start;
+        int bLength = bEnd - start;
+        // the shorter string is the pattern, encoded as bit vectors
+        if (aLength > bLength) {
+            String s = a;
+            a = b;
+            b = s;
+            int l = aLength;
+            aLength = bLength;
+            bLength = l;
+        }
+        if (bLength - aLength > k) {
+            return k + 1;
+        }
+        if (aLength == 0) {
+            return bLength;
+        }
+        Workspace ws = workspace.get();
+        if (aLength <= WORD_SIZE) {
+            return myers(a, start, aLength, b, start, bLength, k, ws);
+        } else {
+            return banded(a, start, aLength, b, start, bLength, k, ws);
+        }
+    }
+
+    private static int myers(String pattern, int pStart, int m, String text, int tStart, int n, int k, Workspace ws) {
+        for (int i = 0; i < m; i++) {
+            ws.addMatch(pattern.charAt(pStart + i), 1L << i);
+        }
+        try {
+            long last = 1L << (m - 1);
+            long pv = -1L;
+            long mv = 0L;
+            int score = m;
+            for (int j = 0; j < n; j++) {
+                long eq = ws.getMatch(text.charAt(tStart + j));
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // the distance decreases by at most one per remaining character of the text
+                if (score - (n - j - 1) > k) {
+                    return k + 1;
+                }
+                ph = (ph << 1) | 1L;
+                mh = mh << 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return score;
+        } finally {
+            ws.clearMatches(pattern, pStart, m);
+        }
+    }
+
+    private static int banded(String left, int lStart, int n, String right, int rStart, int m, int k, Workspace ws) {
+        int[] p = ws.row(0, n + 1);
+        int[] d = ws.row(1, n + 1);
+        int boundary = Math.min(n, k) + 1;
+        Arrays.fill(p, 0, n + 1, Integer.MAX_VALUE);
+        Arrays.fill(d, 0, n + 1, Integer.MAX_VALUE);
+        for (int i = 0; i < boundary; i++) {
+            p[i] = i;
+        }
+        for (int j = 1; j <= m; j++) {
+            char rightJ = right.charAt(rStart + j - 1);
+            d[0] = j;
+            // only the cells within k of the diagonal can hold distances up to k
+            int min = Math.max(1, j - k);
+            int max = j > Integer.MAX_VALUE - k ? n : Math.min(n, j + k);
+            if (min > 1) {
+                d[min - 1] = Integer.MAX_VALUE;
+            }
+            int lowerBound = Integer.MAX_VALUE;
+            for (int i = min; i <= max; i++) {
+                if (left.charAt(lStart + i - 1) == rightJ) {
+                    d[i] = p[i - 1];
+                } else {
+                    d[i] = 1 + Math.min(Math.min(d[i - 1], p[i]), p[i - 1]);
+                }
+                lowerBound = Math.min(lowerBound, d[i]);
+            }
+            if (lowerBound > k) {
+                return k + 1;
+            }
+            int[] tmp = p;
+            p = d;
+            d = tmp;
+        }
+        return p[n] <= k ? p[n] : k + 1;
+    }
+
+    /**
+     * Buffers reused by the comparisons made on one thread.
+     */
+    private static class Workspace {
+
+        // match vectors of the pattern, indexed directly for Latin-1 chars
+        private final long[] latin1 = new long[256];
+        // and in a small open addressing table for the others
+        private final char[] keys = new char[2 * WORD_SIZE];
+        private final long[] values = new long[2 * WORD_SIZE];
+        private final boolean[] used = new boolean[2 * WORD_SIZE];
+        private boolean hasOthers = false;
+
+        private final int[][] rows = new int[2][0];
+
+        void addMatch(char c, long bit) {
+            if (c < 256) {
+                latin1[c] |= bit;
+                return;
+            }
+            int slot = slot(c);
+            keys[slot] = c;
+            values[slot] |= bit;
+            used[slot] = true;
+            hasOthers = true;
+        }
+
+        long getMatch(char c) {
+            if (c < 256) {
+                return latin1[c];
+            }
+            int slot = slot(c);
+            return used[slot] ? values[slot] : 0L;
+        }
+
+        void clearMatches(String pattern, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                char c = pattern.charAt(i);
+                if (c < 256) {
+                    latin1[c] = 0L;
+                }
+            }
+            // entries cannot be removed one by one from a linear probing table
+            if (hasOthers) {
+                Arrays.fill(used, false);
+                Arrays.fill(values, 0L);
+                hasOthers = false;
+            }
+        }
+
+        /**
+         * The slot holding this char, or the free slot where it should go. As the pattern has at most 64 chars, the
+         * table is never more than half full.
+         */
+        private int slot(char c) {
+            int mask = keys.length - 1;
+            int slot = (c * 0x9E37) & mask;
+            while (used[slot] && keys[slot] != c) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        int[] row(int index, int size) {
+            if (rows[index].length < size) {
+                rows[index] = new int[Math.max(size, 2 * rows[index].length)];
+            }
+            return rows[index];
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Compares the strings of each block with each other, to find the neighbors of each string: the strings sharing a block
+ * with it and within the radius. The comparisons are split into tasks of similar sizes, which are run on a fork-join
+ * pool. Each task records the neighbors it finds in its own map, and the maps are merged when tasks are joined, so the
+ * result does not depend on how the work was split.
+ * <p>
+ * As in Vicino's NGramClusterer, two strings within the radius are recorded as neighbors of each other, so a chain of
+ * strings a, b, c where only a and b, and b and c, are within the radius gives the clusters {a, b}, {a, b, c} and {b,
+ * c}. NGramClusterer split the blocks between as many threads as there are processors and did not merge the neighbors
+ * they found, so with several processors, the neighbors of a string found in blocks handled by different threads were
+ * returned as separate clusters: they now form a single cluster.
+ */
+class BlockEvaluator {
+
+    // below this many comparisons, the overhead of forking is not worth it
+    static int pairsPerTask = 1 << 14;
+
+    private final SimilarityDistance _distance;
+    private final double _radius;
+    private final BooleanSupplier _stopped;
+    private final List<String[]> _blocks = new ArrayList<>();
+    // a slice is the comparisons of the strings of a block, from a range of them to the following ones
+    private final List<int[]> _slices = new ArrayList<>();
+    // number of comparisons in the slices before each slice
+    private long[] _cumulativePairs;
+    private final AtomicLong _pairsDone = new AtomicLong();
+
+    /**
+     * @param stopped
+     *            checked regularly during the evaluation, to stop it early
+     */
+    BlockEvaluator(SimilarityDistance distance, double radius, Collection<? extends Collection<String>> blocks,
+            BooleanSupplier stopped) {
+        _distance = distance;
+        _radius = radius;
+        _stopped = stopped;
+        List<Long> pairs = new ArrayList<>();
+        for (Collection<String> block : blocks) {
+            int n = block.size();
+            if (n < 2) {
+                continue;
+            }
+            int blockIndex = _blocks.size();
+            _blocks.add(block.toArray(new String[n]));
+            int start = 0;
+            long slicePairs = 0;
+            for (int i = 0; i < n - 1; i++) {
+                slicePairs += n - 1 - i;
+                if (slicePairs >= pairsPerTask || i == n - 2) {
+                    _slices.add(new int[] { blockIndex, start, i + 1 });
+                    pairs.add(slicePairs);
+                    start = i + 1;
+                    slicePairs = 0;
+                }
+            }
+        }
+        _cumulativePairs = new long[_slices.size() + 1];
+        for (int i = 0; i < pairs.size(); i++) {
+            _cumulativePairs[i + 1] = _cumulativePairs[i] + pairs.get(i);
+        }
+    }
+
+    /**
+     * @return the number of comparisons to make
+     */
+    long getPairCount() {
+        return _cumulativePairs[_cumulativePairs.length - 1];
+    }
+
+    /**
+     * @return the share of the comparisons made so far, out of 100
+     */
+    int getProgress() {
+        long total = getPairCount();
+        return total == 0 ? 100 : (int) (100 * _pairsDone.get() / total);
+    }
+
+    /**
+     * Compares the strings of each block.
+     *
+     * @param pool
+     *            the pool to compare blocks in parallel in, or null to compare them in the calling thread
+     * @return the neighbors of each string which has some, the string included, or null if the evaluation was stopped
+     */
+    Map<String, Set<Serializable>> evaluate(ForkJoinPool pool) {
+        Map<String, Set<Serializable>> neighbors;
+        if (pool == null || pool.getParallelism() <= 1 || !_distance.isThreadSafe()
+                || getPairCount() < 2L * pairsPerTask) {
+            neighbors = compareSlices(0, _slices.size());
+        } else {
+            try {
+                neighbors = pool.invoke(new SliceTask(0, _slices.size()));
+            } catch (RuntimeException e) {
+                // the pool rethrows a copy of exceptions thrown in other threads, wrapping the original one
+                if (e.getCause() != null && e.getCause().getClass().equals(e.getClass())) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return _stopped.getAsBoolean() ? null : neighbors;
+    }
+
+    private class SliceTask extends RecursiveTask<Map<String, Set<Serializable>>> {
+
+        private static final long serialVersionUID = -2793041574935235094L;
+
+        private final int _from;
+        private final int _to;
+
+        SliceTask(int from, int to) {
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected Map<String, Set<Serializable>> compute() {
+            long pairs = _cumulativePairs[_to] - _cumulativePairs[_from];
+            if (_to - _from == 1 || pairs <= pairsPerTask) {
+                return compareSlices(_from, _to);
+            }
+            // split at the slice where half of the comparisons are made
+            int mid = Arrays.binarySearch(_cumulativePairs, _from, _to, _cumulativePairs[_from] + pairs / 2);
+            mid = Math.min(_to - 1, Math.max(_from + 1, mid < 0 ? -mid - 1 : mid));
+            SliceTask left = new SliceTask(_from, mid);
+            left.fork();
+            Map<String, Set<Serializable>> right = new SliceTask(mid, _to).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    private Map<String, Set<Serializable>> compareSlices(int from, int to) {
+        boolean symmetric = _distance.isMetric();
+        Map<String, Set<Serializable>> neighbors = new HashMap<>();
+        for (int s = from; s < to; s++) {
+            if (_stopped.getAsBoolean()) {
+                break;
+            }
+            int[] slice = _slices.get(s);
+            String[] block = _blocks.get(slice[0]);
+            for (int i = slice[1]; i < slice[2]; i++) {
+                String a = block[i];
+                Set<Serializable> aNeighbors = neighbors.get(a);
+                for (int j = i + 1; j < block.length; j++) {
+                    String b = block[j];
+                    // pairs sharing several blocks are only compared once
+                    if (aNeighbors != null && aNeighbors.contains(b)) {
+                        continue;
+                    }
+                    if (_radius < 0 || isWithinRadius(a, b) || (!symmetric && isWithinRadius(b, a))) {
+                        aNeighbors = addNeighbor(neighbors, a, b);
+                        addNeighbor(neighbors, b, a);
+                    }
+                }
+            }
+            _pairsDone.addAndGet(_cumulativePairs[s + 1] - _cumulativePairs[s]);
+        }
+        return neighbors;
+    }
+
+    private boolean isWithinRadius(String a, String b) {
+        return _distance.compute(a, b, _radius) <= _radius;
+    }
+
+    private static Set<Serializable> addNeighbor(Map<String, Set<Serializable>> neighbors, String a, String b) {
+        Set<Serializable> set = neighbors.get(a);
+        if (set == null) {
+            set = new TreeSet<>();
+            set.add(a);
+            neighbors.put(a, set);
+        }
+        set.add(b);
+        return set;
+    }
+
+    private static Map<String, Set<Serializable>> merge(Map<String, Set<Serializable>> a, Map<String, Set<Serializable>> b) {
+        if (a.size() < b.size()) {
+            Map<String, Set<Serializable>> tmp = a;
+            a = b;
+            b = tmp;
+        }
+        for (Entry<String, Set<Serializable>> entry : b.entrySet()) {
+            Set<Serializable> set = a.get(entry.getKey());
+            if (set == null) {
+                a.put(entry.getKey(), entry.getValue());
+            } else {
+                set.addAll(entry.getValue());
+            }
+        }
+        return a;
+    }
+}
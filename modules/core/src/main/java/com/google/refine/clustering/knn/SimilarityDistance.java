@@ -40,4 +40,36 @@ public interface SimilarityDistance {
      * their differences increase.
      */
     public double compute(String a, String b);
+
+    /**
+     * Compute the distance between two strings when only whether it is within a threshold matters. Implementations can
+     * stop early on strings which are further apart: the value returned is then some value greater than the threshold,
+     * not necessarily their distance.
+     *
+     * @return by default, the result of {@link #compute(String, String)}
+     */
+    public default double compute(String a, String b, double threshold) {
+        return compute(a, b);
+    }
+
+    /**
+     * Whether this distance is a metric: symmetric, zero only between equal strings, and satisfying the triangle
+     * inequality. Clustering can then find close strings with a BK-tree rather than by comparing all strings in the
+     * same blocks.
+     *
+     * @return false by default
+     */
+    public default boolean isMetric() {
+        return false;
+    }
+
+    /**
+     * Whether this distance can be computed by several threads at once, so that clustering can compare the strings of
+     * different blocks in parallel.
+     *
+     * @return true by default
+     */
+    public default boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -28,6 +28,7 @@
 package com.google.refine.clustering.knn;
 
 import edu.mit.simile.vicino.distances.Distance;
+import edu.mit.simile.vicino.distances.LevenshteinDistance;
 
 /**
  * Wrapper to expose a similarity function from the Vicino library.
@@ -47,4 +48,13 @@ public class VicinoDistance implements SimilarityDistance {
     public double compute(String a, String b) {
         return _d.d(a, b);
     }
+
+    /**
+     * Vicino's {@link edu.mit.simile.vicino.distances.MetricDistance} base class is also extended by distances which
+     * are not metrics (such as Jaro or Jaccard), so only the distances known to be metrics are reported as such.
+     */
+    @Override
+    public boolean isMetric() {
+        return _d.getClass() == LevenshteinDistance.class;
+    }
 }
@@ -34,30 +34,42 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.clustering.knn;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
-import edu.mit.simile.vicino.clustering.NGramClusterer;
+import com.wcohen.ss.api.Token;
+import edu.mit.simile.vicino.NGramTokenizer;
 import edu.mit.simile.vicino.clustering.VPTreeClusterer;
 import edu.mit.simile.vicino.distances.Distance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.messages.OpenRefineMessage;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -117,14 +129,40 @@ public class kNNClusterer extends Clusterer {
 
         public static final double defaultRadius = 1.0d;
         public static final int defaultBlockingNgramSize = 6;
+        /**
+         * Compares the values sharing an n-gram (the default).
+         */
+        public static final String NGRAM_BLOCKING = "ngram";
+        /**
+         * Finds the values within the radius of each value with a BK-tree, for metric distances, and keeps those which
+         * share an n-gram with it. This gives the same clusters as n-gram blocking, with fewer distance computations
+         * when common n-grams make for large blocks.
+         */
+        public static final String BK_TREE_BLOCKING = "bk-tree";
         @JsonProperty("radius")
         public double radius = defaultRadius;
         @JsonProperty("blocking-ngram-size")
         public int blockingNgramSize = defaultBlockingNgramSize;
+        @JsonProperty("blocking")
+        @JsonInclude(Include.NON_NULL)
+        public String blocking = null;
     }
 
+    /**
+     * Preference key for the number of threads comparing the strings of blocks. By default, the common fork-join pool
+     * is used.
+     */
+    public static final String THREADS_PREF = "clustering.knn.threads";
+    /**
+     * Preference key for the number of seconds after which clustering is stopped with an error. By default, it is not
+     * limited.
+     */
+    public static final String TIME_BUDGET_PREF = "clustering.knn.timeBudget";
+
     private SimilarityDistance _distance;
     private kNNClustererConfigParameters _params;
+    private volatile BlockEvaluator _evaluator;
+    private volatile int _progress;
 
     List<Set<Serializable>> _clusters;
 
@@ -175,30 +213,82 @@ public class kNNClusterer extends Clusterer {
 
         SimilarityDistance _distance;
         double _radius = 1.0d;
-        int _blockingNgramSize = 6;
-        HashSet<String> _data;
-        NGramClusterer _clusterer;
+        NGramTokenizer _tokenizer;
+        Map<String, Set<String>> _blocks = new HashMap<>();
+
+        public BlockingClusteringRowVisitor(SimilarityDistance _distance2, kNNClustererConfigParameters params) {
+            _distance = _distance2;
+            _radius = params.radius;
+            _tokenizer = new NGramTokenizer(params.blockingNgramSize);
+        }
+
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
 
-        private class DistanceWrapper extends Distance {
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
 
-            private final SimilarityDistance _d;
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(_colindex);
+            if (cell != null && cell.value != null) {
+                Object v = cell.value;
+                String s = (v instanceof String) ? ((String) v) : v.toString().intern();
+                for (Token token : _tokenizer.tokenize(s)) {
+                    _blocks.computeIfAbsent(token.getValue(), k -> new TreeSet<>()).add(s);
+                }
+                count(s);
+            }
+            return false;
+        }
 
-            protected DistanceWrapper(SimilarityDistance d) {
-                _d = d;
+        public List<Set<Serializable>> getClusters(long deadline) {
+            BlockEvaluator evaluator = new BlockEvaluator(_distance, _radius, _blocks.values(),
+                    () -> isInterrupted(deadline));
+            _blocks = null;
+            _evaluator = evaluator;
+
+            int threads = getIntPreference(THREADS_PREF, 0);
+            ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool();
+            Map<String, Set<Serializable>> neighbors;
+            try {
+                neighbors = evaluator.evaluate(pool);
+            } finally {
+                if (threads > 0) {
+                    pool.shutdown();
+                }
+            }
+            if (neighbors == null) {
+                checkInterrupted(deadline);
             }
 
-            @Override
-            public double d(String arg0, String arg1) {
-                return _d.compute(arg0, arg1);
+            Set<Set<Serializable>> clusters = new HashSet<>();
+            for (Set<Serializable> cluster : neighbors.values()) {
+                if (cluster.size() > 1) {
+                    clusters.add(cluster);
+                }
             }
+            List<Set<Serializable>> result = new ArrayList<>(clusters);
+            result.sort((a, b) -> b.size() - a.size());
+            return result;
         }
+    }
 
-        public BlockingClusteringRowVisitor(SimilarityDistance _distance2, kNNClustererConfigParameters params) {
-            _distance = _distance2;
-            _data = new HashSet<String>();
-            _blockingNgramSize = params.blockingNgramSize;
+    class BKTreeClusteringRowVisitor implements RowVisitor {
+
+        SimilarityDistance _distance;
+        double _radius;
+        int _blockingNgramSize;
+        Set<String> _data = new LinkedHashSet<>();
+
+        public BKTreeClusteringRowVisitor(SimilarityDistance distance, kNNClustererConfigParameters params) {
+            _distance = distance;
             _radius = params.radius;
-            _clusterer = new NGramClusterer(new DistanceWrapper(_distance), _blockingNgramSize);
+            _blockingNgramSize = params.blockingNgramSize;
         }
 
         @Override
@@ -217,17 +307,77 @@ public class kNNClusterer extends Clusterer {
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString().intern();
-                _clusterer.populate(s);
+                _data.add(s);
                 count(s);
             }
             return false;
         }
 
-        public List<Set<Serializable>> getClusters() {
-            return _clusterer.getClusters(_radius);
+        public List<Set<Serializable>> getClusters(long deadline) {
+            // values are only clustered with values sharing one of their n-grams, as with n-gram blocking
+            NGramTokenizer tokenizer = new NGramTokenizer(_blockingNgramSize);
+            Map<String, Integer> ngramIds = new HashMap<>();
+            List<String> values = new ArrayList<>(_data.size());
+            List<int[]> ngrams = new ArrayList<>(_data.size());
+            BKTree tree = new BKTree(_distance);
+            for (String value : _data) {
+                Token[] tokens = tokenizer.tokenize(value);
+                if (tokens.length == 0) {
+                    continue;
+                }
+                int[] ids = new int[tokens.length];
+                for (int i = 0; i < tokens.length; i++) {
+                    ids[i] = ngramIds.computeIfAbsent(tokens[i].getValue(), k -> ngramIds.size());
+                }
+                Arrays.sort(ids);
+                tree.add(value, values.size());
+                values.add(value);
+                ngrams.add(ids);
+            }
+
+            Set<Set<Serializable>> clusters = new HashSet<>();
+            for (int i = 0; i < values.size(); i++) {
+                if (i % 256 == 0) {
+                    checkInterrupted(deadline);
+                    _progress = (int) (100L * i / values.size());
+                }
+                int[] ids = ngrams.get(i);
+                Set<Serializable> cluster = new TreeSet<>();
+                cluster.add(values.get(i));
+                tree.search(values.get(i), _radius, j -> {
+                    if (shareNgram(ids, ngrams.get(j))) {
+                        cluster.add(values.get(j));
+                    }
+                });
+                if (cluster.size() > 1) {
+                    clusters.add(cluster);
+                }
+            }
+
+            List<Set<Serializable>> result = new ArrayList<>(clusters);
+            result.sort((a, b) -> b.size() - a.size());
+            return result;
         }
     }
 
+    /**
+     * @return true if the two sorted arrays have an element in common
+     */
+    static boolean shareNgram(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                return true;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
     public void initializeFromConfig(Project project, kNNClustererConfig config) {
         super.initializeFromConfig(project, config);
         _distance = config.getDistance();
@@ -236,12 +386,66 @@ public class kNNClusterer extends Clusterer {
 
     @Override
     public void computeClusters(Engine engine) {
+        int timeBudget = getIntPreference(TIME_BUDGET_PREF, 0);
+        long deadline = timeBudget > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeBudget) : 0;
+        FilteredRows filteredRows = engine.getAllFilteredRows();
+        if (kNNClustererConfigParameters.BK_TREE_BLOCKING.equals(_params.blocking)) {
+            if (_distance.isMetric() && _params.radius >= 0) {
+                BKTreeClusteringRowVisitor visitor = new BKTreeClusteringRowVisitor(_distance, _params);
+                filteredRows.accept(_project, visitor);
+                _clusters = visitor.getClusters(deadline);
+                return;
+            }
+            logger.warn("BK-tree blocking requires a metric distance and a non-negative radius, using n-gram blocking");
+        }
+
         // VPTreeClusteringRowVisitor visitor = new VPTreeClusteringRowVisitor(_distance,_config);
         BlockingClusteringRowVisitor visitor = new BlockingClusteringRowVisitor(_distance, _params);
-        FilteredRows filteredRows = engine.getAllFilteredRows();
         filteredRows.accept(_project, visitor);
 
-        _clusters = visitor.getClusters();
+        _clusters = visitor.getClusters(deadline);
+    }
+
+    @Override
+    public int getProgress() {
+        BlockEvaluator evaluator = _evaluator;
+        return evaluator != null ? evaluator.getProgress() : _progress;
+    }
+
+    private boolean isInterrupted(long deadline) {
+        return _canceled || (deadline != 0 && System.nanoTime() - deadline > 0);
+    }
+
+    /**
+     * Throws an exception if the computation was canceled or ran out of time.
+     */
+    private void checkInterrupted(long deadline) {
+        if (_canceled) {
+            throw new CancellationException("Clustering was canceled");
+        }
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            throw new IllegalStateException(
+                    OpenRefineMessage.clustering_time_budget_exceeded(getIntPreference(TIME_BUDGET_PREF, 0)));
+        }
+    }
+
+    static private int getIntPreference(String key, int defaultValue) {
+        if (ProjectManager.singleton == null || ProjectManager.singleton.getPreferenceStore() == null) {
+            return defaultValue;
+        }
+        Object v = ProjectManager.singleton.getPreferenceStore().get(key);
+        if (v != null) {
+            if (v instanceof Number) {
+                return ((Number) v).intValue();
+            } else {
+                try {
+                    return Integer.parseInt(v.toString());
+                } catch (NumberFormatException e) {
+                    // ignore
+                }
+            }
+        }
+        return defaultValue;
     }
 
     public static class ValuesComparator implements Comparator<Entry<Serializable, Integer>>, Serializable {
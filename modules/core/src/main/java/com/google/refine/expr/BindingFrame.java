@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Bindings in which the variables set for each row (value, cell, row, cells, rowIndex...) are held in fixed slots
+ * rather than in the underlying table. Binding a row only records the row and cell, and the wrappers exposed to
+ * expressions are only created when first looked up. The same frame can therefore be bound to many rows cheaply.
+ * <p>
+ * Slotted variables can still be looked up, overridden and removed by name like any other variable, so frames can be
+ * passed to code which only knows about {@link Properties}. Evaluators can look them up faster by slot, with
+ * {@link #getSlot(String)} and {@link #get(int)}.
+ */
+public class BindingFrame extends Properties {
+
+    private static final long serialVersionUID = 4536180741285620452L;
+
+    static public final int PROJECT = 0;
+    static public final int COLUMN_NAME = 1;
+    static public final int ROW_INDEX = 2;
+    static public final int VALUE = 3;
+    static public final int CELL = 4;
+    static public final int ROW = 5;
+    static public final int CELLS = 6;
+    static public final int TRUE = 7;
+    static public final int FALSE = 8;
+    static public final int PI = 9;
+
+    static private final String[] s_slotNames = { "project", "columnName", "rowIndex", "value", "cell", "row", "cells",
+            "true", "false", "PI" };
+    // slots which are recomputed for each row
+    static private final int ROW_SLOTS = (1 << ROW_INDEX) | (1 << VALUE) | (1 << CELL) | (1 << ROW) | (1 << CELLS);
+    // marks a slot whose variable is not bound
+    static private final Object ABSENT = new Object();
+
+    final transient protected Project _project;
+    transient protected Row _row;
+    transient protected int _rowIndex;
+    transient protected String _boundColumnName;
+    transient protected Cell _cell;
+    transient protected boolean _bound;
+
+    transient protected Object[] _slots = new Object[s_slotNames.length];
+    // bit set of the slots whose value has been computed or set since the last bind
+    transient protected int _known;
+
+    public BindingFrame(Project project) {
+        _project = project;
+    }
+
+    /**
+     * @return the slot of the variable with the given name, or -1 if it is not held in a slot
+     */
+    static public int getSlot(String name) {
+        switch (name) {
+            case "project":
+                return PROJECT;
+            case "columnName":
+                return COLUMN_NAME;
+            case "rowIndex":
+                return ROW_INDEX;
+            case "value":
+                return VALUE;
+            case "cell":
+                return CELL;
+            case "row":
+                return ROW;
+            case "cells":
+                return CELLS;
+            case "true":
+                return TRUE;
+            case "false":
+                return FALSE;
+            case "PI":
+                return PI;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Binds the frame to a row, replacing the variables of the previous row. The column name is kept from the previous
+     * row if none is given.
+     */
+    public void bind(Row row, int rowIndex, String columnName, Cell cell) {
+        _row = row;
+        _rowIndex = rowIndex;
+        _boundColumnName = columnName;
+        _cell = cell;
+        _bound = true;
+        _known &= ~ROW_SLOTS;
+        if (columnName != null) {
+            _slots[COLUMN_NAME] = columnName;
+            _known |= 1 << COLUMN_NAME;
+        }
+    }
+
+    /**
+     * @return the value of the variable in the given slot, or null if it is not bound
+     */
+    public Object get(int slot) {
+        Object value;
+        if ((_known & (1 << slot)) != 0) {
+            value = _slots[slot];
+        } else {
+            value = compute(slot);
+            _slots[slot] = value;
+            _known |= 1 << slot;
+        }
+        return value == ABSENT ? null : value;
+    }
+
+    protected Object compute(int slot) {
+        switch (slot) {
+            case PROJECT:
+                return _project;
+            case ROW_INDEX:
+                return _bound ? _rowIndex : ABSENT;
+            case VALUE:
+                return _cell != null && _cell.value != null ? _cell.value : ABSENT;
+            case CELL:
+                return _cell != null ? new WrappedCell(_project, _boundColumnName, _cell) : ABSENT;
+            case ROW:
+                return _bound ? new WrappedRow(_project, _rowIndex, _row) : ABSENT;
+            case CELLS:
+                return _bound ? new CellTuple(_project, _row) : ABSENT;
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case PI:
+                return Math.PI;
+            default:
+                return ABSENT;
+        }
+    }
+
+    protected Object set(int slot, Object value) {
+        Object previous = get(slot);
+        _slots[slot] = value;
+        _known |= 1 << slot;
+        return previous;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        return slot >= 0 ? get(slot) : super.get(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        if (slot >= 0) {
+            Object value = get(slot);
+            return value != null ? value : defaultValue;
+        }
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public String getProperty(String key) {
+        int slot = getSlot(key);
+        if (slot >= 0) {
+            Object value = get(slot);
+            return value instanceof String ? (String) value : null;
+        }
+        return super.getProperty(key);
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        return slot >= 0 ? set(slot, value) : super.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        return slot >= 0 ? set(slot, ABSENT) : super.remove(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        return slot >= 0 ? get(slot) != null : super.containsKey(key);
+    }
+
+    /*
+     * The bulk accessors see the slotted variables through copies in the underlying table, refreshed on each call.
+     */
+
+    protected void copySlots() {
+        for (int slot = 0; slot < s_slotNames.length; slot++) {
+            Object value = get(slot);
+            if (value != null) {
+                super.put(s_slotNames[slot], value);
+            } else {
+                super.remove(s_slotNames[slot]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        copySlots();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        copySlots();
+        return super.isEmpty();
+    }
+
+    @Override
+    public Enumeration<Object> keys() {
+        copySlots();
+        return super.keys();
+    }
+
+    @Override
+    public Enumeration<Object> elements() {
+        copySlots();
+        return super.elements();
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        copySlots();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        copySlots();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        copySlots();
+        return super.entrySet();
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        copySlots();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Object, ? super Object> action) {
+        copySlots();
+        super.forEach(action);
+    }
+
+    @Override
+    public Enumeration<?> propertyNames() {
+        copySlots();
+        return super.propertyNames();
+    }
+
+    @Override
+    public Set<String> stringPropertyNames() {
+        copySlots();
+        return super.stringPropertyNames();
+    }
+
+    @Override
+    public synchronized String toString() {
+        copySlots();
+        return super.toString();
+    }
+
+    @Override
+    public synchronized boolean equals(Object o) {
+        copySlots();
+        return super.equals(o);
+    }
+
+    @Override
+    public synchronized int hashCode() {
+        copySlots();
+        return super.hashCode();
+    }
+
+    @Override
+    public synchronized Object clone() {
+        BindingFrame clone = (BindingFrame) super.clone();
+        clone._slots = _slots.clone();
+        return clone;
+    }
+}
@@ -113,4 +113,36 @@ public interface Evaluable {
         return this;
     }
 
+    /**
+     * Whether the result of this expression only depends on the value of the cell it is evaluated on, without any side
+     * effect. The results of such expressions can be reused for all cells with the same value.
+     *
+     * @return false by default, when this cannot be established
+     */
+    public default boolean isPureFunctionOfValue() {
+        return false;
+    }
+
+    /**
+     * Whether the result of this expression only depends on the row it is evaluated on, without any side effect or
+     * access to other data, such as other projects, random numbers or the current time. The results of such expressions
+     * can be reused as long as the columns they depend on are unchanged.
+     *
+     * @return false by default, when this cannot be established
+     */
+    public default boolean isPureFunctionOfRow() {
+        return false;
+    }
+
+    /**
+     * Whether this expression can be evaluated by several threads at once, each with its own bindings. Operations
+     * evaluate expressions which are not thread-safe on a single thread. GREL expressions are thread-safe when all the
+     * functions they call are registered as such.
+     *
+     * @return true by default
+     */
+    public default boolean isThreadSafe() {
+        return true;
+    }
+
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.messages.OpenRefineMessage;
+
+/**
+ * Memo of the results of an expression by cell value, for expressions which are pure functions of the cell value (see
+ * {@link Evaluable#isPureFunctionOfValue()}). Each distinct value is then only evaluated once, which saves most
+ * evaluations on columns with few distinct values. Memoization is opt-in, with the {@link #ENABLED_PREF} preference.
+ * <p>
+ * The memo holds a bounded number of values: values seen once it is full are evaluated each time. It is not
+ * thread-safe: visitors evaluating rows in parallel use one memo per partial visitor, and combine their counts.
+ */
+public class EvaluationMemo {
+
+    static public final String ENABLED_PREF = "expressions.memoizeByValue";
+
+    static int maxSize = 10000;
+    // stands for null values and results
+    static private final Object NULL = new Object();
+
+    /**
+     * Row visitor evaluating an expression with a memo, whose hit rate can be reported once the visit is done.
+     */
+    public interface MemoizingRowVisitor extends RowVisitor {
+
+        /**
+         * @return the memo used by the visitor, or null if it evaluates the expression on each row
+         */
+        EvaluationMemo getEvaluationMemo();
+    }
+
+    final protected Evaluable _evaluable;
+    final protected Map<Object, Object> _results = new HashMap<>();
+    protected long _hits = 0;
+    protected long _misses = 0;
+
+    protected EvaluationMemo(Evaluable evaluable) {
+        _evaluable = evaluable;
+    }
+
+    /**
+     * Creates a memo for the given expression, if memoization is enabled and the expression allows it.
+     *
+     * @return the memo, or null if the expression should be evaluated on each cell
+     */
+    static public EvaluationMemo create(Evaluable evaluable) {
+        if (!isEnabledByPreference() || !evaluable.isPureFunctionOfValue()) {
+            return null;
+        }
+        return new EvaluationMemo(evaluable);
+    }
+
+    /**
+     * Evaluates the expression, unless it was already evaluated on the same value.
+     *
+     * @param bindings
+     *            the bindings, already bound to the cell
+     * @param value
+     *            the value of the cell, or null if there is none
+     */
+    public Object evaluate(Properties bindings, Object value) {
+        Object key = value == null ? NULL : value;
+        Object result = _results.get(key);
+        if (result != null) {
+            _hits++;
+            return result == NULL ? null : result;
+        }
+        _misses++;
+        result = _evaluable.evaluate(bindings);
+        if (_results.size() < maxSize) {
+            _results.put(key, result == null ? NULL : result);
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return _hits;
+    }
+
+    public long getMissCount() {
+        return _misses;
+    }
+
+    /**
+     * Adds the hit and miss counts of a memo used on other rows to the counts of this memo. The memoized results are
+     * not merged.
+     */
+    public void combine(EvaluationMemo partial) {
+        _hits += partial._hits;
+        _misses += partial._misses;
+    }
+
+    /**
+     * @return the share of evaluations which were saved, between 0 and 1
+     */
+    public double getHitRate() {
+        long total = _hits + _misses;
+        return total == 0 ? 0 : (double) _hits / total;
+    }
+
+    /**
+     * Appends the hit rate of the memo used by a row visitor, if any, to the description of a history entry.
+     */
+    static public String describe(String description, RowVisitor visitor) {
+        if (visitor instanceof MemoizingRowVisitor) {
+            EvaluationMemo memo = ((MemoizingRowVisitor) visitor).getEvaluationMemo();
+            if (memo != null && memo._hits + memo._misses > 0) {
+                return description + " " + OpenRefineMessage.evaluation_memo_hit_rate(memo.getHitRate());
+            }
+        }
+        return description;
+    }
+
+    static private boolean isEnabledByPreference() {
+        if (ProjectManager.singleton == null || ProjectManager.singleton.getPreferenceStore() == null) {
+            return false;
+        }
+        Object v = ProjectManager.singleton.getPreferenceStore().get(ENABLED_PREF);
+        if (v instanceof Boolean) {
+            return (Boolean) v;
+        } else if (v != null) {
+            return "true".equalsIgnoreCase(v.toString());
+        }
+        return false;
+    }
+}
@@ -56,14 +56,12 @@ public class ExpressionUtils {
         s_binders.add(binder);
     }
 
+    /**
+     * Creates bindings for evaluating expressions on the rows of a project. They are meant to be bound to each row in
+     * turn with {@link #bind(Properties, Row, int, String, Cell)}.
+     */
     static public Properties createBindings(Project project) {
-        Properties bindings = new Properties();
-
-        bindings.put("true", true);
-        bindings.put("false", false);
-        bindings.put("PI", Math.PI);
-
-        bindings.put("project", project);
+        Properties bindings = new BindingFrame(project);
 
         for (Binder binder : s_binders) {
             binder.initializeBindings(bindings, project);
@@ -73,6 +71,18 @@ public class ExpressionUtils {
     }
 
     static public void bind(Properties bindings, Row row, int rowIndex, String columnName, Cell cell) {
+        if (bindings instanceof BindingFrame) {
+            ((BindingFrame) bindings).bind(row, rowIndex, columnName, cell);
+        } else {
+            bindLegacy(bindings, row, rowIndex, columnName, cell);
+        }
+
+        for (Binder binder : s_binders) {
+            binder.bind(bindings, row, rowIndex, columnName, cell);
+        }
+    }
+
+    static private void bindLegacy(Properties bindings, Row row, int rowIndex, String columnName, Cell cell) {
         Project project = (Project) bindings.get("project");
 
         bindings.put("rowIndex", rowIndex);
@@ -94,10 +104,6 @@ public class ExpressionUtils {
                 bindings.put("value", cell.value);
             }
         }
-
-        for (Binder binder : s_binders) {
-            binder.bind(bindings, row, rowIndex, columnName, cell);
-        }
     }
 
     static public boolean isError(Object o) {
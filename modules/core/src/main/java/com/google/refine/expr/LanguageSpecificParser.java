@@ -63,4 +63,13 @@ public interface LanguageSpecificParser {
     default public Evaluable parse(String source, String languagePrefix) throws ParsingException {
         return parse(source);
     }
+
+    /**
+     * Whether the expressions returned by this parser can be cached by {@link MetaParser} and shared by all the
+     * evaluations of the same source, possibly concurrently. Parsers of languages whose expressions hold evaluation
+     * state, or whose parsing has side effects, should return false.
+     */
+    default public boolean isCacheable() {
+        return true;
+    }
 }
@@ -34,8 +34,10 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.expr;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -61,6 +63,23 @@ abstract public class MetaParser {
     static final public String GREL_LANGUAGE_CODE = "grel";
     static final protected Map<String, LanguageInfo> s_languages = new HashMap<String, LanguageInfo>();
 
+    /**
+     * Parsed expressions, by language prefix and source, for the languages whose parser allows it. The same expressions
+     * are parsed over and over, by previews, facets and operations.
+     */
+    static final int CACHE_SIZE = 512;
+    static final private Map<String, Evaluable> s_cache = new LinkedHashMap<String, Evaluable>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 3061406264524843113L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Evaluable> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    static final private AtomicLong s_cacheHits = new AtomicLong();
+    static final private AtomicLong s_cacheMisses = new AtomicLong();
+
     /**
      * languagePrefix will be stored in the meta model as an identifier. so be careful when change it as it will break
      * the backward compatibility for the old project
@@ -72,6 +91,7 @@ abstract public class MetaParser {
      */
     static public void registerLanguageParser(String languagePrefix, String name, LanguageSpecificParser parser, String defaultExpression) {
         s_languages.put(languagePrefix, new LanguageInfo(name, parser, defaultExpression));
+        clearCache();
     }
 
     /**
@@ -82,6 +102,7 @@ abstract public class MetaParser {
      */
     static public void unregisterLanguageParser(String languagePrefix) {
         s_languages.remove(languagePrefix.toLowerCase());
+        clearCache();
     }
 
     static public LanguageInfo getLanguageInfo(String languagePrefix) {
@@ -114,7 +135,7 @@ abstract public class MetaParser {
         language = language.toLowerCase();
         LanguageInfo info = s_languages.get(language);
         if (info != null) {
-            return info.parser.parse(s.substring(colon + 1), language);
+            return parseCached(info, s.substring(colon + 1), language);
         } else {
             return parseGREL(s);
         }
@@ -125,6 +146,50 @@ abstract public class MetaParser {
         if (info == null) {
             throw new ParsingException("Default language GREL is not available");
         }
-        return info.parser.parse(s, GREL_LANGUAGE_CODE);
+        return parseCached(info, s, GREL_LANGUAGE_CODE);
+    }
+
+    static protected Evaluable parseCached(LanguageInfo info, String source, String languagePrefix) throws ParsingException {
+        if (!info.parser.isCacheable()) {
+            return info.parser.parse(source, languagePrefix);
+        }
+        String key = languagePrefix + ":" + source;
+        Evaluable evaluable;
+        synchronized (s_cache) {
+            evaluable = s_cache.get(key);
+        }
+        if (evaluable != null) {
+            s_cacheHits.incrementAndGet();
+            return evaluable;
+        }
+        s_cacheMisses.incrementAndGet();
+        evaluable = info.parser.parse(source, languagePrefix);
+        synchronized (s_cache) {
+            s_cache.put(key, evaluable);
+        }
+        return evaluable;
+    }
+
+    /**
+     * Forgets the parsed expressions, for instance after changing how a language is parsed.
+     */
+    static public void clearCache() {
+        synchronized (s_cache) {
+            s_cache.clear();
+        }
+    }
+
+    /**
+     * @return the number of expressions parsed by {@link #parse(String)} which were found in the cache
+     */
+    static public long getCacheHitCount() {
+        return s_cacheHits.get();
+    }
+
+    /**
+     * @return the number of expressions parsed by {@link #parse(String)} which had to be parsed by their language
+     */
+    static public long getCacheMissCount() {
+        return s_cacheMisses.get();
     }
 }
@@ -46,6 +46,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.ProjectManager;
@@ -118,11 +119,14 @@ public class History {
     protected List<HistoryEntry> _pastEntries; // done changes, can be undone
     @JsonProperty("future")
     protected List<HistoryEntry> _futureEntries; // undone changes, can be redone
+    @JsonIgnore
+    protected List<HistoryEntry> _discardedEntries; // undone changes cleared by a new change, whose data is not deleted yet
 
     public History(Project project) {
         _projectID = project.id;
         _pastEntries = new ArrayList<HistoryEntry>();
         _futureEntries = new ArrayList<HistoryEntry>();
+        _discardedEntries = new ArrayList<HistoryEntry>();
     }
 
     /**
@@ -141,18 +145,10 @@ public class History {
 
                 setModified();
 
-                // Any new change will clear all future entries.
-                List<HistoryEntry> futureEntries = _futureEntries;
+                // Any new change will clear all future entries. Their data is only removed from disk once the
+                // project has been saved in full without them, since a change journal may still refer to it.
+                _discardedEntries.addAll(_futureEntries);
                 _futureEntries = new ArrayList<HistoryEntry>();
-
-                for (HistoryEntry entry2 : futureEntries) {
-                    try {
-                        // remove residual data on disk
-                        entry2.delete();
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
             }
         }
     }
@@ -173,6 +169,88 @@ public class History {
         }
     }
 
+    @JsonIgnore
+    synchronized public List<HistoryEntry> getFutureEntries() {
+        return new ArrayList<HistoryEntry>(_futureEntries);
+    }
+
+    /**
+     * Re-applies an entry on a project which is being loaded, for instance when replaying a change journal. Unlike
+     * {@link #addEntry(HistoryEntry)}, this does not look up the project in the project manager, does not mark it as
+     * modified and does not delete the data of the future entries it discards.
+     * 
+     * @param project
+     *            the project being loaded
+     * @param entry
+     *            the entry to apply: if it is the first future entry, it is redone, otherwise it is appended as a new
+     *            entry
+     */
+    synchronized public void replayApply(Project project, HistoryEntry entry) {
+        boolean redo = !_futureEntries.isEmpty() && _futureEntries.get(0).id == entry.id;
+        if (redo) {
+            entry = _futureEntries.get(0);
+        }
+        entry.apply(project);
+
+        if (redo) {
+            _futureEntries.remove(0);
+        } else {
+            _discardedEntries.addAll(_futureEntries);
+            _futureEntries.clear();
+        }
+        _pastEntries.add(entry);
+    }
+
+    /**
+     * Reverts the last past entry of a project which is being loaded, which must have the given id.
+     */
+    synchronized public void replayUndo(Project project, long entryID) {
+        if (_pastEntries.isEmpty() || _pastEntries.get(_pastEntries.size() - 1).id != entryID) {
+            throw new IllegalStateException("History entry " + entryID + " is not the last done entry");
+        }
+        HistoryEntry entry = _pastEntries.get(_pastEntries.size() - 1);
+        entry.revert(project);
+
+        _pastEntries.remove(_pastEntries.size() - 1);
+        _futureEntries.add(0, entry);
+    }
+
+    /**
+     * Replaces the undone entries of a project which is being loaded. The entries must not have been applied.
+     */
+    synchronized public void replayFutureEntries(List<HistoryEntry> entries) {
+        _futureEntries = new ArrayList<HistoryEntry>(entries);
+    }
+
+    /**
+     * @return the undone entries which were cleared by a new change since the project was last saved in full
+     */
+    @JsonIgnore
+    synchronized public List<HistoryEntry> getDiscardedEntries() {
+        return new ArrayList<HistoryEntry>(_discardedEntries);
+    }
+
+    /**
+     * Removes the data of entries which were cleared by a new change, once the project has been saved in full without
+     * them.
+     * 
+     * @param entries
+     *            the discarded entries, as returned by {@link #getDiscardedEntries()} when the project was saved
+     */
+    public void deleteDiscardedEntries(List<HistoryEntry> entries) {
+        synchronized (this) {
+            _discardedEntries.removeAll(entries);
+        }
+        for (HistoryEntry entry : entries) {
+            try {
+                // remove residual data on disk
+                entry.delete();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     synchronized public void undoRedo(long lastDoneEntryID) {
         if (lastDoneEntryID == 0) {
             // undo all the way back to the start of the project
@@ -160,6 +160,7 @@ public class HistoryEntry {
 
         synchronized (project) {
             getChange().apply(project);
+            project.markContentChanged();
 
             // When a change is applied, it can hang on to old data (in order to be able
             // to revert later). Hence, we need to save the change out.
@@ -181,6 +182,7 @@ public class HistoryEntry {
             _manager.loadChange(this);
         }
         getChange().revert(project);
+        project.markContentChanged();
     }
 
     static public HistoryEntry load(Project project, String s) throws IOException {
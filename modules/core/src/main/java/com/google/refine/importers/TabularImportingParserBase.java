@@ -197,7 +197,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
                                     storedValue = ExpressionUtils.wrapStorable(value);
                                 }
 
-                                row.setCell(cellIndex, new Cell(storedValue, null));
+                                row.setCell(cellIndex, new Cell(project.getStringDictionary().intern(storedValue), null));
                                 rowHasData = true;
                             } else if (!storeBlankCellsAsNulls) {
                                 row.setCell(cellIndex, new Cell("", null));
@@ -161,7 +161,7 @@ public abstract class TreeImportUtilities {
             row.add(null);
         }
 
-        row.set(cellIndex, new Cell(value, null));
+        row.set(cellIndex, new Cell(project.getStringDictionary().intern(value), null));
 
         column.nextRowIndex = rowIndex + 1;
         column.nonBlankCount++; // TODO: Only increment for first instance in record?
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Project;
+
+/**
+ * Append-only journal of the history changes made to a project since its data was last saved in full.
+ * <p>
+ * The data of each change is already stored in its own file by {@link FileHistoryEntryManager}, so saving a modified
+ * project only needs to record which history entries were undone or applied since the last save. When the project is
+ * loaded, the journal is replayed on top of the last full snapshot. Once the journal grows past
+ * {@link #MAX_ENTRIES_PREF} records, or cannot represent the changes (for instance because an entry was undone and
+ * discarded by a new one between two saves), the project is saved in full again and the journal is truncated. Journals
+ * of projects which are no longer being modified are also folded into a full save by the periodic save, see
+ * {@link FileProjectManager#compactProjects(java.time.Instant)}.
+ * <p>
+ * The data of discarded entries is kept until the next full save, since earlier batches of the journal may still refer
+ * to it. The journal records which entries were discarded, so replaying it after a restart lists them again as
+ * discarded in the history of the project, and the next full save deletes their data.
+ * <p>
+ * The journal is a text file made of batches, one per save, terminated by an end marker so that a partially written
+ * batch is ignored:
+ * 
+ * <pre>
+ * snapshot=&lt;number of done entries&gt;,&lt;id of the last done entry&gt;
+ * undo=&lt;entry id&gt;
+ * apply=&lt;entry JSON&gt;
+ * futureEntryCount=&lt;n&gt;
+ * &lt;entry JSON&gt; (n times)
+ * /b/
+ * </pre>
+ */
+public class ChangeJournal {
+
+    final static Logger logger = LoggerFactory.getLogger("change_journal");
+
+    public static final String JOURNAL_FILE = "history.journal";
+
+    /**
+     * Preference key for the maximum number of undone or applied entries recorded in a journal before the project is
+     * saved in full. The journal is disabled unless this is set to a positive number, since versions of OpenRefine
+     * which do not know about the journal would otherwise open such projects without the changes it records.
+     */
+    public static final String MAX_ENTRIES_PREF = "project.storage.journalMaxEntries";
+    public static final int DEFAULT_MAX_ENTRIES = 0;
+
+    private static final String END_OF_BATCH = "/b/";
+
+    private final File _file;
+    // ids of the done entries, as persisted by the snapshot and the journal, or null if the project was never saved
+    private List<Long> _persistedPast;
+    // ids of the undone entries, as persisted by the snapshot and the journal
+    private List<Long> _persistedFuture;
+    private int _entryCount = 0;
+    private boolean _needsSnapshot = false;
+
+    /**
+     * Creates an empty journal for a project whose data has not been saved yet.
+     */
+    public ChangeJournal(File projectDir) {
+        _file = new File(projectDir, JOURNAL_FILE);
+    }
+
+    /**
+     * Replays the journal stored in the project directory, if any, on a project freshly loaded from its last snapshot.
+     * 
+     * @return the journal to use for subsequent saves of the project
+     */
+    static public ChangeJournal replay(File projectDir, Project project) {
+        ChangeJournal journal = new ChangeJournal(projectDir);
+        journal.markPersisted(project);
+        if (journal._file.exists()) {
+            try {
+                journal.replay(project);
+            } catch (Exception e) {
+                logger.warn("Failed to replay change journal of project {}, keeping the changes replayed so far", project.id, e);
+                journal._needsSnapshot = true;
+            }
+            journal.markPersisted(project);
+        }
+        return journal;
+    }
+
+    private void replay(Project project) throws Exception {
+        long start = System.currentTimeMillis();
+        int batchCount = 0;
+        try (LineNumberReader reader = new LineNumberReader(
+                new InputStreamReader(new FileInputStream(_file), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null || !header.equals("snapshot=" + describeSnapshot(project))) {
+                // the journal was written for another snapshot, which the current one supersedes
+                logger.warn("Ignoring stale change journal of project {}", project.id);
+                _needsSnapshot = true;
+                return;
+            }
+
+            List<String> batch = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (END_OF_BATCH.equals(line)) {
+                    replayBatch(project, batch);
+                    batch.clear();
+                    batchCount++;
+                } else {
+                    batch.add(line);
+                }
+            }
+            if (!batch.isEmpty()) {
+                logger.warn("Ignoring incomplete batch at the end of the change journal of project {}", project.id);
+                _needsSnapshot = true;
+            }
+        }
+        logger.info("Replayed {} change journal batch(es) of project {} in {} ms",
+                batchCount, project.id, System.currentTimeMillis() - start);
+    }
+
+    private void replayBatch(Project project, List<String> lines) throws IOException {
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int equal = line.indexOf('=');
+            String field = line.substring(0, equal);
+            String value = line.substring(equal + 1);
+
+            if ("undo".equals(field)) {
+                project.history.replayUndo(project, Long.parseLong(value));
+                _entryCount++;
+            } else if ("apply".equals(field)) {
+                project.history.replayApply(project, HistoryEntry.load(project, value));
+                _entryCount++;
+            } else if ("futureEntryCount".equals(field)) {
+                int count = Integer.parseInt(value);
+                List<HistoryEntry> futureEntries = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    futureEntries.add(HistoryEntry.load(project, lines.get(++i)));
+                }
+                project.history.replayFutureEntries(futureEntries);
+            }
+        }
+    }
+
+    /**
+     * Records the changes made to the project since it was last persisted. The caller must hold the project lock.
+     * 
+     * @return false if the changes could not be recorded in the journal, in which case the project must be saved in
+     *         full and {@link #markSnapshot(ProjectSnapshot)} called.
+     */
+    public boolean append(Project project) throws IOException {
+        int maxEntries = getMaxEntries();
+        if (_persistedPast == null || _needsSnapshot || maxEntries <= 0) {
+            return false;
+        }
+
+        List<HistoryEntry> past = project.history.getLastPastEntries(0);
+        List<HistoryEntry> future = project.history.getFutureEntries();
+
+        int common = 0;
+        while (common < past.size() && common < _persistedPast.size() && past.get(common).id == _persistedPast.get(common)) {
+            common++;
+        }
+        int undoCount = _persistedPast.size() - common;
+        List<HistoryEntry> applied = past.subList(common, past.size());
+        if (undoCount == 0 && applied.isEmpty()
+                && future.stream().map(entry -> entry.id).collect(Collectors.toList()).equals(_persistedFuture)) {
+            // nothing to record, for instance if only the metadata of the project changed
+            return true;
+        }
+        if (_entryCount + undoCount + applied.size() > maxEntries) {
+            return false;
+        }
+
+        FileHistoryEntryManager manager = new FileHistoryEntryManager();
+        Properties options = new Properties();
+        options.setProperty("mode", "save");
+
+        StringWriter batch = new StringWriter();
+        for (int i = _persistedPast.size() - 1; i >= common; i--) {
+            // undoing an entry needs its change data, which is deleted once a new entry has discarded the undone
+            // ones and the project has been saved in full
+            HistoryEntry entry = findEntry(_persistedPast.get(i), future);
+            if (entry == null || !manager.getChangeFile(entry).exists()) {
+                return false;
+            }
+            batch.write("undo=");
+            batch.write(Long.toString(entry.id));
+            batch.write('\n');
+        }
+        for (HistoryEntry entry : applied) {
+            if (!manager.getChangeFile(entry).exists()) {
+                return false;
+            }
+            batch.write("apply=");
+            entry.save(batch, options);
+            batch.write('\n');
+        }
+        batch.write("futureEntryCount=");
+        batch.write(Integer.toString(future.size()));
+        batch.write('\n');
+        for (HistoryEntry entry : future) {
+            entry.save(batch, options);
+            batch.write('\n');
+        }
+        batch.write(END_OF_BATCH);
+        batch.write('\n');
+
+        boolean exists = _file.exists();
+        try (FileOutputStream stream = new FileOutputStream(_file, true)) {
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            if (!exists) {
+                writer.write("snapshot=" + describeSnapshot(_persistedPast));
+                writer.write('\n');
+            }
+            writer.write(batch.toString());
+            writer.flush();
+            stream.getFD().sync();
+        }
+
+        _entryCount += undoCount + applied.size();
+        markPersisted(project);
+        return true;
+    }
+
+    /**
+     * Marks the project as saved in full from the given snapshot, discarding the journal.
+     */
+    public void markSnapshot(ProjectSnapshot snapshot) {
+        if (_file.exists() && !_file.delete()) {
+            logger.warn("Failed to delete change journal {}", _file.getAbsolutePath());
+        }
+        _entryCount = 0;
+        _needsSnapshot = false;
+        _persistedPast = snapshot.pastEntryIds;
+        _persistedFuture = snapshot.futureEntryIds;
+    }
+
+    /**
+     * @return the number of undone or applied entries recorded since the last full save
+     */
+    public int getEntryCount() {
+        return _entryCount;
+    }
+
+    private void markPersisted(Project project) {
+        _persistedPast = project.history.getLastPastEntries(0).stream()
+                .map(entry -> entry.id)
+                .collect(Collectors.toList());
+        _persistedFuture = project.history.getFutureEntries().stream()
+                .map(entry -> entry.id)
+                .collect(Collectors.toList());
+    }
+
+    private HistoryEntry findEntry(long id, List<HistoryEntry> future) {
+        // entries undone since the last save are now at the front of the future entries
+        for (HistoryEntry entry : future) {
+            if (entry.id == id) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    static private String describeSnapshot(Project project) {
+        return describeSnapshot(project.history.getLastPastEntries(0).stream()
+                .map(entry -> entry.id)
+                .collect(Collectors.toList()));
+    }
+
+    static private String describeSnapshot(List<Long> past) {
+        return past.size() + "," + (past.isEmpty() ? 0 : past.get(past.size() - 1));
+    }
+
+    static private int getMaxEntries() {
+        Object v = ProjectManager.singleton.getPreferenceStore().get(MAX_ENTRIES_PREF);
+        if (v != null) {
+            if (v instanceof Number) {
+                return ((Number) v).intValue();
+            } else {
+                try {
+                    return Integer.parseInt(v.toString());
+                } catch (NumberFormatException e) {
+                    // ignore
+                }
+            }
+        }
+        return DEFAULT_MAX_ENTRIES;
+    }
+}
@@ -0,0 +1,434 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+
+/**
+ * Versioned binary serialization of the rows of a project, stored column by column.
+ * <p>
+ * The rows section starts with the flags and cell count of every row, followed by one block per cell index. Each column
+ * block holds a dictionary of the distinct strings of the column, then one tagged entry per row which has a cell at
+ * that index. Strings are stored as dictionary ids, numbers, booleans and dates in their binary form, and recons as
+ * references to their id in the {@link Pool} saved alongside the rows.
+ * <p>
+ * This is used by {@link ProjectUtilities} as an alternative to the JSON-lines format of
+ * {@link com.google.refine.model.Row#save}, which remains readable.
+ */
+public class ColumnarRowFormat {
+
+    static final int MAGIC = 0x4F52434C; // "ORCL"
+    static final int VERSION = 1;
+
+    static final byte NULL_CELL = 0;
+    static final byte NULL_VALUE = 1;
+    static final byte STRING = 2;
+    static final byte LONG = 3;
+    static final byte INTEGER = 4;
+    static final byte DOUBLE = 5;
+    static final byte FLOAT = 6;
+    static final byte TRUE = 7;
+    static final byte FALSE = 8;
+    static final byte OFFSET_DATE_TIME = 9;
+    static final byte LOCAL_DATE_TIME = 10;
+    static final byte ERROR = 11;
+    static final byte BIG_INTEGER = 12;
+    static final byte BIG_DECIMAL = 13;
+
+    // set on the tag when the cell has a recon, whose id follows the value
+    static final byte RECON_FLAG = (byte) 0x80;
+
+    static final byte ROW_FLAGGED = 1;
+    static final byte ROW_STARRED = 2;
+
+    private ColumnarRowFormat() {
+    }
+
+    /**
+     * Writes the given rows to the stream. The recons encountered are added to the pool, which must be saved with the
+     * rows for them to be read back.
+     */
+    static public void save(List<Row> rows, OutputStream os, Pool pool) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        int maxCellCount = 0;
+        writeVarInt(out, rows.size());
+        for (Row row : rows) {
+            int flags = (row.flagged ? ROW_FLAGGED : 0) | (row.starred ? ROW_STARRED : 0);
+            out.writeByte(flags);
+            writeVarInt(out, row.cells.size());
+            maxCellCount = Math.max(maxCellCount, row.cells.size());
+        }
+
+        writeVarInt(out, maxCellCount);
+        ColumnWriter writer = new ColumnWriter(pool);
+        for (int cellIndex = 0; cellIndex < maxCellCount; cellIndex++) {
+            writer.reset();
+            for (Row row : rows) {
+                if (cellIndex < row.cells.size()) {
+                    writer.write(row.cells.get(cellIndex));
+                }
+            }
+            writer.writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads rows written by {@link #save(List, OutputStream, Pool)}, resolving recons from the given pool.
+     */
+    static public List<Row> load(InputStream is, Pool pool) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is, 1 << 16));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a columnar row file");
+        }
+        int version = in.readInt();
+        if (version > VERSION) {
+            throw new IOException("Unsupported columnar row format version " + version);
+        }
+
+        int rowCount = readVarInt(in);
+        List<Row> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            byte flags = in.readByte();
+            int cellCount = readVarInt(in);
+            Row row = new Row(cellCount);
+            row.flagged = (flags & ROW_FLAGGED) != 0;
+            row.starred = (flags & ROW_STARRED) != 0;
+            row.cells.addAll(Collections.nCopies(cellCount, null));
+            rows.add(row);
+        }
+
+        // column blocks are read sequentially and decoded in parallel, each into its own cell index
+        Map<String, Recon> recons = new ConcurrentHashMap<>();
+        ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+        int maxPendingBlocks = 2 * forkJoinPool.getParallelism();
+        Deque<ForkJoinTask<?>> pendingBlocks = new ArrayDeque<>();
+        int maxCellCount = readVarInt(in);
+        for (int cellIndex = 0; cellIndex < maxCellCount; cellIndex++) {
+            byte[] block = new byte[readVarInt(in)];
+            in.readFully(block);
+            int blockCellIndex = cellIndex;
+            pendingBlocks.add(forkJoinPool.submit(() -> readColumn(block, blockCellIndex, rows, pool, recons)));
+            if (pendingBlocks.size() > maxPendingBlocks) {
+                joinBlock(pendingBlocks.poll());
+            }
+        }
+        while (!pendingBlocks.isEmpty()) {
+            joinBlock(pendingBlocks.poll());
+        }
+        return rows;
+    }
+
+    static private void readColumn(byte[] block, int cellIndex, List<Row> rows, Pool pool, Map<String, Recon> recons) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+            String[] dictionary = new String[readVarInt(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = pool.getStringDictionary().intern(readString(in));
+            }
+            for (Row row : rows) {
+                if (cellIndex < row.cells.size()) {
+                    row.cells.set(cellIndex, readCell(in, dictionary, pool, recons));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static private void joinBlock(ForkJoinTask<?> block) throws IOException {
+        try {
+            block.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    static private Cell readCell(DataInputStream in, String[] dictionary, Pool pool, Map<String, Recon> recons)
+            throws IOException {
+        byte tag = in.readByte();
+        boolean hasRecon = (tag & RECON_FLAG) != 0;
+        tag = (byte) (tag & ~RECON_FLAG);
+
+        Serializable value;
+        switch (tag) {
+            case NULL_CELL:
+                return null;
+            case NULL_VALUE:
+                value = null;
+                break;
+            case STRING:
+                value = dictionary[readVarInt(in)];
+                break;
+            case LONG:
+                value = readVarLong(in);
+                break;
+            case INTEGER:
+                value = (int) readVarLong(in);
+                break;
+            case DOUBLE:
+                value = in.readDouble();
+                break;
+            case FLOAT:
+                value = in.readFloat();
+                break;
+            case TRUE:
+                value = Boolean.TRUE;
+                break;
+            case FALSE:
+                value = Boolean.FALSE;
+                break;
+            case OFFSET_DATE_TIME: {
+                long seconds = readVarLong(in);
+                int nanos = readVarInt(in);
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) readVarLong(in));
+                value = OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset);
+                break;
+            }
+            case LOCAL_DATE_TIME: {
+                long seconds = readVarLong(in);
+                int nanos = readVarInt(in);
+                value = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+                break;
+            }
+            case ERROR:
+                value = new EvalError(dictionary[readVarInt(in)]);
+                break;
+            case BIG_INTEGER:
+                value = new BigInteger(dictionary[readVarInt(in)]);
+                break;
+            case BIG_DECIMAL:
+                value = new BigDecimal(dictionary[readVarInt(in)]);
+                break;
+            default:
+                throw new IOException("Invalid cell tag " + tag);
+        }
+
+        Recon recon = null;
+        if (hasRecon) {
+            String reconId = Long.toString(readVarLong(in));
+            recon = recons.computeIfAbsent(reconId, pool::getRecon);
+        }
+        return new Cell(value, recon);
+    }
+
+    /**
+     * Accumulates the entries of a single column block. The block is buffered so that the dictionary, which is only
+     * complete once all the rows have been visited, can be written first.
+     */
+    static private class ColumnWriter {
+
+        final Pool pool;
+        final Map<String, Integer> dictionaryIds = new HashMap<>();
+        final List<String> dictionary = new ArrayList<>();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+        final DataOutputStream values = new DataOutputStream(buffer);
+
+        ColumnWriter(Pool pool) {
+            this.pool = pool;
+        }
+
+        void reset() {
+            dictionaryIds.clear();
+            dictionary.clear();
+            buffer.reset();
+        }
+
+        void write(Cell cell) throws IOException {
+            if (cell == null) {
+                values.writeByte(NULL_CELL);
+                return;
+            }
+            byte reconFlag = cell.recon != null ? RECON_FLAG : 0;
+            Object value = cell.value;
+            if (value == null) {
+                values.writeByte(NULL_VALUE | reconFlag);
+            } else if (value instanceof String) {
+                values.writeByte(STRING | reconFlag);
+                writeVarInt(values, idOf((String) value));
+            } else if (value instanceof Long) {
+                values.writeByte(LONG | reconFlag);
+                writeVarLong(values, (Long) value);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                values.writeByte(INTEGER | reconFlag);
+                writeVarLong(values, ((Number) value).intValue());
+            } else if (value instanceof Double) {
+                values.writeByte(DOUBLE | reconFlag);
+                values.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                values.writeByte(FLOAT | reconFlag);
+                values.writeFloat((Float) value);
+            } else if (value instanceof Boolean) {
+                values.writeByte(((Boolean) value ? TRUE : FALSE) | reconFlag);
+            } else if (value instanceof OffsetDateTime) {
+                OffsetDateTime date = (OffsetDateTime) value;
+                values.writeByte(OFFSET_DATE_TIME | reconFlag);
+                writeVarLong(values, date.toEpochSecond());
+                writeVarInt(values, date.getNano());
+                writeVarLong(values, date.getOffset().getTotalSeconds());
+            } else if (value instanceof LocalDateTime) {
+                LocalDateTime date = (LocalDateTime) value;
+                values.writeByte(LOCAL_DATE_TIME | reconFlag);
+                writeVarLong(values, date.toEpochSecond(ZoneOffset.UTC));
+                writeVarInt(values, date.getNano());
+            } else if (value instanceof EvalError) {
+                values.writeByte(ERROR | reconFlag);
+                writeVarInt(values, idOf(((EvalError) value).message));
+            } else if (value instanceof BigInteger) {
+                values.writeByte(BIG_INTEGER | reconFlag);
+                writeVarInt(values, idOf(value.toString()));
+            } else if (value instanceof BigDecimal) {
+                values.writeByte(BIG_DECIMAL | reconFlag);
+                writeVarInt(values, idOf(value.toString()));
+            } else {
+                // same fallback as the JSON serialization in Cell.getValue()
+                values.writeByte(STRING | reconFlag);
+                writeVarInt(values, idOf(value.toString()));
+            }
+
+            if (cell.recon != null) {
+                pool.pool(cell.recon);
+                writeVarLong(values, cell.recon.id);
+            }
+        }
+
+        int idOf(String s) {
+            Integer id = dictionaryIds.get(s);
+            if (id == null) {
+                id = dictionary.size();
+                dictionaryIds.put(s, id);
+                dictionary.add(s);
+            }
+            return id;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream headerOut = new DataOutputStream(header);
+            writeVarInt(headerOut, dictionary.size());
+            for (String s : dictionary) {
+                writeString(headerOut, s);
+            }
+            writeVarInt(out, header.size() + buffer.size());
+            header.writeTo(out);
+            buffer.writeTo(out);
+        }
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Writes a signed long with zig-zag encoding, so that small negative numbers stay short.
+     */
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
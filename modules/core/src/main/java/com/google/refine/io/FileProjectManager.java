@@ -41,7 +41,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -76,6 +81,14 @@ public class FileProjectManager extends ProjectManager {
 
     protected static boolean projectRemoved = false;
 
+    /**
+     * Change journals of the projects which have been saved or loaded, by project id.
+     */
+    transient protected Map<Long, ChangeJournal> _journals = new HashMap<>();
+
+    // The change journal of a project is folded into a full save once the project has not been modified for this long
+    static protected final Duration JOURNAL_COMPACTION_DELAY = Duration.ofMinutes(10);
+
     final static Logger logger = LoggerFactory.getLogger("FileProjectManager");
 
     static public synchronized void initialize(File dir) {
@@ -256,14 +269,90 @@ public class FileProjectManager extends ProjectManager {
         ProjectMetadataUtilities.save(metadata, projectDir);
     }
 
+    /**
+     * Saves the project, by appending the history changes made since its last save to its change journal when possible,
+     * and by saving its data in full otherwise. The project lock is only held while recording the changes or taking a
+     * snapshot of the project, not while writing the snapshot.
+     */
     @Override
     protected void saveProject(Project project) throws IOException {
-        ProjectUtilities.save(project);
+        saveProject(project, false);
+    }
+
+    private void saveProject(Project project, boolean compact) throws IOException {
+        ChangeJournal journal;
+        synchronized (_journals) {
+            journal = _journals.computeIfAbsent(project.id, id -> new ChangeJournal(getProjectDir(id)));
+        }
+        // only one save of a given project at a time, so that the journal matches the last snapshot
+        synchronized (journal) {
+            ProjectSnapshot snapshot;
+            synchronized (project) {
+                if (!compact && journal.append(project)) {
+                    project.setLastSave();
+                    logger.info("Saved changes of project '{}' to its journal", project.id);
+                    return;
+                }
+                snapshot = ProjectSnapshot.take(project);
+            }
+
+            ProjectUtilities.save(snapshot);
+            journal.markSnapshot(snapshot);
+            // neither the new snapshot nor the journal refer to the data of the discarded entries anymore
+            project.history.deleteDiscardedEntries(snapshot.discardedEntries);
+        }
+    }
+
+    /**
+     * Saves in full the projects which have not been modified for {@link #JOURNAL_COMPACTION_DELAY} and whose change
+     * journal is not empty, or which keep the data of discarded history entries. This truncates their journal and
+     * deletes that data, including for projects loaded after a restart, whose discarded entries are recovered when
+     * their journal is replayed.
+     */
+    @Override
+    protected void compactProjects(Instant deadline) {
+        Instant idleSince = Instant.now().minus(JOURNAL_COMPACTION_DELAY);
+        List<Project> projects = new ArrayList<>();
+        synchronized (this) {
+            for (Project project : _projects.values()) {
+                ProjectMetadata metadata = getProjectMetadata(project.id);
+                ChangeJournal journal;
+                synchronized (_journals) {
+                    journal = _journals.get(project.id);
+                }
+                if (metadata != null && journal != null
+                        && (journal.getEntryCount() > 0 || !project.history.getDiscardedEntries().isEmpty())
+                        && metadata.getModified().isBefore(idleSince)
+                        && project.getLastSave().isAfter(metadata.getModified())) {
+                    projects.add(project);
+                }
+            }
+        }
+
+        for (Project project : projects) {
+            if (deadline != null && Instant.now().isAfter(deadline)) {
+                break;
+            }
+            try {
+                saveProject(project, true);
+                logger.info("Compacted change journal of project '{}'", project.id);
+            } catch (Exception e) {
+                logger.error("Error when compacting the change journal of project " + project.id, e);
+            }
+        }
     }
 
     @Override
     public Project loadProject(long id) {
-        return ProjectUtilities.load(getProjectDir(id), id);
+        File dir = getProjectDir(id);
+        Project project = ProjectUtilities.load(dir, id);
+        if (project != null) {
+            ChangeJournal journal = ChangeJournal.replay(dir, project);
+            synchronized (_journals) {
+                _journals.put(id, journal);
+            }
+        }
+        return project;
     }
 
     /**
@@ -364,6 +453,9 @@ public class FileProjectManager extends ProjectManager {
             }
 
             removeProject(projectID);
+            synchronized (_journals) {
+                _journals.remove(projectID);
+            }
 
             File dir = getProjectDir(projectID);
             if (dir.exists()) {
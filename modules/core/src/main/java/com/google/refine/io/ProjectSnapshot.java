@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+
+/**
+ * A copy of the state of a project taken while holding the project lock, which can then be written to disk without
+ * holding it.
+ * <p>
+ * The column model, history and overlay models are serialized when the snapshot is taken, as they are small. The rows
+ * are shared with the project until the snapshot is written: changes made meanwhile copy the rows they modify, see
+ * {@link Project#getRowForUpdate(int)}, and cells are immutable. A snapshot is written once.
+ */
+public class ProjectSnapshot {
+
+    final Project project;
+    final Instant time;
+    final List<Row> rows;
+    final List<Long> pastEntryIds;
+    final List<Long> futureEntryIds;
+    final List<HistoryEntry> discardedEntries;
+    final Pool pool = new Pool();
+    private final byte[] data;
+    private boolean released = false;
+
+    private ProjectSnapshot(Project project) throws IOException {
+        this.project = project;
+        this.time = Instant.now();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        project.saveToOutputStream(out, pool, false);
+        this.data = out.toByteArray();
+
+        this.rows = new ArrayList<>(project.rows);
+        project.shareRows();
+        this.pastEntryIds = project.history.getLastPastEntries(0).stream()
+                .map(entry -> entry.id)
+                .collect(Collectors.toList());
+        this.futureEntryIds = project.history.getFutureEntries().stream()
+                .map(entry -> entry.id)
+                .collect(Collectors.toList());
+        this.discardedEntries = project.history.getDiscardedEntries();
+    }
+
+    /**
+     * Takes a snapshot of the project, holding its lock only while copying its state. The snapshot shares the rows of
+     * the project until it is written.
+     */
+    static public ProjectSnapshot take(Project project) throws IOException {
+        synchronized (project) {
+            return new ProjectSnapshot(project);
+        }
+    }
+
+    /**
+     * Stops sharing the rows of the project, which is done once the snapshot is written.
+     */
+    synchronized void release() {
+        if (!released) {
+            released = true;
+            project.unshareRows();
+        }
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    /**
+     * @return the time at which the snapshot was taken
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * Writes the snapshot in the format of data.zip, and then releases the rows of the project. This does not require
+     * the project lock.
+     *
+     * @param file
+     *            the file to write to
+     * @param columnar
+     *            true to store the rows with {@link ColumnarRowFormat}, false to store them as JSON lines
+     */
+    public void writeTo(File file, boolean columnar) throws IOException {
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+                out.putNextEntry(new ZipEntry(ProjectUtilities.DATA_ENTRY));
+                try {
+                    out.write(data);
+                    Project.saveRows(rows, out, pool, columnar);
+                } finally {
+                    out.closeEntry();
+                }
+
+                if (columnar) {
+                    out.putNextEntry(new ZipEntry(ProjectUtilities.ROWS_ENTRY));
+                    try {
+                        ColumnarRowFormat.save(rows, out, pool);
+                    } finally {
+                        out.closeEntry();
+                    }
+                }
+
+                out.putNextEntry(new ZipEntry(ProjectUtilities.POOL_ENTRY));
+                try {
+                    pool.save(out);
+                } finally {
+                    out.closeEntry();
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+}
@@ -34,17 +34,17 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.io;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
 public class ProjectUtilities {
@@ -54,63 +54,81 @@ public class ProjectUtilities {
     public static final String DATA_TEMP_ZIP = "data.temp.zip";
     public static final String DATA_OLD_ZIP = "data.old.zip";
 
-    synchronized public static void save(Project project) throws IOException {
-        synchronized (project) {
-            long id = project.id;
-            File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(id);
+    /**
+     * Preference key for the format in which the rows of projects are saved: {@link #ROW_FORMAT_JSON} (the default) or
+     * {@link #ROW_FORMAT_COLUMNAR}. Both formats can always be read, but projects saved with columnar rows cannot be
+     * opened by versions of OpenRefine which predate it, so it has to be chosen explicitly.
+     */
+    public static final String ROW_FORMAT_PREF = "project.storage.rowFormat";
+    public static final String ROW_FORMAT_COLUMNAR = "columnar";
+    public static final String ROW_FORMAT_JSON = "json";
+
+    protected static final String DATA_ENTRY = "data.txt";
+    protected static final String POOL_ENTRY = "pool.txt";
+    protected static final String ROWS_ENTRY = "rows.bin";
+
+    /**
+     * Saves the project in full. The project lock is only held while taking a snapshot of the project, not while
+     * writing it.
+     */
+    public static void save(Project project) throws IOException {
+        save(ProjectSnapshot.take(project));
+    }
+
+    /**
+     * Writes a snapshot of a project as its data file, and marks the project as saved as of the time of the snapshot.
+     */
+    synchronized public static void save(ProjectSnapshot snapshot) throws IOException {
+        long id = snapshot.getProject().id;
+        long start = System.currentTimeMillis();
+        File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(id);
 
-            File tempFile = new File(dir, DATA_TEMP_ZIP);
+        File tempFile = new File(dir, DATA_TEMP_ZIP);
+        try {
+            snapshot.writeTo(tempFile, isColumnarRowFormat());
+        } catch (IOException e) {
+            logger.warn("Failed to save project {}", id, e);
             try {
-                saveToFile(project, tempFile);
-            } catch (IOException e) {
-                logger.warn("Failed to save project {}", id, e);
-                try {
-                    tempFile.delete();
-                } catch (Exception e2) {
-                    // just ignore - file probably was never created.
-                }
-                throw e;
+                tempFile.delete();
+            } catch (Exception e2) {
+                // just ignore - file probably was never created.
             }
+            throw e;
+        }
 
-            File file = new File(dir, DATA_ZIP);
-            File oldFile = new File(dir, DATA_OLD_ZIP);
+        File file = new File(dir, DATA_ZIP);
+        File oldFile = new File(dir, DATA_OLD_ZIP);
 
-            if (file.exists()) {
-                file.renameTo(oldFile);
-            }
+        if (file.exists()) {
+            file.renameTo(oldFile);
+        }
 
-            tempFile.renameTo(file);
-            if (oldFile.exists()) {
-                oldFile.delete();
-            }
+        tempFile.renameTo(file);
+        if (oldFile.exists()) {
+            oldFile.delete();
+        }
 
-            project.setLastSave();
+        snapshot.getProject().setLastSave(snapshot.getTime());
 
-            logger.info("Saved project '{}'", id);
-        }
+        logger.info("Saved project '{}' in {} ms", id, System.currentTimeMillis() - start);
     }
 
     protected static void saveToFile(Project project, File file) throws IOException {
-        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
-        try {
-            Pool pool = new Pool();
+        saveToFile(project, file, isColumnarRowFormat());
+    }
 
-            out.putNextEntry(new ZipEntry("data.txt"));
-            try {
-                project.saveToOutputStream(out, pool);
-            } finally {
-                out.closeEntry();
-            }
+    protected static void saveToFile(Project project, File file, boolean columnar) throws IOException {
+        ProjectSnapshot.take(project).writeTo(file, columnar);
+    }
 
-            out.putNextEntry(new ZipEntry("pool.txt"));
-            try {
-                pool.save(out);
-            } finally {
-                out.closeEntry();
-            }
-        } finally {
-            out.close();
-        }
+    static protected boolean isColumnarRowFormat() {
+        return ROW_FORMAT_COLUMNAR.equals(getRowFormat());
+    }
+
+    static protected String getRowFormat() {
+        Object format = ProjectManager.singleton == null ? null
+                : ProjectManager.singleton.getPreferenceStore().get(ROW_FORMAT_PREF);
+        return format == null ? ROW_FORMAT_JSON : format.toString();
     }
 
     static public Project load(File dir, long id) {
@@ -134,15 +152,24 @@ public class ProjectUtilities {
         ZipFile zipFile = new ZipFile(file);
         try {
             Pool pool = new Pool();
-            ZipEntry poolEntry = zipFile.getEntry("pool.txt");
+            ZipEntry poolEntry = zipFile.getEntry(POOL_ENTRY);
             if (poolEntry != null) {
                 pool.load(zipFile.getInputStream(poolEntry));
             } // else, it's a legacy project file
 
+            List<Row> rows = null;
+            ZipEntry rowsEntry = zipFile.getEntry(ROWS_ENTRY);
+            if (rowsEntry != null) {
+                long start = System.currentTimeMillis();
+                rows = ColumnarRowFormat.load(zipFile.getInputStream(rowsEntry), pool);
+                logger.info("Read {} rows of project {} in {} ms", rows.size(), id, System.currentTimeMillis() - start);
+            } // else, rows are stored as JSON lines in the data entry
+
             return Project.loadFromInputStream(
-                    zipFile.getInputStream(zipFile.getEntry("data.txt")),
+                    zipFile.getInputStream(zipFile.getEntry(DATA_ENTRY)),
                     id,
-                    pool);
+                    pool,
+                    rows);
         } finally {
             zipFile.close();
         }
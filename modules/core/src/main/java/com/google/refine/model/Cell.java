@@ -186,6 +186,8 @@ public class Cell implements HasFields, Serializable {
         }
         if ("date".equals(type)) {
             value = ParsingUtilities.stringToDate((String) value);
+        } else if (value instanceof String && pool != null && pool.getStringDictionary() != null) {
+            value = pool.getStringDictionary().intern((String) value);
         }
         if (error != null) {
             value = new EvalError(error);
@@ -125,26 +125,51 @@ public class Column {
      * {@link com.google.refine.LookupCacheManager#flushLookupsInvolvingProjectColumn(long, String)} e.g.
      * ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName())
      */
-    public void clearPrecomputes() {
+    public synchronized void clearPrecomputes() {
         if (_precomputes != null) {
             _precomputes.clear();
         }
     }
 
-    public Object getPrecompute(String key) {
+    public synchronized Object getPrecompute(String key) {
         if (_precomputes != null) {
             return _precomputes.get(key);
         }
         return null;
     }
 
-    public void setPrecompute(String key, Object value) {
+    public synchronized void setPrecompute(String key, Object value) {
         if (_precomputes == null) {
             _precomputes = new HashMap<String, Object>();
         }
         _precomputes.put(key, value);
     }
 
+    /**
+     * Discards the precomputed values derived from the rows of the project, which are out of date once its content has
+     * changed.
+     */
+    public synchronized void clearDerivedData() {
+        if (_precomputes != null) {
+            _precomputes.values().removeIf(value -> value instanceof DerivedData);
+        }
+    }
+
+    /**
+     * @return an estimate of the heap occupied by the precomputed values derived from the rows of the project, in bytes
+     */
+    public synchronized long estimateDerivedDataSize() {
+        long size = 0;
+        if (_precomputes != null) {
+            for (Object value : _precomputes.values()) {
+                if (value instanceof DerivedData) {
+                    size += ((DerivedData) value).estimateSize();
+                }
+            }
+        }
+        return size;
+    }
+
     public void save(Writer writer) {
         try {
             ParsingUtilities.defaultWriter.writeValue(writer, this);
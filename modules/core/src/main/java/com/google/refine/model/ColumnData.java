@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of the cells of a column, for scans which read a single column over many rows, such as facets
+ * and clustering.
+ * <p>
+ * Strings are dictionary-encoded, numbers and booleans are stored in a primitive array, and recons are stored sparsely.
+ * The rows of the project remain the primary storage: the column data is a read-only view of them, built on demand and
+ * cached as a precompute of the column, which is discarded as soon as the project content changes.
+ */
+public class ColumnData implements DerivedData {
+
+    // kinds of the values stored for each row
+    static public final byte NO_CELL = 0;
+    static public final byte NULL_VALUE = 1;
+    static public final byte STRING = 2;
+    static public final byte LONG = 3;
+    static public final byte INTEGER = 4;
+    static public final byte DOUBLE = 5;
+    static public final byte BOOLEAN = 6;
+    static public final byte OTHER = 7;
+
+    static final String PRECOMPUTE_KEY = "columnar-data";
+
+    final int _cellIndex;
+    final long _contentVersion;
+    final byte[] _kinds;
+    // dictionary id, number bits, boolean or index in _others, depending on the kind
+    final long[] _values;
+    final String[] _dictionary;
+    final Serializable[] _others;
+    // rows which have a recon, in increasing order, and their recons
+    final int[] _reconRows;
+    final Recon[] _recons;
+    final boolean _stringsOnly;
+
+    private ColumnData(int cellIndex, long contentVersion, List<Row> rows) {
+        int rowCount = rows.size();
+        _cellIndex = cellIndex;
+        _contentVersion = contentVersion;
+        _kinds = new byte[rowCount];
+        _values = new long[rowCount];
+
+        Map<String, Integer> dictionaryIds = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        List<Serializable> others = new ArrayList<>();
+        int[] reconRows = new int[16];
+        List<Recon> recons = new ArrayList<>();
+        boolean stringsOnly = true;
+
+        for (int i = 0; i < rowCount; i++) {
+            Cell cell = rows.get(i).getCell(cellIndex);
+            if (cell == null) {
+                _kinds[i] = NO_CELL;
+                continue;
+            }
+            if (cell.recon != null) {
+                if (recons.size() == reconRows.length) {
+                    reconRows = Arrays.copyOf(reconRows, reconRows.length * 2);
+                }
+                reconRows[recons.size()] = i;
+                recons.add(cell.recon);
+            }
+
+            Serializable value = cell.value;
+            if (value == null) {
+                _kinds[i] = NULL_VALUE;
+            } else if (value instanceof String) {
+                Integer id = dictionaryIds.get(value);
+                if (id == null) {
+                    id = dictionary.size();
+                    dictionaryIds.put((String) value, id);
+                    dictionary.add((String) value);
+                }
+                _kinds[i] = STRING;
+                _values[i] = id;
+            } else {
+                stringsOnly = false;
+                if (value instanceof Long) {
+                    _kinds[i] = LONG;
+                    _values[i] = (Long) value;
+                } else if (value instanceof Integer) {
+                    _kinds[i] = INTEGER;
+                    _values[i] = (Integer) value;
+                } else if (value instanceof Double) {
+                    _kinds[i] = DOUBLE;
+                    _values[i] = Double.doubleToRawLongBits((Double) value);
+                } else if (value instanceof Boolean) {
+                    _kinds[i] = BOOLEAN;
+                    _values[i] = ((Boolean) value) ? 1 : 0;
+                } else {
+                    _kinds[i] = OTHER;
+                    _values[i] = others.size();
+                    others.add(value);
+                }
+            }
+        }
+
+        _dictionary = dictionary.toArray(new String[0]);
+        _others = others.toArray(new Serializable[0]);
+        _reconRows = Arrays.copyOf(reconRows, recons.size());
+        _recons = recons.toArray(new Recon[0]);
+        _stringsOnly = stringsOnly;
+    }
+
+    /**
+     * Returns the column data of the given column, building it if it is not cached or out of date.
+     */
+    static public ColumnData get(Project project, Column column) {
+        long contentVersion = project.getContentVersion();
+        Object cached = column.getPrecompute(PRECOMPUTE_KEY);
+        if (cached instanceof ColumnData) {
+            ColumnData data = (ColumnData) cached;
+            if (data._contentVersion == contentVersion && data._cellIndex == column.getCellIndex()
+                    && data.size() == project.rows.size()) {
+                return data;
+            }
+        }
+        ColumnData data = new ColumnData(column.getCellIndex(), contentVersion, project.rows);
+        // not cached if the project changed while it was built, as it would not be discarded
+        if (project.getContentVersion() == contentVersion) {
+            column.setPrecompute(PRECOMPUTE_KEY, data);
+        }
+        return data;
+    }
+
+    @Override
+    public long estimateSize() {
+        // the strings of the dictionary and the other values are shared with the cells
+        return ProjectSizeEstimator.OBJECT_OVERHEAD + 6 * ProjectSizeEstimator.ARRAY_OVERHEAD
+                + _kinds.length + 8L * _values.length
+                + ProjectSizeEstimator.REFERENCE * (_dictionary.length + _others.length + _recons.length)
+                + 4L * _reconRows.length;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return _kinds.length;
+    }
+
+    public int getCellIndex() {
+        return _cellIndex;
+    }
+
+    /**
+     * @return the kind of the value at the given row, one of the constants of this class
+     */
+    public byte getKind(int rowIndex) {
+        return _kinds[rowIndex];
+    }
+
+    /**
+     * @return true if all the non-null values of the column are strings
+     */
+    public boolean isStringsOnly() {
+        return _stringsOnly;
+    }
+
+    /**
+     * @return the dictionary id of the string at the given row, or -1 if the value is not a string
+     */
+    public int getStringId(int rowIndex) {
+        return _kinds[rowIndex] == STRING ? (int) _values[rowIndex] : -1;
+    }
+
+    /**
+     * @return the number of distinct strings in the column, which bounds their dictionary ids
+     */
+    public int getDictionarySize() {
+        return _dictionary.length;
+    }
+
+    public String getString(int stringId) {
+        return _dictionary[stringId];
+    }
+
+    public long getLong(int rowIndex) {
+        return _values[rowIndex];
+    }
+
+    public double getDouble(int rowIndex) {
+        return Double.longBitsToDouble(_values[rowIndex]);
+    }
+
+    /**
+     * @return the value of the cell at the given row, or null if there is no cell
+     */
+    public Serializable getValue(int rowIndex) {
+        long v = _values[rowIndex];
+        switch (_kinds[rowIndex]) {
+            case STRING:
+                return _dictionary[(int) v];
+            case LONG:
+                return v;
+            case INTEGER:
+                return (int) v;
+            case DOUBLE:
+                return Double.longBitsToDouble(v);
+            case BOOLEAN:
+                return v != 0;
+            case OTHER:
+                return _others[(int) v];
+            default:
+                return null;
+        }
+    }
+
+    public Recon getRecon(int rowIndex) {
+        int i = Arrays.binarySearch(_reconRows, rowIndex);
+        return i >= 0 ? _recons[i] : null;
+    }
+
+    /**
+     * @return a cell equal to the cell at the given row, or null if there is no cell
+     */
+    public Cell getCell(int rowIndex) {
+        if (_kinds[rowIndex] == NO_CELL) {
+            return null;
+        }
+        return new Cell(getValue(rowIndex), getRecon(rowIndex));
+    }
+}
@@ -39,17 +39,26 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,9 +86,23 @@ public class Project {
 
     transient public ProcessManager processManager = new ProcessManager();
     transient private Instant _lastSave = Instant.now();
+    transient private StringDictionary _stringDictionary = new StringDictionary();
+    transient private volatile long _contentVersion = 0;
+    // number of snapshots sharing the rows of the project, and the rows copied since they were taken
+    transient private int _rowSharingCount = 0;
+    transient private Set<Row> _unsharedRows = Collections.newSetFromMap(new IdentityHashMap<>());
 
     final static Logger logger = LoggerFactory.getLogger(Project.class);
 
+    // number of rows parsed by each task when loading a project
+    static final int ROW_LOADING_CHUNK_SIZE = 4096;
+
+    /**
+     * Version of the project data format written along with rows stored outside of the project data. Project data with
+     * a later version is rejected on load rather than read partially.
+     */
+    static public final int EXTERNAL_ROWS_FORMAT_VERSION = 2;
+
     static public long generateID() {
         return System.currentTimeMillis() + Math.round(Math.random() * 1000000000000L);
     }
@@ -121,6 +144,60 @@ public class Project {
         // The rest of the project should get garbage collected when we return.
     }
 
+    /**
+     * @return the canonical instances of the string cell values of the project
+     */
+    public StringDictionary getStringDictionary() {
+        return _stringDictionary;
+    }
+
+    /**
+     * @return a number which changes whenever a change is applied to or reverted from the project, so that data derived
+     *         from its rows can be checked for staleness
+     */
+    public long getContentVersion() {
+        return _contentVersion;
+    }
+
+    /**
+     * Signals that the rows or columns of the project have changed, discarding the data derived from them which is
+     * cached along with the columns.
+     */
+    synchronized public void markContentChanged() {
+        _contentVersion++;
+        for (Column column : columnModel.columns) {
+            column.clearDerivedData();
+        }
+    }
+
+    /**
+     * Returns the row at the given index, for it to be modified in place. While a snapshot of the project shares its
+     * rows, the row is first replaced by a copy, so that the snapshot keeps the row as it was.
+     */
+    synchronized public Row getRowForUpdate(int rowIndex) {
+        Row row = rows.get(rowIndex);
+        if (_rowSharingCount > 0 && !_unsharedRows.contains(row)) {
+            row = row.dup();
+            rows.set(rowIndex, row);
+            _unsharedRows.add(row);
+        }
+        return row;
+    }
+
+    /**
+     * Signals that a snapshot shares the rows of the project, until {@link #unshareRows()} is called. Rows are then
+     * copied by {@link #getRowForUpdate(int)} before being modified.
+     */
+    synchronized public void shareRows() {
+        _rowSharingCount++;
+    }
+
+    synchronized public void unshareRows() {
+        if (--_rowSharingCount == 0) {
+            _unsharedRows.clear();
+        }
+    }
+
     public Instant getLastSave() {
         return this._lastSave;
     }
@@ -132,11 +209,38 @@ public class Project {
         this._lastSave = Instant.now();
     }
 
+    /**
+     * Sets the lastSave time to the time a snapshot of the project was taken, once that snapshot has been saved.
+     * Changes made to the project after the snapshot was taken are still considered unsaved.
+     */
+    public void setLastSave(Instant snapshotTime) {
+        synchronized (this) {
+            if (snapshotTime.isAfter(this._lastSave)) {
+                this._lastSave = snapshotTime;
+            }
+        }
+    }
+
     public ProjectMetadata getMetadata() {
         return ProjectManager.singleton.getProjectMetadata(id);
     }
 
     public void saveToOutputStream(OutputStream out, Pool pool) throws IOException {
+        saveToOutputStream(out, pool, true);
+    }
+
+    /**
+     * Saves the project to the stream.
+     *
+     * @param out
+     *            the stream to write to
+     * @param pool
+     *            the pool where the recons of the saved cells are collected
+     * @param includeRows
+     *            false if the rows are saved separately with {@link #saveRows(List, OutputStream, Pool, boolean)}, in
+     *            which case they are omitted from the stream.
+     */
+    public void saveToOutputStream(OutputStream out, Pool pool, boolean includeRows) throws IOException {
         for (OverlayModel overlayModel : overlayModels.values()) {
             try {
                 overlayModel.onBeforeSave(this);
@@ -150,6 +254,9 @@ public class Project {
             Properties options = new Properties();
             options.setProperty("mode", "save");
             options.put("pool", pool);
+            if (!includeRows) {
+                options.setProperty("omitRows", "true");
+            }
 
             saveToWriter(writer, options);
         } finally {
@@ -183,6 +290,51 @@ public class Project {
             writer.write('\n');
         }
 
+        if (!options.containsKey("omitRows")) {
+            saveRowsToWriter(rows, writer, options, false);
+        }
+    }
+
+    /**
+     * Appends the rows section to project data saved without its rows, for instance from a copy of the rows taken while
+     * holding the project lock.
+     *
+     * @param rows
+     *            the rows to save
+     * @param out
+     *            the stream the rest of the project data was saved to
+     * @param pool
+     *            the pool where the recons of the saved cells are collected
+     * @param external
+     *            true if the rows are stored outside of the project data (for instance with
+     *            {@link com.google.refine.io.ColumnarRowFormat}), in which case only their number is written and they
+     *            must be passed to {@link #loadFromInputStream(InputStream, long, Pool, List)} when reading it back.
+     */
+    static public void saveRows(List<Row> rows, OutputStream out, Pool pool, boolean external) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        try {
+            Properties options = new Properties();
+            options.setProperty("mode", "save");
+            options.put("pool", pool);
+
+            saveRowsToWriter(rows, writer, options, external);
+        } finally {
+            writer.flush();
+        }
+    }
+
+    static protected void saveRowsToWriter(List<Row> rows, Writer writer, Properties options, boolean external) throws IOException {
+        if (external) {
+            // versions which do not know about external rows would silently load an empty project
+            writer.write("formatVersion=");
+            writer.write(Integer.toString(EXTERNAL_ROWS_FORMAT_VERSION));
+            writer.write('\n');
+            writer.write("externalRowCount=");
+            writer.write(Integer.toString(rows.size()));
+            writer.write('\n');
+            return;
+        }
+
         writer.write("rowCount=");
         writer.write(Integer.toString(rows.size()));
         writer.write('\n');
@@ -193,19 +345,37 @@ public class Project {
     }
 
     static public Project loadFromInputStream(InputStream is, long id, Pool pool) throws IOException {
-        return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool);
+        return loadFromInputStream(is, id, pool, null);
+    }
+
+    /**
+     * Loads a project from the stream.
+     *
+     * @param rows
+     *            the rows of the project if they were saved separately from the stream, or null if they are read from
+     *            the stream itself
+     */
+    static public Project loadFromInputStream(InputStream is, long id, Pool pool, List<Row> rows) throws IOException {
+        return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool, rows);
     }
 
     static private Project loadFromReader(
             LineNumberReader reader,
             long id,
-            Pool pool) throws IOException {
+            Pool pool,
+            List<Row> externalRows) throws IOException {
         long start = System.currentTimeMillis();
+        long columnModelTime = 0;
+        long historyTime = 0;
+        long rowsTime = 0;
+        long overlayModelsTime = 0;
 
         // version of Refine which wrote the file
         /* String version = */ reader.readLine();
 
         Project project = new Project(id);
+        // the rows are read with the pool, which interns their string values
+        project._stringDictionary = pool.getStringDictionary();
         int maxCellCount = 0;
 
         ObjectMapper mapper = ParsingUtilities.mapper.copy();
@@ -214,6 +384,7 @@ public class Project {
 
         String line;
         while ((line = reader.readLine()) != null) {
+            long phaseStart = System.currentTimeMillis();
             int equal = line.indexOf('=');
             String field = line.substring(0, equal);
             String value = line.substring(equal + 1);
@@ -225,18 +396,28 @@ public class Project {
 
             if ("columnModel".equals(field)) {
                 project.columnModel.load(reader);
+                columnModelTime += System.currentTimeMillis() - phaseStart;
             } else if ("history".equals(field)) {
                 project.history.load(project, reader);
+                historyTime += System.currentTimeMillis() - phaseStart;
+            } else if ("formatVersion".equals(field)) {
+                int formatVersion = Integer.parseInt(value);
+                if (formatVersion > EXTERNAL_ROWS_FORMAT_VERSION) {
+                    throw new IOException("Project data was saved in format version " + formatVersion
+                            + ", which is not supported by this version of OpenRefine");
+                }
             } else if ("rowCount".equals(field)) {
                 int count = Integer.parseInt(value);
 
-                for (int i = 0; i < count; i++) {
-                    line = reader.readLine();
-                    if (line != null) {
-                        Row row = Row.load(line, pool);
-                        project.rows.add(row);
-                        maxCellCount = Math.max(maxCellCount, row.cells.size());
-                    }
+                for (Row row : loadRows(reader, count, pool)) {
+                    project.rows.add(row);
+                    maxCellCount = Math.max(maxCellCount, row.cells.size());
+                }
+                rowsTime += System.currentTimeMillis() - phaseStart;
+            } else if ("externalRowCount".equals(field)) {
+                int count = Integer.parseInt(value);
+                if (externalRows == null || externalRows.size() != count) {
+                    throw new IOException("Expected " + count + " rows stored outside of the project data");
                 }
             } else if (field.startsWith("overlayModel:")) {
                 String modelName = field.substring("overlayModel:".length());
@@ -251,20 +432,103 @@ public class Project {
                         logger.error("Failed to load overlay model " + modelName);
                     }
                 }
+                overlayModelsTime += System.currentTimeMillis() - phaseStart;
             }
         }
 
-        project.columnModel.setMaxCellIndex(maxCellCount - 1);
+        if (externalRows != null) {
+            project.rows.addAll(externalRows);
+            for (Row row : externalRows) {
+                maxCellCount = Math.max(maxCellCount, row.cells.size());
+            }
+        }
 
-        logger.info(
-                "Loaded project {} from disk in {} sec(s)", id, Long.toString((System.currentTimeMillis() - start) / 1000));
+        project.columnModel.setMaxCellIndex(maxCellCount - 1);
 
+        long updateStart = System.currentTimeMillis();
         project.update();
+        long updateTime = System.currentTimeMillis() - updateStart;
+
+        logger.info(
+                "Loaded project {} from disk in {} ms (column model: {} ms, history: {} ms, rows: {} ms, overlay models: {} ms, "
+                        + "record model: {} ms)",
+                id, System.currentTimeMillis() - start, columnModelTime, historyTime, rowsTime, overlayModelsTime, updateTime);
 
         return project;
     }
 
+    /**
+     * Reads the given number of serialized rows, one per line. The lines are read sequentially, but parsed in chunks on
+     * the common fork-join pool.
+     */
+    static private List<Row> loadRows(LineNumberReader reader, int count, Pool pool) throws IOException {
+        ObjectReader rowReader = Row.reader(pool);
+        Row[] rows = new Row[count];
+
+        if (count < 2 * ROW_LOADING_CHUNK_SIZE) {
+            String[] lines = readLines(reader, count);
+            parseRows(rowReader, lines, rows, 0);
+        } else {
+            ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+            // bound the number of chunks waiting to be parsed, so that we don't read the whole file in memory first
+            int maxPendingChunks = 2 * forkJoinPool.getParallelism();
+            Deque<ForkJoinTask<?>> pendingChunks = new ArrayDeque<>();
+            for (int offset = 0; offset < count; offset += ROW_LOADING_CHUNK_SIZE) {
+                String[] lines = readLines(reader, Math.min(ROW_LOADING_CHUNK_SIZE, count - offset));
+                int chunkOffset = offset;
+                pendingChunks.add(forkJoinPool.submit(() -> parseRows(rowReader, lines, rows, chunkOffset)));
+                if (pendingChunks.size() > maxPendingChunks) {
+                    joinChunk(pendingChunks.poll());
+                }
+            }
+            while (!pendingChunks.isEmpty()) {
+                joinChunk(pendingChunks.poll());
+            }
+        }
+
+        List<Row> result = new ArrayList<>(count);
+        for (Row row : rows) {
+            // rows are missing if the file is truncated
+            if (row != null) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    static private String[] readLines(LineNumberReader reader, int count) throws IOException {
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = reader.readLine();
+            if (lines[i] == null) {
+                break;
+            }
+        }
+        return lines;
+    }
+
+    static private void parseRows(ObjectReader rowReader, String[] lines, Row[] rows, int offset) {
+        try {
+            for (int i = 0; i < lines.length && lines[i] != null; i++) {
+                if (lines[i].length() > 0) {
+                    rows[offset + i] = rowReader.readValue(lines[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static private void joinChunk(ForkJoinTask<?> chunk) throws IOException {
+        try {
+            chunk.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     public void update() {
+        markContentChanged();
         columnModel.update();
         recordModel.update(this);
         // Old projects may have a row count of 0, but we don't want the act of filling this in to change modified time.
@@ -273,6 +537,15 @@ public class Project {
         }
     }
 
+    /**
+     * Updates the project after the cells of a single column have changed in the given rows. Unlike {@link #update()},
+     * this only rebuilds the record model if the column is a key column.
+     */
+    public void updateCells(int cellIndex, int[] rowIndices) {
+        markContentChanged();
+        recordModel.update(this, cellIndex, rowIndices);
+    }
+
     // wrapper of processManager variable to allow unit testing
     // TODO make the processManager variable private, and force all calls through this method
     public ProcessManager getProcessManager() {
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+/**
+ * Estimates the heap occupied by the rows of a project, so that the project manager can decide which projects to keep
+ * in memory. The estimate is computed on a sample of the rows and assumes a 64-bit JVM with compressed references.
+ */
+public class ProjectSizeEstimator {
+
+    // rows beyond this number are not inspected: the size of the others is extrapolated
+    static public final int SAMPLE_SIZE = 1000;
+
+    static final long PROJECT_OVERHEAD = 64 * 1024;
+    static final long ROW_OVERHEAD = 32 + 24 + 16;
+    static public final long OBJECT_OVERHEAD = 16;
+    static public final long ARRAY_OVERHEAD = 16;
+    static public final long REFERENCE = 4;
+    static public final long MAP_ENTRY = 48;
+    static final long CELL = 24;
+    static public final long STRING_OVERHEAD = 40;
+    static final long BOXED_VALUE = 24;
+    static final long OTHER_VALUE = 80;
+    static final long RECON = 160;
+    static final long RECON_CANDIDATE = 120;
+
+    private ProjectSizeEstimator() {
+    }
+
+    /**
+     * @return an estimate of the size of the project in memory, in bytes, including the data derived from its rows
+     *         which is cached along with its columns
+     */
+    static public long estimate(Project project) {
+        long size = estimateRows(project);
+        try {
+            for (Column column : project.columnModel.columns) {
+                size += column.estimateDerivedDataSize();
+            }
+        } catch (ConcurrentModificationException e) {
+            // columns changed concurrently: their derived data is discarded anyway
+        }
+        return size;
+    }
+
+    static long estimateRows(Project project) {
+        List<Row> rows = project.rows;
+        int rowCount = rows.size();
+        if (rowCount == 0) {
+            return PROJECT_OVERHEAD;
+        }
+
+        int step = Math.max(1, rowCount / SAMPLE_SIZE);
+        long sampledSize = 0;
+        int sampledRows = 0;
+        for (int i = 0; i < rowCount; i += step) {
+            Row row;
+            try {
+                row = rows.get(i);
+            } catch (IndexOutOfBoundsException e) {
+                // rows removed concurrently
+                break;
+            }
+            sampledSize += estimate(row);
+            sampledRows++;
+        }
+        if (sampledRows == 0) {
+            return PROJECT_OVERHEAD;
+        }
+        return PROJECT_OVERHEAD + sampledSize * rowCount / sampledRows;
+    }
+
+    static long estimate(Row row) {
+        long size = ROW_OVERHEAD;
+        List<Cell> cells = row.cells;
+        size += REFERENCE * cells.size();
+        for (Cell cell : cells) {
+            if (cell != null) {
+                size += estimate(cell);
+            }
+        }
+        return size;
+    }
+
+    static long estimate(Cell cell) {
+        long size = CELL;
+        Object value = cell.value;
+        if (value instanceof String) {
+            size += STRING_OVERHEAD + ((String) value).length();
+        } else if (value instanceof Number) {
+            size += BOXED_VALUE;
+        } else if (value != null && !(value instanceof Boolean)) {
+            size += OTHER_VALUE;
+        }
+        Recon recon = cell.recon;
+        if (recon != null) {
+            size += RECON;
+            if (recon.candidates != null) {
+                size += RECON_CANDIDATE * recon.candidates.size();
+            }
+        }
+        return size;
+    }
+}
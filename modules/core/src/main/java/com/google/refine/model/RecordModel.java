@@ -35,6 +35,7 @@ package com.google.refine.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -78,37 +79,56 @@ public class RecordModel {
         }
     }
 
+    // row index of the first row of each record, in increasing order
+    protected int[] _recordStarts;
+    protected int _rowCount;
+    // state kept to patch the record starts when cells change
+    protected List<KeyedGroup> _keyedGroups;
+    protected int[] _firstNonBlankRowsByGroup;
+    protected Project _project;
+
+    // computed on demand, as only few callers need them
     protected List<RowDependency> _rowDependencies;
-    protected List<Record> _records;
 
-    public RowDependency getRowDependency(int rowIndex) {
+    synchronized public RowDependency getRowDependency(int rowIndex) {
+        if (_rowDependencies == null && _project != null) {
+            _rowDependencies = computeRowDependencies(_project);
+        }
         return _rowDependencies != null && rowIndex >= 0 && rowIndex < _rowDependencies.size() ? _rowDependencies.get(rowIndex) : null;
     }
 
     @JsonIgnore
     public int getRecordCount() {
-        return _records.size();
+        return _recordStarts == null ? 0 : _recordStarts.length;
     }
 
     public Record getRecord(int recordIndex) {
-        return _records != null && recordIndex >= 0 && recordIndex < _records.size() ? _records.get(recordIndex) : null;
+        int[] recordStarts = _recordStarts;
+        if (recordStarts == null || recordIndex < 0 || recordIndex >= recordStarts.length) {
+            return null;
+        }
+        int toRowIndex = recordIndex + 1 < recordStarts.length ? recordStarts[recordIndex + 1] : _rowCount;
+        return new Record(recordStarts[recordIndex], toRowIndex, recordIndex);
     }
 
+    /**
+     * @return the record which contains the given row, or null if there is no such row
+     */
     public Record getRecordOfRow(int rowIndex) {
-        RowDependency rd = getRowDependency(rowIndex);
-        if (rd != null) {
-            if (rd.recordIndex < 0) {
-                rd = getRowDependency(rd.contextRows.get(0));
-            }
-            return getRecord(rd.recordIndex);
+        int[] recordStarts = _recordStarts;
+        if (recordStarts == null || rowIndex < 0 || rowIndex >= _rowCount) {
+            return null;
         }
-        return null;
+        int recordIndex = Arrays.binarySearch(recordStarts, rowIndex);
+        if (recordIndex < 0) {
+            recordIndex = -recordIndex - 2;
+        }
+        return getRecord(recordIndex);
     }
 
     @JsonProperty("hasRecords")
     public boolean hasRecords() {
-        return _records != null && _rowDependencies != null &&
-                _records.size() < _rowDependencies.size();
+        return _recordStarts != null && _recordStarts.length < _rowCount;
     }
 
     static protected class KeyedGroup {
@@ -131,79 +151,184 @@ public class RecordModel {
             List<Row> rows = project.rows;
             int rowCount = rows.size();
 
-            ColumnModel columnModel = project.columnModel;
-            List<KeyedGroup> keyedGroups = computeKeyedGroups(columnModel);
-            int groupCount = keyedGroups.size();
-
-            int[] lastNonBlankRowsByGroup = new int[keyedGroups.size()];
-            for (int i = 0; i < lastNonBlankRowsByGroup.length; i++) {
-                lastNonBlankRowsByGroup[i] = -1;
-            }
-
-            _rowDependencies = new ArrayList<RowDependency>(rowCount);
+            List<KeyedGroup> keyedGroups = computeKeyedGroups(project.columnModel);
+            int[] firstNonBlankRowsByGroup = new int[keyedGroups.size()];
+            Arrays.fill(firstNonBlankRowsByGroup, -1);
 
-            int recordIndex = 0;
+            int[] recordStarts = new int[Math.max(16, rowCount / 8)];
+            int recordCount = 0;
             for (int r = 0; r < rowCount; r++) {
                 Row row = rows.get(r);
-                RowDependency rowDependency = new RowDependency();
-
-                for (int g = 0; g < groupCount; g++) {
+                boolean dependent = false;
+                for (int g = 0; g < keyedGroups.size(); g++) {
                     KeyedGroup group = keyedGroups.get(g);
-
-                    if (!ExpressionUtils.isNonBlankData(row.getCellValue(keyedGroups.get(0).keyCellIndex)) &&
-                            !ExpressionUtils.isNonBlankData(row.getCellValue(group.keyCellIndex))) {
-                        int contextRowIndex = lastNonBlankRowsByGroup[g];
-                        if (contextRowIndex >= 0) {
-                            for (int dependentCellIndex : group.cellIndices) {
-                                if (ExpressionUtils.isNonBlankData(row.getCellValue(dependentCellIndex))) {
-                                    setRowDependency(
-                                            project,
-                                            rowDependency,
-                                            dependentCellIndex,
-                                            contextRowIndex,
-                                            group.keyCellIndex);
-                                }
-                            }
-                        }
-                    } else {
-                        lastNonBlankRowsByGroup[g] = r;
+                    if (hasBlankKeys(row, keyedGroups, group)) {
+                        dependent = dependent
+                                || (firstNonBlankRowsByGroup[g] >= 0 && hasNonBlankDependentCell(row, group));
+                    } else if (firstNonBlankRowsByGroup[g] < 0) {
+                        firstNonBlankRowsByGroup[g] = r;
+                    }
+                }
+                if (!dependent) {
+                    if (recordCount == recordStarts.length) {
+                        recordStarts = Arrays.copyOf(recordStarts, recordCount * 2);
                     }
+                    recordStarts[recordCount++] = r;
                 }
+            }
 
-                if (rowDependency.cellDependencies != null && rowDependency.cellDependencies.length > 0) {
-                    rowDependency.recordIndex = -1;
-                    rowDependency.contextRows = new ArrayList<Integer>();
-                    for (CellDependency cd : rowDependency.cellDependencies) {
-                        if (cd != null) {
-                            rowDependency.contextRows.add(cd.rowIndex);
-                        }
+            _recordStarts = Arrays.copyOf(recordStarts, recordCount);
+            _rowCount = rowCount;
+            _keyedGroups = keyedGroups;
+            _firstNonBlankRowsByGroup = firstNonBlankRowsByGroup;
+            _project = project;
+            _rowDependencies = null;
+        }
+    }
+
+    /**
+     * Updates the records after cells of a column have changed in the given rows. Unless the column is the key column
+     * of the project or of a column group, the cells of a row only determine whether that row starts a record, so only
+     * those rows are examined. Otherwise, the records are rebuilt.
+     *
+     * @param cellIndex
+     *            the cell index of the column whose cells changed
+     * @param rowIndices
+     *            the indices of the rows whose cells changed
+     */
+    synchronized public void update(Project project, int cellIndex, int[] rowIndices) {
+        synchronized (project) {
+            if (_recordStarts == null || _project != project || _rowCount != project.rows.size()
+                    || !describeKeyedGroups(_keyedGroups).equals(describeKeyedGroups(computeKeyedGroups(project.columnModel)))
+                    || isKeyCellIndex(cellIndex)) {
+                update(project);
+                return;
+            }
+            _rowDependencies = null;
+
+            BitSet toggled = null;
+            for (int r : rowIndices) {
+                if (r < 0 || r >= _rowCount) {
+                    continue;
+                }
+                boolean start = !isDependent(project.rows.get(r), r);
+                boolean wasStart = Arrays.binarySearch(_recordStarts, r) >= 0;
+                if (start != wasStart) {
+                    if (toggled == null) {
+                        toggled = new BitSet(_rowCount);
                     }
-                    Collections.sort(rowDependency.contextRows);
-                } else {
-                    rowDependency.recordIndex = recordIndex++;
+                    toggled.set(r);
                 }
+            }
 
-                _rowDependencies.add(rowDependency);
+            if (toggled != null) {
+                BitSet starts = new BitSet(_rowCount);
+                for (int r : _recordStarts) {
+                    starts.set(r);
+                }
+                starts.xor(toggled);
+                _recordStarts = starts.stream().toArray();
             }
+        }
+    }
+
+    private boolean isKeyCellIndex(int cellIndex) {
+        for (KeyedGroup group : _keyedGroups) {
+            if (group.keyCellIndex == cellIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isDependent(Row row, int rowIndex) {
+        for (int g = 0; g < _keyedGroups.size(); g++) {
+            KeyedGroup group = _keyedGroups.get(g);
+            int firstNonBlankRow = _firstNonBlankRowsByGroup[g];
+            if (firstNonBlankRow >= 0 && firstNonBlankRow < rowIndex && hasBlankKeys(row, _keyedGroups, group)
+                    && hasNonBlankDependentCell(row, group)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static private boolean hasBlankKeys(Row row, List<KeyedGroup> keyedGroups, KeyedGroup group) {
+        return !ExpressionUtils.isNonBlankData(row.getCellValue(keyedGroups.get(0).keyCellIndex)) &&
+                !ExpressionUtils.isNonBlankData(row.getCellValue(group.keyCellIndex));
+    }
+
+    static private boolean hasNonBlankDependentCell(Row row, KeyedGroup group) {
+        for (int dependentCellIndex : group.cellIndices) {
+            if (ExpressionUtils.isNonBlankData(row.getCellValue(dependentCellIndex))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static private String describeKeyedGroups(List<KeyedGroup> keyedGroups) {
+        return keyedGroups.toString();
+    }
 
-            _records = new ArrayList<Record>(recordIndex);
-            if (recordIndex > 0) {
-                recordIndex = 0;
+    // the caller must hold the lock of the record model
+    protected List<RowDependency> computeRowDependencies(Project project) {
+        List<Row> rows = project.rows;
+        int rowCount = rows.size();
 
-                int recordRowIndex = 0;
-                for (int r = 1; r < rowCount; r++) {
-                    RowDependency rd = _rowDependencies.get(r);
-                    if (rd.recordIndex >= 0) {
-                        _records.add(new Record(recordRowIndex, r, recordIndex++));
+        List<KeyedGroup> keyedGroups = _keyedGroups;
+        int groupCount = keyedGroups.size();
 
-                        recordIndex = rd.recordIndex;
-                        recordRowIndex = r;
+        int[] lastNonBlankRowsByGroup = new int[keyedGroups.size()];
+        for (int i = 0; i < lastNonBlankRowsByGroup.length; i++) {
+            lastNonBlankRowsByGroup[i] = -1;
+        }
+
+        List<RowDependency> rowDependencies = new ArrayList<RowDependency>(rowCount);
+
+        int recordIndex = 0;
+        for (int r = 0; r < rowCount; r++) {
+            Row row = rows.get(r);
+            RowDependency rowDependency = new RowDependency();
+
+            for (int g = 0; g < groupCount; g++) {
+                KeyedGroup group = keyedGroups.get(g);
+
+                if (hasBlankKeys(row, keyedGroups, group)) {
+                    int contextRowIndex = lastNonBlankRowsByGroup[g];
+                    if (contextRowIndex >= 0) {
+                        for (int dependentCellIndex : group.cellIndices) {
+                            if (ExpressionUtils.isNonBlankData(row.getCellValue(dependentCellIndex))) {
+                                setRowDependency(
+                                        project,
+                                        rowDependency,
+                                        dependentCellIndex,
+                                        contextRowIndex,
+                                        group.keyCellIndex);
+                            }
+                        }
                     }
+                } else {
+                    lastNonBlankRowsByGroup[g] = r;
                 }
+            }
 
-                _records.add(new Record(recordRowIndex, rowCount, recordIndex++));
+            if (rowDependency.cellDependencies != null && rowDependency.cellDependencies.length > 0) {
+                rowDependency.recordIndex = -1;
+                rowDependency.contextRows = new ArrayList<Integer>();
+                for (CellDependency cd : rowDependency.cellDependencies) {
+                    if (cd != null) {
+                        rowDependency.contextRows.add(cd.rowIndex);
+                    }
+                }
+                Collections.sort(rowDependency.contextRows);
+            } else {
+                rowDependency.recordIndex = recordIndex++;
             }
+
+            rowDependencies.add(rowDependency);
         }
+        return rowDependencies;
     }
 
     protected List<KeyedGroup> computeKeyedGroups(ColumnModel columnModel) {
@@ -44,6 +44,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.base.CharMatcher;
 
 import com.google.refine.expr.CellTuple;
@@ -233,10 +234,17 @@ public class Row implements HasFields {
     }
 
     static public Row loadStreaming(String s, Pool pool) throws IOException {
+        return reader(pool).readValue(s);
+    }
+
+    /**
+     * Returns a reader of serialized rows resolving their recons from the given pool. Readers are immutable, so it can
+     * be reused across rows and threads.
+     */
+    static public ObjectReader reader(Pool pool) {
         InjectableValues injectableValues = new InjectableValues.Std()
                 .addValue("pool", pool);
-        return ParsingUtilities.mapper.setInjectableValues(injectableValues)
-                .readValue(s, Row.class);
+        return ParsingUtilities.mapper.readerFor(Row.class).with(injectableValues);
     }
 
     @Override
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.refine.ProjectManager;
+
+/**
+ * Canonical instances of the string cell values of a project, so that a value repeated across many cells, as is common
+ * in categorical columns, is stored once in memory. Interned values can be compared by reference.
+ * <p>
+ * The dictionary is filled as rows are loaded, imported or changed. It is rebuilt from the rows each time the project
+ * is loaded, which drops the values no longer used by the project.
+ */
+public class StringDictionary {
+
+    /**
+     * Preference to disable the interning of cell values, which is enabled by default.
+     */
+    static public final String ENABLED_PREF = "project.internCellStrings";
+
+    // longer strings are unlikely to be repeated, and are not worth a lookup
+    static final int MAX_LENGTH = 256;
+
+    private final boolean _enabled;
+    private volatile Map<String, String> _strings = new ConcurrentHashMap<>();
+
+    public StringDictionary() {
+        this(isEnabledByPreference());
+    }
+
+    public StringDictionary(boolean enabled) {
+        _enabled = enabled;
+    }
+
+    /**
+     * @return the canonical instance equal to the given string, or the string itself if it is not interned
+     */
+    public String intern(String s) {
+        if (!_enabled || s == null || s.length() > MAX_LENGTH) {
+            return s;
+        }
+        String existing = _strings.putIfAbsent(s, s);
+        return existing == null ? s : existing;
+    }
+
+    /**
+     * Interns the value if it is a string, and returns it as is otherwise.
+     */
+    public Serializable intern(Serializable value) {
+        return value instanceof String ? intern((String) value) : value;
+    }
+
+    /**
+     * Interns the value of a cell.
+     *
+     * @return a cell holding the canonical instance of its value, which is the given cell if its value is already
+     *         interned or not a string
+     */
+    public Cell intern(Cell cell) {
+        if (cell == null || !(cell.value instanceof String)) {
+            return cell;
+        }
+        String value = intern((String) cell.value);
+        return value == cell.value ? cell : new Cell(value, cell.recon);
+    }
+
+    /**
+     * @return the number of distinct values in the dictionary
+     */
+    public int size() {
+        return _strings.size();
+    }
+
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    static private boolean isEnabledByPreference() {
+        if (ProjectManager.singleton == null || ProjectManager.singleton.getPreferenceStore() == null) {
+            return true;
+        }
+        Object v = ProjectManager.singleton.getPreferenceStore().get(ENABLED_PREF);
+        if (v != null) {
+            if (v instanceof Boolean) {
+                return (Boolean) v;
+            } else {
+                return !"false".equalsIgnoreCase(v.toString());
+            }
+        }
+        return true;
+    }
+}
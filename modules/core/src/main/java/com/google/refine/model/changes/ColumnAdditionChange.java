@@ -98,7 +98,7 @@ public class ColumnAdditionChange extends ColumnChange {
             project.columnModel.columns.add(_columnIndex, column);
             try {
                 for (CellAtRow cell : _newCells) {
-                    project.rows.get(cell.row).setCell(_newCellIndex, cell.cell);
+                    project.getRowForUpdate(cell.row).setCell(_newCellIndex, cell.cell);
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -112,7 +112,7 @@ public class ColumnAdditionChange extends ColumnChange {
     public void revert(Project project) {
         synchronized (project) {
             for (CellAtRow cell : _newCells) {
-                Row row = project.rows.get(cell.row);
+                Row row = project.getRowForUpdate(cell.row);
                 row.setCell(_newCellIndex, null);
             }
 
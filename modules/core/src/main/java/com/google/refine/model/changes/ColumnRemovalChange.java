@@ -97,10 +97,12 @@ public class ColumnRemovalChange extends ColumnChange {
             }
 
             _oldColumn = project.columnModel.columns.remove(_oldColumnIndex);
+            // the removed column is kept by this change, but not the data derived from its cells
+            _oldColumn.clearDerivedData();
             _oldCells = new CellAtRow[project.rows.size()];
             int cellIndex = _oldColumn.getCellIndex();
             for (int i = 0; i < _oldCells.length; i++) {
-                Row row = project.rows.get(i);
+                Row row = project.getRowForUpdate(i);
 
                 Cell oldCell = null;
                 if (cellIndex < row.cells.size()) {
@@ -122,7 +124,7 @@ public class ColumnRemovalChange extends ColumnChange {
 
             int cellIndex = _oldColumn.getCellIndex();
             for (CellAtRow cell : _oldCells) {
-                project.rows.get(cell.row).cells.set(cellIndex, cell.cell);
+                project.getRowForUpdate(cell.row).cells.set(cellIndex, cell.cell);
             }
 
             project.columnModel.columnGroups.clear();
@@ -41,9 +41,10 @@ import java.util.Properties;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.history.Change;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
-import com.google.refine.model.Row;
+import com.google.refine.model.StringDictionary;
 import com.google.refine.util.Pool;
 
 public class MassCellChange implements Change {
@@ -86,10 +87,17 @@ public class MassCellChange implements Change {
     @Override
     public void apply(Project project) {
         synchronized (project) {
-            List<Row> rows = project.rows;
-
-            for (CellChange cellChange : _cellChanges) {
-                rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.newCell);
+            StringDictionary strings = project.getStringDictionary();
+
+            for (int i = 0; i < _cellChanges.length; i++) {
+                CellChange cellChange = _cellChanges[i];
+                Cell newCell = strings.intern(cellChange.newCell);
+                if (newCell != cellChange.newCell) {
+                    // keep the interned cell in the change, so that the original value can be garbage collected
+                    cellChange = new CellChange(cellChange.row, cellChange.cellIndex, cellChange.oldCell, newCell);
+                    _cellChanges[i] = cellChange;
+                }
+                project.getRowForUpdate(cellChange.row).setCell(cellChange.cellIndex, newCell);
             }
 
             if (_commonColumnName != null) {
@@ -99,7 +107,7 @@ public class MassCellChange implements Change {
             }
 
             if (_updateRowContextDependencies) {
-                project.update();
+                updateRecords(project);
             }
         }
     }
@@ -107,10 +115,8 @@ public class MassCellChange implements Change {
     @Override
     public void revert(Project project) {
         synchronized (project) {
-            List<Row> rows = project.rows;
-
             for (CellChange cellChange : _cellChanges) {
-                rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.oldCell);
+                project.getRowForUpdate(cellChange.row).setCell(cellChange.cellIndex, cellChange.oldCell);
             }
 
             if (_commonColumnName != null) {
@@ -120,9 +126,25 @@ public class MassCellChange implements Change {
             }
 
             if (_updateRowContextDependencies) {
+                updateRecords(project);
+            }
+        }
+    }
+
+    protected void updateRecords(Project project) {
+        if (_cellChanges.length == 0) {
+            return;
+        }
+        int cellIndex = _cellChanges[0].cellIndex;
+        int[] rowIndices = new int[_cellChanges.length];
+        for (int i = 0; i < _cellChanges.length; i++) {
+            if (_cellChanges[i].cellIndex != cellIndex) {
                 project.update();
+                return;
             }
+            rowIndices[i] = _cellChanges[i].row;
         }
+        project.updateCells(cellIndex, rowIndices);
     }
 
     @Override
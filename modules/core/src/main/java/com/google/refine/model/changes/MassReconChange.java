@@ -73,7 +73,8 @@ public class MassReconChange implements Change {
     protected void switchRecons(Project project, Map<Long, Recon> reconMap) {
         synchronized (project) {
             HashSet<String> flushedColumn = new HashSet<String>();
-            for (Row row : project.rows) {
+            for (int r = 0; r < project.rows.size(); r++) {
+                Row row = project.rows.get(r);
                 for (int c = 0; c < row.cells.size(); c++) {
                     Cell cell = row.cells.get(c);
                     if (cell != null && cell.recon != null) {
@@ -88,6 +89,7 @@ public class MassReconChange implements Change {
                                 flushedColumn.add(columnName);
                             }
 
+                            row = project.getRowForUpdate(r);
                             row.setCell(c, new Cell(cell.value, reconMap.get(recon.id)));
                         }
                     }
@@ -44,6 +44,7 @@ import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.expr.EvaluationMemo;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Column;
@@ -83,13 +84,14 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
         List<CellChange> cellChanges = new ArrayList<CellChange>(project.rows.size());
 
         FilteredRows filteredRows = engine.getAllFilteredRows();
+        RowVisitor visitor = createRowVisitor(project, cellChanges, historyEntryID);
         try {
-            filteredRows.accept(project, createRowVisitor(project, cellChanges, historyEntryID));
+            filteredRows.accept(project, visitor);
         } catch (Exception e) {
             e.printStackTrace();
         }
 
-        String description = createDescription(column, cellChanges);
+        String description = EvaluationMemo.describe(createDescription(column, cellChanges), visitor);
 
         return new HistoryEntry(
                 historyEntryID, project, description, this, createChange(project, column, cellChanges));
@@ -105,6 +107,11 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
         return _columnName;
     }
 
+    /**
+     * Creates the visitor computing the cell changes. Visitors evaluating an expression on each cell can opt in to
+     * memoizing its results by cell value by implementing {@link EvaluationMemo.MemoizingRowVisitor}: the hit rate of
+     * their memo is then reported in the description of the history entry.
+     */
     abstract protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception;
 
     abstract protected String createDescription(Column column, List<CellChange> cellChanges);
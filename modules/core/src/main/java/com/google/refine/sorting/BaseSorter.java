@@ -33,8 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.sorting;
 
-import java.util.List;
-
 import com.google.refine.expr.EvalError;
 import com.google.refine.model.Project;
 import com.google.refine.sorting.Criterion.KeyMaker;
@@ -44,7 +42,8 @@ abstract public class BaseSorter {
     protected Criterion[] _criteria;
     protected KeyMaker[] _keyMakers;
     protected ComparatorWrapper[] _comparatorWrappers;
-    protected List<Object[]> _keys;
+    // the keys of the objects to sort, by criterion and then by position of the object
+    protected Object[][] _keys;
 
     public class ComparatorWrapper {
 
@@ -56,23 +55,14 @@ abstract public class BaseSorter {
             this.multiplier = _criteria[criterionIndex].reverse ? -1 : 1;
         }
 
-        public Object getKey(Project project, Object o, int index) {
-            while (index >= _keys.size()) {
-                _keys.add(null);
-            }
-
-            Object[] keys = _keys.get(index);
-            if (keys == null) {
-                keys = makeKeys(project, o, index);
-                _keys.set(index, keys);
-            }
-            return keys[criterionIndex];
+        public Object getKey(int position) {
+            return _keys[criterionIndex][position];
         }
 
-        public int compare(Project project, Object o1, int i1, Object o2, int i2) {
+        public int compare(int position1, int position2) {
             Criterion c = _criteria[criterionIndex];
-            Object key1 = getKey(project, o1, i1);
-            Object key2 = getKey(project, o2, i2);
+            Object key1 = getKey(position1);
+            Object key2 = getKey(position2);
 
             if (key1 == null) {
                 if (key2 == null) {
@@ -121,19 +111,119 @@ abstract public class BaseSorter {
     abstract protected Object makeKey(
             Project project, KeyMaker keyMaker, Criterion c, Object o, int index);
 
-    protected Object[] makeKeys(Project project, Object o, int index) {
-        Object[] keys = new Object[_keyMakers.length];
-        for (int i = 0; i < keys.length; i++) {
-            keys[i] = makeKey(project, _keyMakers[i], _criteria[i], o, index);
+    /**
+     * Computes the keys of the objects to sort up front, so that comparisons only read them. The objects are then
+     * referred to by their position in the given arrays.
+     */
+    protected void computeKeys(Project project, Object[] objects, int[] indices, int count) {
+        _keys = new Object[_keyMakers.length][count];
+        for (int i = 0; i < _keyMakers.length; i++) {
+            Object[] keys = _keys[i];
+            for (int p = 0; p < count; p++) {
+                keys[p] = makeKey(project, _keyMakers[i], _criteria[i], objects[p], indices[p]);
+            }
         }
-        return keys;
     }
 
-    protected int compare(Project project, Object o1, int i1, Object o2, int i2) {
+    /**
+     * Compares two objects by their keys, and then by their positions, so that the sort is stable.
+     */
+    protected int compare(int position1, int position2) {
         int c = 0;
         for (int i = 0; c == 0 && i < _comparatorWrappers.length; i++) {
-            c = _comparatorWrappers[i].compare(project, o1, i1, o2, i2);
+            c = _comparatorWrappers[i].compare(position1, position2);
+        }
+        return c != 0 ? c : Integer.compare(position1, position2);
+    }
+
+    /**
+     * @return the positions of all objects, in sorted order
+     */
+    protected int[] sortPositions(int count) {
+        int[] positions = new int[count];
+        for (int p = 0; p < count; p++) {
+            positions[p] = p;
+        }
+        mergeSort(positions, new int[count], 0, count);
+        return positions;
+    }
+
+    /**
+     * Selects the first (or the last) objects in sorted order with a bounded heap, which takes O(n log limit) time
+     * instead of sorting all objects.
+     *
+     * @return the positions of the first limit objects in sorted order, or of the last ones if fromEnd is true, in
+     *         sorted order
+     */
+    protected int[] sortPositions(int count, int limit, boolean fromEnd) {
+        if (limit >= count) {
+            return sortPositions(count);
+        }
+        // the root of the heap is the selected object which is the farthest from the start (or end)
+        int sign = fromEnd ? -1 : 1;
+        int[] heap = new int[limit];
+        int size = 0;
+        for (int p = 0; p < count; p++) {
+            if (size < limit) {
+                int i = size++;
+                heap[i] = p;
+                while (i > 0 && sign * compare(heap[(i - 1) / 2], heap[i]) < 0) {
+                    int parent = (i - 1) / 2;
+                    int t = heap[parent];
+                    heap[parent] = heap[i];
+                    heap[i] = t;
+                    i = parent;
+                }
+            } else if (limit > 0 && sign * compare(p, heap[0]) < 0) {
+                heap[0] = p;
+                siftDown(heap, size, sign);
+            }
+        }
+        mergeSort(heap, new int[size], 0, size);
+        return heap;
+    }
+
+    private void siftDown(int[] heap, int size, int sign) {
+        int i = 0;
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && sign * compare(heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if (right < size && sign * compare(heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            int t = heap[largest];
+            heap[largest] = heap[i];
+            heap[i] = t;
+            i = largest;
+        }
+    }
+
+    private void mergeSort(int[] positions, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(positions, buffer, from, middle);
+        mergeSort(positions, buffer, middle, to);
+        if (compare(positions[middle - 1], positions[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < middle && compare(buffer[i], buffer[j]) <= 0)) {
+                positions[k] = buffer[i++];
+            } else {
+                positions[k] = buffer[j++];
+            }
         }
-        return c;
     }
 }
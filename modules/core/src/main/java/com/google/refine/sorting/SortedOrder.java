@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * The rows or records matched by an engine, in the order of a sorting configuration. The most recently computed order
+ * of each project is cached, keyed by the engine configuration, the sorting configuration and the content version of
+ * the project, so that paging through a sorted grid only sorts it once.
+ * <p>
+ * When a page near the start or the end of the sorted grid is requested and no order is cached, only the first or last
+ * {@link #PARTIAL_SIZE} rows or records are selected, which avoids sorting all of them.
+ */
+public class SortedOrder {
+
+    static public final int PARTIAL_SIZE = 1000;
+
+    static private final Map<Project, SortedOrder> _cache = new WeakHashMap<>();
+
+    final protected String _key;
+    final protected long _contentVersion;
+    // the position in the full order of the first row or record of this order
+    final protected int _offset;
+    // the row or record indices, in sorted order
+    final protected int[] _indices;
+    // the pagination index of each row or record, which is the position of its first row among the sorted rows
+    final protected int[] _paginationIndices;
+    final protected int _size;
+    final protected int _rowCount;
+
+    protected SortedOrder(String key, long contentVersion, int offset, int[] indices, int[] paginationIndices,
+            int size, int rowCount) {
+        _key = key;
+        _contentVersion = contentVersion;
+        _offset = offset;
+        _indices = indices;
+        _paginationIndices = paginationIndices;
+        _size = size;
+        _rowCount = rowCount;
+    }
+
+    /**
+     * Returns the rows or records matched by the engine, sorted by the given configuration, reusing the order computed
+     * last for this project if the configurations and the project content are unchanged and it covers the requested
+     * page.
+     *
+     * @param start
+     *            the pagination index of the first row of the page, or -1 if the page is given by its end
+     * @param end
+     *            the pagination index after the last row of the page, or -1 if the page is given by its start
+     * @param limit
+     *            the maximum number of rows or records in the page
+     * @return the sorted order, or null if the sorting configuration has no criteria
+     */
+    static public SortedOrder get(Project project, Engine engine, SortingConfig sortingConfig, int start, int end,
+            int limit) {
+        if (sortingConfig.getCriteria() == null || sortingConfig.getCriteria().length == 0) {
+            return null;
+        }
+        String key;
+        try {
+            key = ParsingUtilities.mapper.writeValueAsString(engine.getConfig())
+                    + ParsingUtilities.mapper.writeValueAsString(sortingConfig);
+        } catch (JsonProcessingException e) {
+            key = null;
+        }
+        long contentVersion = project.getContentVersion();
+        boolean partial = true;
+        if (key != null) {
+            synchronized (_cache) {
+                SortedOrder cached = _cache.get(project);
+                if (cached != null && cached._key.equals(key) && cached._contentVersion == contentVersion) {
+                    if (cached.getPage(start, end, limit) != null) {
+                        return cached;
+                    }
+                    // the pages of the cached partial order have been exhausted
+                    partial = false;
+                }
+            }
+        }
+
+        SortedOrder order = null;
+        if (partial && limit <= PARTIAL_SIZE) {
+            int count = engine.getMode() == Mode.RowBased ? project.rows.size() : project.recordModel.getRecordCount();
+            if (start != -1 && start + limit <= PARTIAL_SIZE) {
+                order = compute(project, engine, sortingConfig, key, contentVersion, PARTIAL_SIZE, false);
+            } else if (end != -1 && end >= project.rows.size() - PARTIAL_SIZE + limit && count > PARTIAL_SIZE) {
+                order = compute(project, engine, sortingConfig, key, contentVersion, PARTIAL_SIZE, true);
+            }
+            if (order != null && order.getPage(start, end, limit) == null) {
+                order = null;
+            }
+        }
+        if (order == null) {
+            order = compute(project, engine, sortingConfig, key, contentVersion, -1, false);
+        }
+        if (key != null) {
+            synchronized (_cache) {
+                _cache.put(project, order);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Returns the rows or records matched by the engine, sorted by the given configuration.
+     */
+    static public SortedOrder get(Project project, Engine engine, SortingConfig sortingConfig) {
+        return get(project, engine, sortingConfig, 0, -1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return an estimate of the heap occupied by the order cached for the given project, in bytes
+     */
+    static public long estimateCachedSize(Project project) {
+        SortedOrder cached;
+        synchronized (_cache) {
+            cached = _cache.get(project);
+        }
+        if (cached == null) {
+            return 0;
+        }
+        return ProjectSizeEstimator.OBJECT_OVERHEAD + ProjectSizeEstimator.STRING_OVERHEAD + cached._key.length()
+                + 2 * ProjectSizeEstimator.ARRAY_OVERHEAD
+                + 4L * (cached._indices.length + cached._paginationIndices.length);
+    }
+
+    static protected SortedOrder compute(Project project, Engine engine, SortingConfig sortingConfig, String key,
+            long contentVersion, int limit, boolean fromEnd) {
+        OrderCollector collector;
+        int size;
+        int rowCount;
+        if (engine.getMode() == Mode.RowBased) {
+            collector = new OrderCollector(limit >= 0 ? limit : project.rows.size());
+            SortingRowVisitor srv = new SortingRowVisitor(collector);
+            srv.initializeFromConfig(project, sortingConfig);
+            srv.setLimit(limit, fromEnd);
+            engine.getAllFilteredRows().accept(project, srv);
+            size = srv.getCount();
+            rowCount = size;
+        } else {
+            collector = new OrderCollector(limit >= 0 ? limit : project.recordModel.getRecordCount());
+            SortingRecordVisitor srv = new SortingRecordVisitor(collector);
+            srv.initializeFromConfig(project, sortingConfig);
+            srv.setLimit(limit, fromEnd);
+            engine.getFilteredRecords().accept(project, srv);
+            size = srv.getCount();
+            rowCount = srv.getRowCount();
+        }
+        int offset = fromEnd ? size - collector._size : 0;
+        return new SortedOrder(key, contentVersion, offset, collector.getIndices(), collector.getPaginationIndices(),
+                size, rowCount);
+    }
+
+    /**
+     * @return the number of rows or records matched
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return the number of rows matched, including the rows of the records matched
+     */
+    public int getRowCount() {
+        return _rowCount;
+    }
+
+    /**
+     * @return true if this order only holds the first or last rows or records
+     */
+    public boolean isPartial() {
+        return _indices.length < _size;
+    }
+
+    /**
+     * Locates a page of the sorted rows or records, in the same way as the row writing visitor of the get-rows command
+     * would by visiting all of them.
+     *
+     * @return the positions of the first (inclusive) and last (exclusive) rows or records of the page, or null if they
+     *         are not all held by this order
+     */
+    public int[] getPage(int start, int end, int limit) {
+        int from, to;
+        if (start != -1) {
+            from = getPosition(start);
+            if (from < 0) {
+                return null;
+            }
+            to = Math.min(_size, from + limit);
+        } else {
+            to = getPosition(end);
+            if (to < 0) {
+                return null;
+            }
+            from = Math.max(0, to - limit);
+        }
+        if (from < _offset || to > _offset + _indices.length) {
+            return null;
+        }
+        return new int[] { from, to };
+    }
+
+    /**
+     * @return the position of the first row or record whose pagination index is at least the given one, {@link #size()}
+     *         if there is none, or -1 if it cannot be determined from the rows or records held
+     */
+    public int getPosition(int paginationIndex) {
+        int i = Arrays.binarySearch(_paginationIndices, paginationIndex);
+        if (i < 0) {
+            i = -(i + 1);
+        }
+        if (i == 0 && _offset > 0 && (_paginationIndices.length == 0 || paginationIndex < _paginationIndices[0])) {
+            return -1;
+        }
+        if (i == _indices.length && _offset + _indices.length < _size) {
+            return -1;
+        }
+        return _offset + i;
+    }
+
+    /**
+     * Visits the sorted rows between the given positions (the first inclusive, the second exclusive).
+     */
+    public void accept(Project project, RowVisitor visitor, int from, int to) {
+        try {
+            visitor.start(project);
+            for (int i = from; i < to; i++) {
+                int rowIndex = _indices[i - _offset];
+                Row row = project.rows.get(rowIndex);
+                if (visitor.visit(project, rowIndex, i, row)) {
+                    break;
+                }
+            }
+        } finally {
+            visitor.end(project);
+        }
+    }
+
+    /**
+     * Visits the sorted records between the given positions (the first inclusive, the second exclusive).
+     */
+    public void accept(Project project, RecordVisitor visitor, int from, int to) {
+        try {
+            visitor.start(project);
+            for (int i = from; i < to; i++) {
+                Record record = project.recordModel.getRecord(_indices[i - _offset]);
+                if (visitor.visit(project, _paginationIndices[i - _offset], record)) {
+                    break;
+                }
+            }
+        } finally {
+            visitor.end(project);
+        }
+    }
+
+    static private class OrderCollector implements RowVisitor, RecordVisitor {
+
+        int[] _indices;
+        int[] _paginationIndices;
+        int _size;
+        int _rowCount;
+
+        OrderCollector(int capacity) {
+            _indices = new int[capacity];
+            _paginationIndices = new int[capacity];
+        }
+
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            return visit(project, rowIndex, _size, row);
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, int sortedRowIndex, Row row) {
+            add(rowIndex, sortedRowIndex, 1);
+            return false;
+        }
+
+        @Override
+        public boolean visit(Project project, Record record) {
+            return visit(project, _rowCount, record);
+        }
+
+        @Override
+        public boolean visit(Project project, int sortedStartRowIndex, Record record) {
+            add(record.recordIndex, sortedStartRowIndex, record.toRowIndex - record.fromRowIndex);
+            return false;
+        }
+
+        private void add(int index, int paginationIndex, int rowCount) {
+            if (_size == _indices.length) {
+                _indices = Arrays.copyOf(_indices, Math.max(16, _size * 2));
+                _paginationIndices = Arrays.copyOf(_paginationIndices, _indices.length);
+            }
+            _indices[_size] = index;
+            _paginationIndices[_size] = paginationIndex;
+            _size++;
+            _rowCount += rowCount;
+        }
+
+        int[] getIndices() {
+            return Arrays.copyOf(_indices, _size);
+        }
+
+        int[] getPaginationIndices() {
+            return Arrays.copyOf(_paginationIndices, _size);
+        }
+    }
+}
@@ -34,8 +34,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.sorting;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import com.google.refine.browsing.RecordVisitor;
@@ -47,39 +45,73 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
 
     final protected RecordVisitor _visitor;
     protected List<Record> _records;
+    protected int _rowCount;
+
+    protected int _limit = -1;
+    protected boolean _fromEnd;
 
     public SortingRecordVisitor(RecordVisitor visitor) {
         _visitor = visitor;
     }
 
+    /**
+     * Only passes the first records in sorted order to the underlying visitor, or the last ones if fromEnd is true.
+     * Their sorted start row indices remain their positions among the rows of all sorted records.
+     */
+    public void setLimit(int limit, boolean fromEnd) {
+        _limit = limit;
+        _fromEnd = fromEnd;
+    }
+
+    /**
+     * @return the number of records sorted, once the visit is over
+     */
+    public int getCount() {
+        return _records.size();
+    }
+
+    /**
+     * @return the number of rows in the records sorted, once the visit is over
+     */
+    public int getRowCount() {
+        return _rowCount;
+    }
+
     @Override
     public void start(Project project) {
         int count = project.recordModel.getRecordCount();
         _records = new ArrayList<Record>(count);
-        _keys = new ArrayList<Object[]>(count);
+        _rowCount = 0;
     }
 
     @Override
     public void end(Project project) {
         _visitor.start(project);
 
-        Collections.sort(_records, new Comparator<Record>() {
-
-            Project project;
-
-            Comparator<Record> init(Project project) {
-                this.project = project;
-                return this;
-            }
+        int count = _records.size();
+        Record[] records = _records.toArray(new Record[count]);
+        int[] indices = new int[count];
+        for (int p = 0; p < count; p++) {
+            indices[p] = records[p].recordIndex;
+        }
+        computeKeys(project, records, indices, count);
 
-            @Override
-            public int compare(Record o1, Record o2) {
-                return SortingRecordVisitor.this.compare(project, o1, o1.recordIndex, o2, o2.recordIndex);
-            }
-        }.init(project));
+        int[] positions;
+        if (_limit >= 0 && _limit < count) {
+            positions = sortPositions(count, _limit, _fromEnd);
+        } else {
+            positions = sortPositions(count);
+        }
 
         int sortedIndex = 0;
-        for (Record record : _records) {
+        if (positions.length < count && _fromEnd) {
+            sortedIndex = _rowCount;
+            for (int position : positions) {
+                sortedIndex -= records[position].toRowIndex - records[position].fromRowIndex;
+            }
+        }
+        for (int position : positions) {
+            Record record = records[position];
             _visitor.visit(project, sortedIndex, record);
             sortedIndex += record.toRowIndex - record.fromRowIndex;
         }
@@ -90,6 +122,7 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
     @Override
     public boolean visit(Project project, Record record) {
         _records.add(record);
+        _rowCount += record.toRowIndex - record.fromRowIndex;
         return false;
     }
 
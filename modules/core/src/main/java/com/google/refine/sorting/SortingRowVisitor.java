@@ -33,10 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.sorting;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
 
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
@@ -46,52 +43,59 @@ import com.google.refine.sorting.Criterion.KeyMaker;
 public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     final protected RowVisitor _visitor;
-    protected List<IndexedRow> _indexedRows;
+    protected int[] _rowIndices;
+    protected Row[] _rows;
+    protected int _count;
 
-    static protected class IndexedRow {
+    protected int _limit = -1;
+    protected boolean _fromEnd;
 
-        final int index;
-        final Row row;
+    public SortingRowVisitor(RowVisitor visitor) {
+        _visitor = visitor;
+    }
 
-        IndexedRow(int index, Row row) {
-            this.index = index;
-            this.row = row;
-        }
+    /**
+     * Only passes the first rows in sorted order to the underlying visitor, or the last ones if fromEnd is true. Their
+     * sorted row indices remain their positions among all sorted rows.
+     */
+    public void setLimit(int limit, boolean fromEnd) {
+        _limit = limit;
+        _fromEnd = fromEnd;
     }
 
-    public SortingRowVisitor(RowVisitor visitor) {
-        _visitor = visitor;
+    /**
+     * @return the number of rows sorted, once the visit is over
+     */
+    public int getCount() {
+        return _count;
     }
 
     @Override
     public void start(Project project) {
         int count = project.rows.size();
-        _indexedRows = new ArrayList<IndexedRow>(count);
-        _keys = new ArrayList<Object[]>(count);
+        _rowIndices = new int[count];
+        _rows = new Row[count];
+        _count = 0;
     }
 
     @Override
     public void end(Project project) {
         _visitor.start(project);
 
-        Collections.sort(_indexedRows, new Comparator<IndexedRow>() {
-
-            Project project;
-
-            Comparator<IndexedRow> init(Project project) {
-                this.project = project;
-                return this;
-            }
+        computeKeys(project, _rows, _rowIndices, _count);
 
-            @Override
-            public int compare(IndexedRow o1, IndexedRow o2) {
-                return SortingRowVisitor.this.compare(project, o1.row, o1.index, o2.row, o2.index);
-            }
-        }.init(project));
+        int[] positions;
+        int firstSortedIndex = 0;
+        if (_limit >= 0 && _limit < _count) {
+            positions = sortPositions(_count, _limit, _fromEnd);
+            firstSortedIndex = _fromEnd ? _count - _limit : 0;
+        } else {
+            positions = sortPositions(_count);
+        }
 
-        int sortedIndex = 0;
-        for (IndexedRow indexedRow : _indexedRows) {
-            _visitor.visit(project, indexedRow.index, sortedIndex, indexedRow.row);
+        int sortedIndex = firstSortedIndex;
+        for (int position : positions) {
+            _visitor.visit(project, _rowIndices[position], sortedIndex, _rows[position]);
             sortedIndex++;
         }
 
@@ -100,7 +104,13 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
-        _indexedRows.add(new IndexedRow(rowIndex, row));
+        if (_count == _rows.length) {
+            _rows = Arrays.copyOf(_rows, Math.max(16, _count * 2));
+            _rowIndices = Arrays.copyOf(_rowIndices, _rows.length);
+        }
+        _rowIndices[_count] = rowIndex;
+        _rows[_count] = row;
+        _count++;
         return false;
     }
 
@@ -46,11 +46,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.RefineServlet;
 import com.google.refine.model.Recon;
 import com.google.refine.model.ReconCandidate;
+import com.google.refine.model.StringDictionary;
 
 /**
  * A serializable pool of ReconCandidates indexed by ID.
@@ -64,6 +66,9 @@ public class Pool {
     // This is only for backward compatibility while loading old project files
     final protected Map<String, ReconCandidate> candidates = new HashMap<String, ReconCandidate>();
 
+    // canonical instances of the string cell values read with this pool
+    final protected StringDictionary strings = new StringDictionary();
+
     private void pool(ReconCandidate candidate) {
         candidates.put(candidate.id, candidate);
     }
@@ -92,6 +97,11 @@ public class Pool {
         return candidates.get(topicID);
     }
 
+    @JsonIgnore
+    public StringDictionary getStringDictionary() {
+        return strings;
+    }
+
     public void save(OutputStream out) throws IOException {
         Writer writer = new OutputStreamWriter(out, "UTF-8");
         try {
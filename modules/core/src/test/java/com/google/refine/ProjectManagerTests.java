@@ -56,6 +56,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.model.ColumnModel;
 import com.google.refine.model.Project;
 import com.google.refine.model.ProjectStub;
 import com.google.refine.model.Row;
@@ -88,6 +89,9 @@ public class ProjectManagerTests extends RefineTest {
         Field field = Project.class.getDeclaredField("rows");
         field.setAccessible(true);
         field.set(project, new ArrayList<>());
+        field = Project.class.getDeclaredField("columnModel");
+        field.setAccessible(true);
+        field.set(project, new ColumnModel());
         addRows(project);
 
         metadata = mock(ProjectMetadata.class);
@@ -197,6 +201,73 @@ public class ProjectManagerTests extends RefineTest {
         verify(SUT, times(1)).saveWorkspace();
     }
 
+    @Test
+    public void keepsSavedProjectsWithinBudget() {
+        // saved recently, so not idle
+        Instant lastSave = Instant.now();
+        when(project.getLastSave()).thenReturn(lastSave);
+        when(metadata.getModified()).thenReturn(lastSave.minusSeconds(10));
+        registerProject(project, metadata);
+
+        SUT.save(true);
+
+        verify(project, never()).dispose();
+        Assert.assertSame(SUT.getProject(0), project);
+    }
+
+    @Test
+    public void evictsLeastRecentlyAccessedProjects() {
+        Project[] projects = new Project[3];
+        for (int i = 0; i != projects.length; i++) {
+            projects[i] = spy(new ProjectStub(i + 1));
+            addRows(projects[i]);
+            ProjectMetadata meta = mock(ProjectMetadata.class);
+            Instant modified = projects[i].getLastSave().minusSeconds(10);
+            when(meta.getModified()).thenReturn(modified);
+            registerProject(projects[i], meta);
+        }
+        // access the first project, making the second one the least recently accessed
+        Assert.assertSame(SUT.getProject(1), projects[0]);
+        ProjectManager.CacheOccupancy occupancy = SUT.getProjectCacheOccupancy();
+        assertEquals(occupancy.projects.size(), 3);
+        assertEquals(occupancy.projects.get(0).id, 2L);
+        assertEquals(occupancy.projects.get(2).id, 1L);
+
+        // make room for two projects only
+        long projectSize = occupancy.projects.get(0).estimatedSize;
+        Mockito.doReturn(2 * projectSize).when(SUT).getProjectCacheBudget();
+        SUT.save(true);
+
+        verify(projects[1], times(1)).dispose();
+        verify(projects[0], never()).dispose();
+        verify(projects[2], never()).dispose();
+        occupancy = SUT.getProjectCacheOccupancy();
+        assertEquals(occupancy.used, 2 * projectSize);
+        assertEquals(occupancy.budget, 2 * projectSize);
+    }
+
+    @Test
+    public void evictsProjectsWhenRegistering() {
+        Mockito.doReturn(0L).when(SUT).getProjectCacheBudget();
+        Instant lastSave = Instant.now();
+        when(project.getLastSave()).thenReturn(lastSave);
+        when(metadata.getModified()).thenReturn(lastSave.minusSeconds(10)); // already saved
+        registerProject(project, metadata);
+        // the project being registered is kept even though it exceeds the budget
+        verify(project, never()).dispose();
+
+        Project project2 = spy(new ProjectStub(2));
+        addRows(project2);
+        ProjectMetadata metadata2 = mock(ProjectMetadata.class);
+        when(metadata2.getModified()).thenReturn(project2.getLastSave()); // not saved yet
+        registerProject(project2, metadata2);
+
+        verify(project, times(1)).dispose();
+        verify(project2, never()).dispose();
+        Assert.assertNull(SUT.getProject(project.id));
+        Assert.assertSame(SUT.getProject(project2.id), project2);
+    }
+
     @Test
     public void cannotSaveWhenBusy() {
         registerProject();
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.filters.AnyRowRecordFilter;
+import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Project;
+
+public class ParallelScanTests extends RefineTest {
+
+    private static final Evaluable VALUE = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public String getSource() {
+            return "value";
+        }
+
+        @Override
+        public String getLanguagePrefix() {
+            return "grel";
+        }
+    };
+
+    private static final Evaluable NOT_THREAD_SAFE = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return false;
+        }
+    };
+
+    private static final RowFilter NOT_MULTIPLE_OF_SEVEN = (project, rowIndex, row) -> rowIndex % 7 != 0;
+
+    Project project;
+    int minPartitionSize;
+
+    @BeforeMethod
+    public void setUp() {
+        minPartitionSize = ParallelScan.minPartitionSize;
+        Serializable[][] grid = new Serializable[2000][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { i % 5 == 0 ? null : "v" + (i % 13), i % 3 == 0 ? "x" : i * 0.5 };
+        }
+        project = createProject(new String[] { "a", "b" }, grid);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ParallelScan.minPartitionSize = minPartitionSize;
+    }
+
+    @Test
+    public void testGroupingInParallel() {
+        ExpressionNominalValueGrouper sequential = group(Integer.MAX_VALUE / 2);
+        ExpressionNominalValueGrouper parallel = group(64);
+
+        assertEquals(parallel.choices.keySet(), sequential.choices.keySet());
+        for (String value : new String[] { "v0", "v1", "v12" }) {
+            assertEquals(parallel.getChoiceValueCount(value), sequential.getChoiceValueCount(value));
+            assertEquals(parallel.choices.get(value)._latestIndex, sequential.choices.get(value)._latestIndex);
+        }
+        assertEquals(parallel.blankCount, sequential.blankCount);
+        assertEquals(parallel.errorCount, sequential.errorCount);
+    }
+
+    @Test
+    public void testBinningInParallel() {
+        ExpressionNumericValueBinner sequential = bin(Integer.MAX_VALUE / 2);
+        ExpressionNumericValueBinner parallel = bin(64);
+
+        assertEquals(parallel.bins, sequential.bins);
+        assertEquals(parallel.numericCount, sequential.numericCount);
+        assertEquals(parallel.nonNumericCount, sequential.nonNumericCount);
+        assertEquals(parallel.blankCount, sequential.blankCount);
+        assertEquals(parallel.errorCount, sequential.errorCount);
+    }
+
+    @Test
+    public void testRangesAreAlignedOnWords() {
+        ParallelScan.minPartitionSize = 64;
+        long[] words = new long[(1000 + 63) / 64];
+        ParallelScan.forEachRange(1000, (unused, from, to) -> {
+            for (int i = from; i < to; i++) {
+                words[i >>> 6] |= 1L << i;
+            }
+        });
+        for (int i = 0; i < 1000; i++) {
+            assertEquals((words[i >>> 6] >>> i) & 1, 1L);
+        }
+    }
+
+    @Test
+    public void testNonThreadSafeExpressionIsScannedSerially() {
+        ParallelScan.minPartitionSize = 64;
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(NOT_THREAD_SAFE, "a", 0);
+
+        assertFalse(ParallelScan.isApplicable(grouper, 2000));
+        assertFalse(ParallelScan.isApplicable(new RowVisitorAsRecordVisitor(grouper), 2000));
+        assertEquals(ParallelScan.isApplicable(new RowVisitorAsRecordVisitor(new ExpressionNominalValueGrouper(VALUE, "a", 0)), 2000),
+                ParallelScan.isApplicable(2000));
+    }
+
+    @Test
+    public void testNonThreadSafeFiltersAndBinnersAreScannedSerially() {
+        RowEvaluable notThreadSafe = new ExpressionBasedRowEvaluable("b", 1, NOT_THREAD_SAFE);
+        NumericBinIndex index = new NumericBinRowIndex(project, notThreadSafe);
+        assertFalse(new ExpressionNumericValueBinner(notThreadSafe, index).isParallelizable());
+        assertFalse(new ExpressionTimeValueBinner(notThreadSafe, new TimeBinRowIndex(project, notThreadSafe)).isParallelizable());
+        assertTrue(new ExpressionNumericValueBinner(new ExpressionBasedRowEvaluable("b", 1, VALUE), index).isParallelizable());
+
+        RowFilter filter = new ExpressionEqualRowFilter(NOT_THREAD_SAFE, "a", 0, new Object[] { "v1" }, false, false, false);
+        assertFalse(ParallelScan.areThreadSafe(Arrays.asList(null, filter)));
+        assertFalse(ParallelScan.areThreadSafe(Arrays.asList(new AnyRowRecordFilter(filter))));
+        assertTrue(ParallelScan.areThreadSafe(Arrays.asList(null, NOT_MULTIPLE_OF_SEVEN)));
+    }
+
+    @Test
+    public void testRowVisitorOfRecordsInParallel() {
+        ParallelScan.minPartitionSize = 64;
+        ExpressionNominalValueGrouper parallel = new ExpressionNominalValueGrouper(VALUE, "a", 0);
+        ConjunctiveFilteredRecords filteredRecords = new ConjunctiveFilteredRecords();
+        filteredRecords.add((project, record) -> record.fromRowIndex % 7 != 0);
+        new FilteredRecordsAsFilteredRows(filteredRecords).accept(project, parallel);
+
+        ExpressionNominalValueGrouper expected = new ExpressionNominalValueGrouper(VALUE, "a", 0);
+        ParallelScan.minPartitionSize = Integer.MAX_VALUE / 2;
+        new FilteredRecordsAsFilteredRows(filteredRecords).accept(project, expected);
+
+        assertEquals(parallel.choices.keySet(), expected.choices.keySet());
+        assertEquals(parallel.getChoiceValueCount("v1"), expected.getChoiceValueCount("v1"));
+        assertEquals(parallel.blankCount, expected.blankCount);
+    }
+
+    private ExpressionNominalValueGrouper group(int partitionSize) {
+        ParallelScan.minPartitionSize = partitionSize;
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(NOT_MULTIPLE_OF_SEVEN);
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(VALUE, "a", 0);
+        filteredRows.accept(project, grouper);
+        return grouper;
+    }
+
+    private ExpressionNumericValueBinner bin(int partitionSize) {
+        ParallelScan.minPartitionSize = partitionSize;
+        RowEvaluable rowEvaluable = new ExpressionBasedRowEvaluable("b", 1, VALUE);
+        NumericBinIndex index = new NumericBinRowIndex(project, rowEvaluable);
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(NOT_MULTIPLE_OF_SEVEN);
+        ExpressionNumericValueBinner binner = new ExpressionNumericValueBinner(rowEvaluable, index);
+        filteredRows.accept(project, binner);
+        return binner;
+    }
+}
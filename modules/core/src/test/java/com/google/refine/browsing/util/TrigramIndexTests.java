@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.facets.TextSearchFacet.TextSearchFacetConfig;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+public class TrigramIndexTests extends RefineTest {
+
+    private static final String[] WORDS = { "Apple pie", "banana SPLIT", "Cherry tart", "apricot", "İstanbul",
+            "STRASSE", "straße", "ﬁsh and chips" };
+
+    Project project;
+    int minRows;
+
+    @BeforeMethod
+    public void setUp() {
+        minRows = TrigramIndex.minRows;
+        Serializable[][] grid = new Serializable[500][];
+        for (int i = 0; i < grid.length; i++) {
+            Serializable value;
+            if (i % 11 == 0) {
+                value = null;
+            } else if (i % 7 == 0) {
+                value = i * 1000L;
+            } else {
+                value = WORDS[i % WORDS.length] + " " + (i % 17);
+            }
+            grid[i] = new Serializable[] { value };
+        }
+        project = createProject(new String[] { "a" }, grid);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        TrigramIndex.minRows = minRows;
+    }
+
+    @Test
+    public void testIndexIsCachedPerColumn() {
+        Column column = project.columnModel.getColumnByName("a");
+        assertNull(TrigramIndex.get(project, column));
+
+        TrigramIndex.minRows = 0;
+        TrigramIndex index = TrigramIndex.get(project, column);
+        assertNotNull(index);
+        assertSame(TrigramIndex.get(project, column), index);
+        assertNull(index.getCandidateRows("ap"));
+        assertTrue(index.getCandidateRows("APPLE").test(8));
+        assertFalse(index.getCandidateRows("apple").test(2));
+        assertFalse(index.getCandidateRows("apple").test(11));
+        assertTrue(index.getCandidateRows("apple").test(14));
+    }
+
+    @Test
+    public void testFiltersMatchWithIndex() throws Exception {
+        String[][] queries = {
+                { "text", "false", "APPLE" },
+                { "text", "false", "ana spl" },
+                { "text", "true", "Cherry" },
+                { "text", "true", "cherry" },
+                { "text", "false", "istanbul" },
+                { "text", "false", "strasse" },
+                { "text", "false", "fish" },
+                { "text", "false", "000" },
+                { "text", "false", "missing" },
+                { "regex", "false", "^apr.*t" },
+                { "regex", "true", "tar?t [0-9]+" },
+                { "regex", "false", "pie|tart" },
+                { "regex", "false", "sTRa" },
+        };
+        for (String[] query : queries) {
+            for (boolean invert : new boolean[] { false, true }) {
+                TrigramIndex.minRows = Integer.MAX_VALUE;
+                boolean[] expected = filter(query[0], Boolean.parseBoolean(query[1]), query[2], invert);
+                TrigramIndex.minRows = 0;
+                boolean[] actual = filter(query[0], Boolean.parseBoolean(query[1]), query[2], invert);
+                assertEquals(actual, expected, String.join(" ", query));
+            }
+        }
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals(TrigramIndex.getLiteralPrefix("abc"), "abc");
+        assertEquals(TrigramIndex.getLiteralPrefix("^abc.*"), "abc");
+        assertEquals(TrigramIndex.getLiteralPrefix("abcd*"), "abc");
+        assertEquals(TrigramIndex.getLiteralPrefix("abcd{2}"), "abc");
+        assertEquals(TrigramIndex.getLiteralPrefix("abcd+"), "abcd");
+        assertEquals(TrigramIndex.getLiteralPrefix("ab\\.cd"), "ab");
+        assertEquals(TrigramIndex.getLiteralPrefix("abc|def"), "");
+        assertEquals(TrigramIndex.getLiteralPrefix("(?i)abc"), "");
+    }
+
+    private boolean[] filter(String mode, boolean caseSensitive, String query, boolean invert) throws Exception {
+        String json = "{\"type\":\"text\",\"name\":\"a\",\"columnName\":\"a\",\"mode\":\"" + mode + "\","
+                + "\"caseSensitive\":" + caseSensitive + ",\"invert\":" + invert + ",\"query\":"
+                + ParsingUtilities.mapper.writeValueAsString(query) + "}";
+        TextSearchFacetConfig config = ParsingUtilities.mapper.readValue(json, TextSearchFacetConfig.class);
+        RowFilter filter = config.apply(project).getRowFilter(project);
+        boolean[] matches = new boolean[project.rows.size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = filter.filterRow(project, i, project.rows.get(i));
+        }
+        return matches;
+    }
+}
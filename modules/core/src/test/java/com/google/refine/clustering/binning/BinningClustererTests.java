@@ -31,6 +31,7 @@ import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -111,4 +112,70 @@ public class BinningClustererTests extends RefineTest {
         clusterer.computeClusters(new Engine(project));
         assertEquals(clusterer.getJsonRepresentation().size(), 1);
     }
+
+    @Test
+    public void testNumbersAreClusteredWithStrings() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "1" },
+                        { 1 },
+                        { "1 " },
+                        { "a" },
+                        { "a" },
+                        { "A" },
+                });
+        BinningClustererConfig config = ParsingUtilities.mapper.readValue(configJson, BinningClustererConfig.class);
+        BinningClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+        TestUtils.isSerializedTo(clusterer, "["
+                + "  [{\"v\":\"1\",\"c\":2},{\"v\":\"1 \",\"c\":1}],"
+                + "  [{\"v\":\"a\",\"c\":2},{\"v\":\"A\",\"c\":1}]"
+                + "]");
+    }
+
+    @Test
+    public void testKeysAreCachedAcrossClusterings() throws Exception {
+        AtomicInteger keyed = new AtomicInteger();
+        KeyerFactory.put("counting-fingerprint", new FingerprintKeyer() {
+
+            @Override
+            public String key(String s, Object... o) {
+                keyed.incrementAndGet();
+                return super.key(s, o);
+            }
+        });
+        try {
+            Project project = createProject(
+                    new String[] { "column" },
+                    new Serializable[][] {
+                            { "a" },
+                            { "à" },
+                            { "a" },
+                            { 1 },
+                            { "c" },
+                            { "ĉ" }
+                    });
+            String expectedJson = "["
+                    + "  [{\"v\":\"a\",\"c\":2},{\"v\":\"à\",\"c\":1}],"
+                    + "  [{\"v\":\"c\",\"c\":1},{\"v\":\"ĉ\",\"c\":1}]"
+                    + "]";
+            BinningClustererConfig config = ParsingUtilities.mapper.readValue(
+                    configJson.replace("\"fingerprint\"", "\"counting-fingerprint\""), BinningClustererConfig.class);
+
+            BinningClusterer clusterer = config.apply(project);
+            clusterer.computeClusters(new Engine(project));
+            TestUtils.isSerializedTo(clusterer, expectedJson);
+            // once per distinct value
+            assertEquals(keyed.get(), 5);
+
+            clusterer = config.apply(project);
+            clusterer.computeClusters(new Engine(project));
+            TestUtils.isSerializedTo(clusterer, expectedJson);
+            // only the number, which is not in the dictionary of strings, is keyed again
+            assertEquals(keyed.get(), 6);
+        } finally {
+            KeyerFactory.remove("counting-fingerprint");
+        }
+    }
 }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class BitParallelLevenshteinDistanceTests {
+
+    private final SimilarityDistance reference = new ApacheLevenshteinDistance();
+    private final BitParallelLevenshteinDistance distance = new BitParallelLevenshteinDistance();
+
+    @Test
+    public void testDistances() {
+        assertEquals(distance.compute("", ""), 0.0);
+        assertEquals(distance.compute("", "abc"), 3.0);
+        assertEquals(distance.compute("abc", ""), 3.0);
+        assertEquals(distance.compute("kitten", "sitting"), 3.0);
+        assertEquals(distance.compute("flaw", "lawn"), 2.0);
+        assertEquals(distance.compute("Ĉapelo", "capelo"), 1.0);
+        assertEquals(distance.compute("日本語", "日本人"), 1.0);
+        assertTrue(distance.isMetric());
+    }
+
+    @Test
+    public void testThreshold() {
+        assertEquals(distance.compute("kitten", "sitting", 3), 3.0);
+        assertTrue(distance.compute("kitten", "sitting", 2) > 2);
+        assertTrue(distance.compute("kitten", "sitting", 0.5) > 0.5);
+        assertTrue(distance.compute("a", "b", -1) > -1);
+        assertEquals(distance.compute("abc", "abc", 0), 0.0);
+    }
+
+    @Test
+    public void testSameDistancesAsApache() {
+        Random random = new Random(1234L);
+        // short strings use bit vectors, long ones the banded dynamic programming
+        for (int length : new int[] { 3, 10, 63, 64, 65, 150 }) {
+            for (int i = 0; i < 200; i++) {
+                String a = randomString(random, random.nextInt(length + 1));
+                String b = random.nextBoolean() ? mutate(random, a) : randomString(random, random.nextInt(length + 1));
+                double expected = reference.compute(a, b);
+                assertEquals(distance.compute(a, b), expected, a + " / " + b);
+                for (int threshold = 0; threshold <= 4; threshold++) {
+                    double bounded = distance.compute(a, b, threshold);
+                    if (expected <= threshold) {
+                        assertEquals(bounded, expected, a + " / " + b);
+                    } else {
+                        assertTrue(bounded > threshold, a + " / " + b);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        // mixes chars from the Latin-1 range and beyond
+        String alphabet = "abcdeĉĝŝжд語";
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String s) {
+        StringBuilder sb = new StringBuilder(s);
+        int edits = random.nextInt(5);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(sb.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.insert(position, randomString(random, 1));
+                    break;
+                case 1:
+                    if (position < sb.length()) {
+                        sb.deleteCharAt(position);
+                    }
+                    break;
+                default:
+                    if (position < sb.length()) {
+                        sb.setCharAt(position, randomString(random, 1).charAt(0));
+                    }
+            }
+        }
+        return sb.toString();
+    }
+}
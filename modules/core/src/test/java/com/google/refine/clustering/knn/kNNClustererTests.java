@@ -27,18 +27,33 @@
 
 package com.google.refine.clustering.knn;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import edu.mit.simile.vicino.clustering.NGramClusterer;
+import edu.mit.simile.vicino.distances.JaccardDistance;
+import edu.mit.simile.vicino.distances.JaroDistance;
 import edu.mit.simile.vicino.distances.LevenshteinDistance;
 import edu.mit.simile.vicino.distances.PPMDistance;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
 import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfig;
@@ -71,6 +86,7 @@ public class kNNClustererTests extends RefineTest {
         DistanceFactory.put("ppm", new VicinoDistance(new PPMDistance()));
         DistanceFactory.put("levenshtein", new ApacheLevenshteinDistance());
         DistanceFactory.put("vicino-levenshtein", new VicinoDistance(new LevenshteinDistance()));
+        DistanceFactory.put("bit-parallel-levenshtein", new BitParallelLevenshteinDistance());
     }
 
     private static String makeConfigJson(String function, int radius, int blockingNgramSize) {
@@ -88,6 +104,28 @@ public class kNNClustererTests extends RefineTest {
                 rows);
     }
 
+    private Project createClusteringProject(List<String> values) {
+        return createClusteringProject(values.stream()
+                .map(v -> new Serializable[] { v })
+                .toArray(Serializable[][]::new));
+    }
+
+    /**
+     * @return 300 random strings of 3 to 7 letters among four, many of them close to each other
+     */
+    private static List<String> randomValues(long seed) {
+        Random random = new Random(seed);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 3 + random.nextInt(5); j++) {
+                sb.append((char) ('a' + random.nextInt(4)));
+            }
+            values.add(sb.toString());
+        }
+        return values;
+    }
+
     @Test
     public void serializekNNClustererConfig() throws JsonParseException, JsonMappingException, IOException {
         kNNClustererConfig config = ParsingUtilities.mapper.readValue(configJson, kNNClustererConfig.class);
@@ -150,6 +188,22 @@ public class kNNClustererTests extends RefineTest {
         assertSameClusters(project, apacheJson, vicinoJson);
     }
 
+    @Test
+    public void testBitParallelLevenshtein() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createClusteringProject(
+                new Serializable[] { "ab" },
+                new Serializable[] { "abc" },
+                new Serializable[] { "abcd" },
+                new Serializable[] { "abxd" },
+                new Serializable[] { "xyz" });
+
+        for (int radius = 0; radius <= 2; radius++) {
+            String apacheJson = makeConfigJson("levenshtein", radius, 1);
+            String bitParallelJson = makeConfigJson("bit-parallel-levenshtein", radius, 1);
+            assertSameClusters(project, apacheJson, bitParallelJson);
+        }
+    }
+
     private void assertSameClusters(Project project, String apacheConfigJson, String vicinoConfigJson)
             throws JsonParseException, JsonMappingException, IOException {
         kNNClustererConfig apacheConfig = ParsingUtilities.mapper.readValue(apacheConfigJson, kNNClustererConfig.class);
@@ -177,4 +231,173 @@ public class kNNClustererTests extends RefineTest {
 
         assertTrue(clusterer.getJsonRepresentation().isEmpty());
     }
+
+    private static String makeBKTreeConfigJson(String function, int radius, int blockingNgramSize) {
+        return makeConfigJson(function, radius, blockingNgramSize).replace("}}", ",\"blocking\":\"bk-tree\"}}");
+    }
+
+    @Test
+    public void serializekNNClustererConfigWithBlocking() throws JsonParseException, JsonMappingException, IOException {
+        String json = makeBKTreeConfigJson("levenshtein", 1, 2);
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(json, kNNClustererConfig.class);
+        TestUtils.isSerializedTo(config, json);
+    }
+
+    @Test
+    public void testBKTreeBlocking() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createClusteringProject(
+                new Serializable[] { "ab" },
+                new Serializable[] { "abc" },
+                new Serializable[] { "c" },
+                new Serializable[] { "ĉ" });
+
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(makeBKTreeConfigJson("levenshtein", 1, 2),
+                kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        TestUtils.isSerializedTo(clusterer, clustererJson);
+    }
+
+    @Test
+    public void testBKTreeBlockingFindsNeighborsSharingNgrams() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createClusteringProject(randomValues(1234L));
+
+        for (int radius = 1; radius <= 2; radius++) {
+            kNNClustererConfig bkTreeConfig = ParsingUtilities.mapper.readValue(
+                    makeBKTreeConfigJson("levenshtein", radius, 2), kNNClustererConfig.class);
+            kNNClusterer bkTreeClusterer = bkTreeConfig.apply(project);
+            bkTreeClusterer.computeClusters(new Engine(project));
+
+            kNNClustererConfig ngramConfig = ParsingUtilities.mapper.readValue(makeConfigJson("levenshtein", radius, 2),
+                    kNNClustererConfig.class);
+            kNNClusterer ngramClusterer = ngramConfig.apply(project);
+            ngramClusterer.computeClusters(new Engine(project));
+
+            assertEquals(getClusters(bkTreeClusterer), getClusters(ngramClusterer));
+        }
+    }
+
+    @Test
+    public void testBKTreeBlockingFallsBackForNonMetricDistances() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createClusteringProject(
+                new Serializable[] { "ab" },
+                new Serializable[] { "abc" },
+                new Serializable[] { "c" },
+                new Serializable[] { "ĉ" });
+
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(makeBKTreeConfigJson("PPM", 1, 2),
+                kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        TestUtils.isSerializedTo(clusterer, clustererJson);
+    }
+
+    @Test
+    public void testVicinoMetrics() {
+        assertTrue(new VicinoDistance(new LevenshteinDistance()).isMetric());
+        assertFalse(new VicinoDistance(new JaroDistance()).isMetric());
+        assertFalse(new VicinoDistance(new JaccardDistance()).isMetric());
+        assertFalse(new VicinoDistance(new PPMDistance()).isMetric());
+    }
+
+    @Test
+    public void testBlocksComparedInParallel() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createClusteringProject(randomValues(4321L));
+
+        int pairsPerTask = BlockEvaluator.pairsPerTask;
+        BlockEvaluator.pairsPerTask = 16;
+        try {
+            for (int radius = 1; radius <= 2; radius++) {
+                kNNClustererConfig config = ParsingUtilities.mapper.readValue(makeConfigJson("levenshtein", radius, 2),
+                        kNNClustererConfig.class);
+                ProjectManager.singleton.getPreferenceStore().put(kNNClusterer.THREADS_PREF, 1);
+                kNNClusterer sequentialClusterer = config.apply(project);
+                sequentialClusterer.computeClusters(new Engine(project));
+
+                ProjectManager.singleton.getPreferenceStore().put(kNNClusterer.THREADS_PREF, 4);
+                kNNClusterer clusterer = config.apply(project);
+                clusterer.computeClusters(new Engine(project));
+
+                assertEquals(getClusters(clusterer), getClusters(sequentialClusterer));
+                assertEquals(clusterer.getProgress(), 100);
+            }
+        } finally {
+            BlockEvaluator.pairsPerTask = pairsPerTask;
+            ProjectManager.singleton.getPreferenceStore().put(kNNClusterer.THREADS_PREF, null);
+        }
+    }
+
+    @Test
+    public void testChainOfNeighborsAsInNGramClusterer() throws JsonParseException, JsonMappingException, IOException {
+        // all values share a single block, which NGramClusterer compares in a single thread
+        List<String> values = Arrays.asList("a", "aa", "aaa", "aaaa");
+        Project project = createClusteringProject(values);
+
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(makeConfigJson("vicino-levenshtein", 1, 1),
+                kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        assertEquals(getClusters(clusterer), getNGramClustererClusters(values, 1, 1));
+        assertTrue(getClusters(clusterer).contains(new HashSet<>(Arrays.asList("a", "aa", "aaa"))));
+    }
+
+    @Test
+    public void testClustersMergeThoseOfNGramClusterer() throws JsonParseException, JsonMappingException, IOException {
+        List<String> values = randomValues(2468L);
+        Project project = createClusteringProject(values);
+
+        for (int radius = 1; radius <= 2; radius++) {
+            kNNClustererConfig config = ParsingUtilities.mapper.readValue(
+                    makeConfigJson("vicino-levenshtein", radius, 2), kNNClustererConfig.class);
+            kNNClusterer clusterer = config.apply(project);
+            clusterer.computeClusters(new Engine(project));
+            Set<Set<String>> clusters = getClusters(clusterer);
+
+            // NGramClusterer splits the neighbors of a value found by different threads into several clusters
+            Set<Set<String>> baseline = getNGramClustererClusters(values, radius, 2);
+            for (Set<String> cluster : baseline) {
+                assertTrue(clusters.stream().anyMatch(c -> c.containsAll(cluster)));
+            }
+            for (Set<String> cluster : clusters) {
+                assertTrue(cluster.stream().anyMatch(value -> cluster.equals(baseline.stream()
+                        .filter(c -> c.contains(value) && cluster.containsAll(c))
+                        .flatMap(Set::stream)
+                        .collect(Collectors.toSet()))));
+            }
+        }
+    }
+
+    @Test
+    public void testCanceledClustering() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createClusteringProject(
+                new Serializable[] { "ab" },
+                new Serializable[] { "abc" });
+
+        for (String configJson : Arrays.asList(levenshteinConfigJson, makeBKTreeConfigJson("levenshtein", 1, 2))) {
+            kNNClustererConfig config = ParsingUtilities.mapper.readValue(configJson, kNNClustererConfig.class);
+            kNNClusterer clusterer = config.apply(project);
+            clusterer.cancel();
+            assertThrows(CancellationException.class, () -> clusterer.computeClusters(new Engine(project)));
+        }
+    }
+
+    private Set<Set<String>> getClusters(kNNClusterer clusterer) {
+        return clusterer._clusters.stream()
+                .filter(cluster -> cluster.size() > 1)
+                .map(cluster -> cluster.stream().map(v -> v.toString()).collect(Collectors.toSet()))
+                .collect(Collectors.toSet());
+    }
+
+    private Set<Set<String>> getNGramClustererClusters(List<String> values, double radius, int ngramSize) {
+        NGramClusterer clusterer = new NGramClusterer(new LevenshteinDistance(), ngramSize);
+        for (String value : values) {
+            clusterer.populate(value);
+        }
+        return clusterer.getClusters(radius).stream()
+                .map(cluster -> cluster.stream().map(v -> v.toString()).collect(Collectors.toSet()))
+                .collect(Collectors.toSet());
+    }
 }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class BindingFrameTests extends RefineTest {
+
+    Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", 1 },
+                        { null, 2 },
+                });
+    }
+
+    @Test
+    public void testSlotsMatchLegacyBindings() {
+        Properties frame = ExpressionUtils.createBindings(project);
+        assertTrue(frame instanceof BindingFrame);
+        Properties legacy = new Properties();
+        legacy.put("project", project);
+        legacy.put("true", true);
+        legacy.put("false", false);
+        legacy.put("PI", Math.PI);
+
+        for (int i = 0; i < project.rows.size(); i++) {
+            Row row = project.rows.get(i);
+            ExpressionUtils.bind(frame, row, i, "a", row.getCell(0));
+            ExpressionUtils.bind(legacy, row, i, "a", row.getCell(0));
+
+            assertEquals(frame.keySet(), legacy.keySet());
+            for (String name : new String[] { "project", "columnName", "rowIndex", "value", "true", "false", "PI" }) {
+                assertEquals(frame.get(name), legacy.get(name), name);
+                assertEquals(frame.containsKey(name), legacy.containsKey(name), name);
+            }
+            assertEquals(((WrappedRow) frame.get("row")).rowIndex, i);
+            assertSame(((CellTuple) frame.get("cells")).row, row);
+        }
+        assertNull(frame.get("value"));
+        assertNull(frame.get("cell"));
+    }
+
+    @Test
+    public void testWrappersAreCreatedOncePerRow() {
+        BindingFrame frame = new BindingFrame(project);
+        frame.bind(project.rows.get(0), 0, "a", project.rows.get(0).getCell(0));
+        Object cell = frame.get(BindingFrame.CELL);
+        assertSame(frame.get("cell"), cell);
+        assertEquals(((WrappedCell) cell).columnName, "a");
+
+        frame.bind(project.rows.get(0), 0, null, project.rows.get(0).getCell(1));
+        assertFalse(frame.get("cell") == cell);
+        assertEquals(frame.get("columnName"), "a");
+        assertEquals(frame.get("value"), 1);
+    }
+
+    @Test
+    public void testSlotsCanBeOverridden() {
+        BindingFrame frame = new BindingFrame(project);
+        frame.bind(project.rows.get(0), 0, "a", project.rows.get(0).getCell(0));
+
+        assertEquals(frame.put("value", "y"), "x");
+        assertEquals(frame.get(BindingFrame.VALUE), "y");
+        assertEquals(frame.remove("value"), "y");
+        assertFalse(frame.containsKey("value"));
+        assertFalse(frame.keySet().contains("value"));
+
+        frame.put("v", 3);
+        frame.bind(project.rows.get(0), 0, "a", project.rows.get(0).getCell(0));
+        assertEquals(frame.get("value"), "x");
+        assertEquals(frame.get("v"), 3);
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.util.Properties;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+
+public class MetaParserTests extends RefineTest {
+
+    private static class CountingParser implements LanguageSpecificParser {
+
+        final boolean cacheable;
+        int parsed = 0;
+
+        CountingParser(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public Evaluable parse(String source, String languagePrefix) throws ParsingException {
+            parsed++;
+            if (source.isEmpty()) {
+                throw new ParsingException("empty expression");
+            }
+            return new Evaluable() {
+
+                @Override
+                public Object evaluate(Properties bindings) {
+                    return source;
+                }
+            };
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return cacheable;
+        }
+    }
+
+    CountingParser cached;
+    CountingParser uncached;
+
+    @BeforeMethod
+    public void registerParsers() {
+        cached = new CountingParser(true);
+        uncached = new CountingParser(false);
+        MetaParser.registerLanguageParser("cached", "Cached", cached, "value");
+        MetaParser.registerLanguageParser("uncached", "Uncached", uncached, "value");
+    }
+
+    @AfterMethod
+    public void unregisterParsers() {
+        MetaParser.unregisterLanguageParser("cached");
+        MetaParser.unregisterLanguageParser("uncached");
+    }
+
+    @Test
+    public void testParsedExpressionsAreCached() throws ParsingException {
+        long hits = MetaParser.getCacheHitCount();
+        long misses = MetaParser.getCacheMissCount();
+
+        Evaluable first = MetaParser.parse("cached:a");
+        assertSame(MetaParser.parse("cached:a"), first);
+        assertNotSame(MetaParser.parse("cached:b"), first);
+        assertEquals(cached.parsed, 2);
+        assertEquals(MetaParser.getCacheHitCount() - hits, 1);
+        assertEquals(MetaParser.getCacheMissCount() - misses, 2);
+
+        MetaParser.clearCache();
+        assertNotSame(MetaParser.parse("cached:a"), first);
+        assertEquals(cached.parsed, 3);
+    }
+
+    @Test
+    public void testParsingErrorsAreNotCached() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                MetaParser.parse("cached:");
+            } catch (ParsingException e) {
+                // expected
+            }
+        }
+        assertEquals(cached.parsed, 2);
+    }
+
+    @Test
+    public void testLanguagesCanOptOut() throws ParsingException {
+        assertNotSame(MetaParser.parse("uncached:a"), MetaParser.parse("uncached:a"));
+        assertEquals(uncached.parsed, 2);
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.RefineTest;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class ChangeJournalTests extends RefineTest {
+
+    FileProjectManager manager;
+    Project project;
+    File projectDir;
+
+    @BeforeMethod
+    public void setUpManager() throws IOException, ModelException {
+        manager = new FileProjectManager(TestUtils.createTempDirectory("openrefine-journal-test"));
+        ProjectManager.singleton = manager;
+        manager.getPreferenceStore().put(ChangeJournal.MAX_ENTRIES_PREF, 100);
+
+        project = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("journal");
+        manager.registerProject(project, metadata);
+        project.columnModel.addColumn(0, new Column(0, "a"), true);
+        for (int i = 0; i != 3; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell("v" + i, null));
+            project.rows.add(row);
+        }
+        project.update();
+        projectDir = manager.getProjectDir(project.id);
+
+        manager.saveProject(project);
+    }
+
+    private void edit(int rowIndex, Serializable value) {
+        Cell oldCell = project.rows.get(rowIndex).getCell(0);
+        CellChange change = new CellChange(rowIndex, 0, oldCell, new Cell(value, null));
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "edit", null, change));
+    }
+
+    private Project reload() {
+        return manager.loadProject(project.id);
+    }
+
+    @Test
+    public void testChangesAreAppendedToJournal() throws IOException {
+        File dataFile = new File(projectDir, ProjectUtilities.DATA_ZIP);
+        long snapshotSize = dataFile.length();
+        File journalFile = new File(projectDir, ChangeJournal.JOURNAL_FILE);
+        assertFalse(journalFile.exists());
+
+        edit(1, "changed");
+        manager.saveProject(project);
+
+        assertTrue(journalFile.exists());
+        assertEquals(dataFile.length(), snapshotSize);
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(1).getCellValue(0), "changed");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+    }
+
+    @Test
+    public void testUndoAndRedoAreReplayed() throws IOException {
+        edit(0, "first");
+        edit(2, "second");
+        manager.saveProject(project);
+
+        long firstId = project.history.getLastPastEntries(0).get(0).id;
+        project.history.undoRedo(firstId);
+        manager.saveProject(project);
+
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "first");
+        assertEquals(loaded.rows.get(2).getCellValue(0), "v2");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+        assertEquals(loaded.history.getFutureEntries().size(), 1);
+
+        // redo after reloading
+        project.history.undoRedo(project.history.getFutureEntries().get(0).id);
+        manager.saveProject(project);
+        loaded = reload();
+        assertEquals(loaded.rows.get(2).getCellValue(0), "second");
+        assertEquals(loaded.history.getFutureEntries().size(), 0);
+    }
+
+    @Test
+    public void testDiscardedUndoneEntryForcesSnapshot() throws IOException {
+        edit(0, "first");
+        manager.saveProject(project);
+
+        project.history.undoRedo(0);
+        edit(1, "other");
+        manager.saveProject(project);
+
+        assertFalse(new File(projectDir, ChangeJournal.JOURNAL_FILE).exists());
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "v0");
+        assertEquals(loaded.rows.get(1).getCellValue(0), "other");
+    }
+
+    @Test
+    public void testUndoneEntryDiscardedAfterSaveIsReplayed() throws IOException {
+        edit(0, "first");
+        manager.saveProject(project);
+        HistoryEntry first = project.history.getLastPastEntries(0).get(0);
+
+        project.history.undoRedo(0);
+        manager.saveProject(project);
+
+        edit(1, "other");
+        manager.saveProject(project);
+
+        // earlier batches of the journal still refer to the data of the discarded entry
+        assertTrue(new File(projectDir, ChangeJournal.JOURNAL_FILE).exists());
+        assertTrue(new FileHistoryEntryManager().getChangeFile(first).exists());
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "v0");
+        assertEquals(loaded.rows.get(1).getCellValue(0), "other");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+        assertEquals(loaded.history.getFutureEntries().size(), 0);
+
+        // the data is deleted once the project is saved in full
+        manager.getPreferenceStore().put(ChangeJournal.MAX_ENTRIES_PREF, 0);
+        edit(2, "last");
+        manager.saveProject(project);
+        assertFalse(new File(projectDir, ChangeJournal.JOURNAL_FILE).exists());
+        assertFalse(new FileHistoryEntryManager().getChangeFile(first).exists());
+        loaded = reload();
+        assertEquals(loaded.rows.get(1).getCellValue(0), "other");
+        assertEquals(loaded.rows.get(2).getCellValue(0), "last");
+    }
+
+    @Test
+    public void testDiscardedEntryDataIsDeletedAfterRestart() throws IOException {
+        edit(0, "first");
+        manager.saveProject(project);
+        HistoryEntry first = project.history.getLastPastEntries(0).get(0);
+        project.history.undoRedo(0);
+        manager.saveProject(project);
+        edit(1, "other");
+        manager.saveProject(project);
+
+        // after a restart, replaying the journal lists the discarded entry again
+        Project loaded = reload();
+        assertEquals(loaded.history.getDiscardedEntries().size(), 1);
+        assertEquals(loaded.history.getDiscardedEntries().get(0).id, first.id);
+
+        // a recently modified project is left alone
+        ProjectMetadata metadata = mock(ProjectMetadata.class);
+        when(metadata.getModified()).thenReturn(Instant.now());
+        manager.registerProject(loaded, metadata);
+        manager.compactProjects(null);
+        assertTrue(new FileHistoryEntryManager().getChangeFile(first).exists());
+
+        // once the project is idle, its journal is folded into a full save and the data of the entry is deleted
+        when(metadata.getModified()).thenReturn(Instant.EPOCH);
+        manager.compactProjects(null);
+        assertFalse(new File(projectDir, ChangeJournal.JOURNAL_FILE).exists());
+        assertFalse(new FileHistoryEntryManager().getChangeFile(first).exists());
+        assertTrue(loaded.history.getDiscardedEntries().isEmpty());
+        Project reloaded = reload();
+        assertEquals(reloaded.rows.get(0).getCellValue(0), "v0");
+        assertEquals(reloaded.rows.get(1).getCellValue(0), "other");
+    }
+
+    @Test
+    public void testJournalIsDisabledByDefault() throws IOException {
+        manager.getPreferenceStore().put(ChangeJournal.MAX_ENTRIES_PREF, null);
+
+        edit(0, "changed");
+        manager.saveProject(project);
+
+        assertFalse(new File(projectDir, ChangeJournal.JOURNAL_FILE).exists());
+        assertEquals(reload().rows.get(0).getCellValue(0), "changed");
+    }
+
+    @Test
+    public void testJournalIsCompactedPastThreshold() throws IOException {
+        manager.getPreferenceStore().put(ChangeJournal.MAX_ENTRIES_PREF, 2);
+        File journalFile = new File(projectDir, ChangeJournal.JOURNAL_FILE);
+
+        edit(0, "a");
+        edit(1, "b");
+        manager.saveProject(project);
+        assertTrue(journalFile.exists());
+
+        edit(2, "c");
+        manager.saveProject(project);
+        assertFalse(journalFile.exists());
+
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(2).getCellValue(0), "c");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 3);
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineServlet;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+import com.google.refine.util.TestUtils;
+
+public class ColumnarRowFormatTests extends RefineTest {
+
+    private Project createTestProject() {
+        Recon recon = testRecon("Paris", "Q90", Recon.Judgment.Matched);
+        Project project = createProject(new String[] { "a", "b", "c" },
+                new Serializable[][] {
+                        { "United States", 12L, new Cell("Paris", recon) },
+                        { "United States", 3.5, null },
+                        { "France", true, OffsetDateTime.of(2024, 2, 29, 10, 30, 0, 1000, ZoneOffset.ofHours(2)) },
+                        { new Cell(null, recon), -7, new EvalError("boom") },
+                        { "", new BigDecimal("1.000000000000000000001"), LocalDateTime.of(2001, 1, 1, 0, 0) },
+                });
+        project.rows.get(1).flagged = true;
+        project.rows.get(2).starred = true;
+        project.rows.get(3).cells.add(null);
+        return project;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Project project = createTestProject();
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ColumnarRowFormat.save(project.rows, out, pool);
+        List<Row> rows = ColumnarRowFormat.load(new ByteArrayInputStream(out.toByteArray()), pool);
+
+        assertEquals(rows.size(), project.rows.size());
+        for (int i = 0; i != rows.size(); i++) {
+            Row expected = project.rows.get(i);
+            Row actual = rows.get(i);
+            assertEquals(actual.flagged, expected.flagged);
+            assertEquals(actual.starred, expected.starred);
+            assertEquals(actual.cells.size(), expected.cells.size());
+            for (int j = 0; j != actual.cells.size(); j++) {
+                Cell expectedCell = expected.cells.get(j);
+                Cell actualCell = actual.cells.get(j);
+                if (expectedCell == null) {
+                    assertNull(actualCell);
+                } else if (expectedCell.value instanceof EvalError) {
+                    assertEquals(((EvalError) actualCell.value).message, ((EvalError) expectedCell.value).message);
+                } else {
+                    assertEquals(actualCell, expectedCell);
+                    assertEquals(actualCell.value == null ? null : actualCell.value.getClass(),
+                            expectedCell.value == null ? null : expectedCell.value.getClass());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStringsAreSharedWithinColumn() throws IOException {
+        Project project = createTestProject();
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ColumnarRowFormat.save(project.rows, out, pool);
+        List<Row> rows = ColumnarRowFormat.load(new ByteArrayInputStream(out.toByteArray()), pool);
+
+        assertSame(rows.get(0).getCellValue(0), rows.get(1).getCellValue(0));
+        assertSame(rows.get(0).getCell(2).recon, rows.get(3).getCell(0).recon);
+    }
+
+    @Test
+    public void testInvalidInput() {
+        assertThrows(IOException.class,
+                () -> ColumnarRowFormat.load(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }), new Pool()));
+    }
+
+    @Test
+    public void testSaveAndLoadProject() throws IOException {
+        Project project = createTestProject();
+        File dir = TestUtils.createTempDirectory("openrefine-columnar-test");
+        File columnarFile = new File(dir, "columnar.zip");
+        File jsonFile = new File(dir, "json.zip");
+
+        ProjectUtilities.saveToFile(project, columnarFile, true);
+        ProjectUtilities.saveToFile(project, jsonFile, false);
+
+        try (ZipFile zip = new ZipFile(columnarFile)) {
+            assertTrue(zip.getEntry(ProjectUtilities.ROWS_ENTRY) != null);
+        }
+        try (ZipFile zip = new ZipFile(jsonFile)) {
+            assertFalse(zip.getEntry(ProjectUtilities.ROWS_ENTRY) != null);
+        }
+
+        Project fromColumnar = ProjectUtilities.loadFromFile(columnarFile, project.id);
+        Project fromJson = ProjectUtilities.loadFromFile(jsonFile, project.id);
+        assertProjectEquals(fromColumnar, project);
+        assertEquals(fromColumnar.rows.size(), fromJson.rows.size());
+        assertEquals(fromColumnar.columnModel.getMaxCellIndex(), fromJson.columnModel.getMaxCellIndex());
+        assertEquals(fromColumnar.recordModel.getRecordCount(), fromJson.recordModel.getRecordCount());
+    }
+
+    @Test
+    public void testJsonRowsByDefault() {
+        assertFalse(ProjectUtilities.isColumnarRowFormat());
+    }
+
+    @Test
+    public void testRejectUnknownFormatVersion() throws IOException {
+        String data = RefineServlet.VERSION + "\n"
+                + "formatVersion=" + (Project.EXTERNAL_ROWS_FORMAT_VERSION + 1) + "\n"
+                + "externalRowCount=0\n";
+        assertThrows(IOException.class, () -> Project.loadFromInputStream(
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), 1234L, new Pool(), new ArrayList<>()));
+    }
+}
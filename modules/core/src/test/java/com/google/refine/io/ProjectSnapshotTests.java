@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.TestUtils;
+
+public class ProjectSnapshotTests extends RefineTest {
+
+    @Test
+    public void testChangesAfterSnapshotAreNotWritten() throws IOException {
+        File dir = TestUtils.createTempDirectory("openrefine-snapshot-test");
+        for (boolean columnar : new boolean[] { true, false }) {
+            Project project = createProject(new String[] { "a", "b" },
+                    new Serializable[][] {
+                            { "x", 1 },
+                            { "y", 2 },
+                    });
+            ProjectSnapshot snapshot = ProjectSnapshot.take(project);
+            Row shared = project.rows.get(0);
+
+            project.getRowForUpdate(0).setCell(0, new Cell("changed", null));
+            project.getRowForUpdate(0).setCell(1, new Cell("again", null));
+            project.getRowForUpdate(1).flagged = true;
+            project.rows.add(new Row(2));
+
+            // rows modified while the snapshot shares them are copied once
+            assertNotSame(project.rows.get(0), shared);
+            assertEquals(shared.getCellValue(0), "x");
+
+            File file = new File(dir, columnar ? "columnar.zip" : "json.zip");
+            snapshot.writeTo(file, columnar);
+
+            Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+            assertEquals(loaded.rows.size(), 2);
+            assertEquals(loaded.rows.get(0).getCellValue(0), "x");
+            assertEquals(loaded.rows.get(1).getCellValue(1), 2);
+            assertEquals(loaded.rows.get(1).flagged, false);
+
+            // once the snapshot is written, rows are modified in place again
+            Row row = project.rows.get(1);
+            assertSame(project.getRowForUpdate(1), row);
+        }
+    }
+
+    @Test
+    public void testLastSaveIsSnapshotTime() {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                });
+        Instant time = Instant.now().plusSeconds(60);
+
+        project.setLastSave(time);
+        assertEquals(project.getLastSave(), time);
+        // an older snapshot finishing later does not move the save time backwards
+        project.setLastSave(time.minusSeconds(30));
+        assertEquals(project.getLastSave(), time);
+        assertTrue(project.getLastSave().isAfter(Instant.now()));
+    }
+}
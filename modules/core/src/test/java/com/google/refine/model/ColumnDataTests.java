@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.util.ColumnNominalValueGrouper;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.expr.Evaluable;
+
+public class ColumnDataTests extends RefineTest {
+
+    private static final Evaluable VALUE = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public String getSource() {
+            return "value";
+        }
+
+        @Override
+        public String getLanguagePrefix() {
+            return "grel";
+        }
+    };
+
+    @Test
+    public void testValues() {
+        OffsetDateTime date = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Recon recon = testRecon("Paris", "Q90", Recon.Judgment.Matched);
+        Project project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", 1 },
+                        { "y", 2L },
+                        { new Cell("x", recon), 2.5 },
+                        { null, true },
+                        { "", date },
+                });
+        Column a = project.columnModel.getColumnByName("a");
+        Column b = project.columnModel.getColumnByName("b");
+
+        ColumnData strings = ColumnData.get(project, a);
+        assertTrue(strings.isStringsOnly());
+        assertEquals(strings.size(), 5);
+        assertEquals(strings.getDictionarySize(), 3);
+        assertEquals(strings.getStringId(0), strings.getStringId(2));
+        assertEquals(strings.getKind(3), ColumnData.NO_CELL);
+        assertNull(strings.getCell(3));
+        assertEquals(strings.getCell(2), project.rows.get(2).getCell(0));
+        assertSame(strings.getRecon(2), recon);
+        assertNull(strings.getRecon(0));
+
+        ColumnData mixed = ColumnData.get(project, b);
+        assertFalse(mixed.isStringsOnly());
+        for (int i = 0; i < project.rows.size(); i++) {
+            assertEquals(mixed.getValue(i), project.rows.get(i).getCellValue(b.getCellIndex()));
+        }
+        assertEquals(mixed.getKind(0), ColumnData.INTEGER);
+        assertEquals(mixed.getKind(1), ColumnData.LONG);
+        assertEquals(mixed.getDouble(2), 2.5);
+        assertEquals(mixed.getKind(4), ColumnData.OTHER);
+    }
+
+    @Test
+    public void testInvalidation() {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        Column column = project.columnModel.getColumnByName("a");
+        ColumnData data = ColumnData.get(project, column);
+        assertSame(ColumnData.get(project, column), data);
+
+        project.rows.get(0).setCell(0, new Cell("z", null));
+        project.markContentChanged();
+        // the stale copy is not kept until the column is scanned again
+        assertNull(column.getPrecompute(ColumnData.PRECOMPUTE_KEY));
+        assertEquals(column.estimateDerivedDataSize(), 0L);
+
+        ColumnData updated = ColumnData.get(project, column);
+        assertNotSame(updated, data);
+        assertEquals(updated.getValue(0), "z");
+    }
+
+    @Test
+    public void testCountedInProjectSize() {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                        { 1 },
+                });
+        long rowsSize = ProjectSizeEstimator.estimate(project);
+        ColumnData data = ColumnData.get(project, project.columnModel.getColumnByName("a"));
+
+        assertTrue(data.estimateSize() > 0);
+        assertEquals(ProjectSizeEstimator.estimate(project), rowsSize + data.estimateSize());
+    }
+
+    @Test
+    public void testGrouperMatchesExpressionGrouper() {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                        { "x" },
+                        { "" },
+                        { null },
+                });
+        ColumnData data = ColumnData.get(project, project.columnModel.getColumnByName("a"));
+
+        ExpressionNominalValueGrouper expected = new ExpressionNominalValueGrouper(VALUE, "a", 0);
+        ColumnNominalValueGrouper actual = new ColumnNominalValueGrouper(VALUE, "a", data);
+        Engine engine = new Engine(project);
+        engine.getAllFilteredRows().accept(project, expected);
+        engine.getAllFilteredRows().accept(project, actual);
+
+        assertEquals(actual.choices.keySet(), expected.choices.keySet());
+        for (String value : new String[] { "x", "y" }) {
+            assertEquals(actual.choices.get(value).count, expected.choices.get(value).count);
+        }
+        assertEquals(actual.blankCount, expected.blankCount);
+        assertEquals(actual.blankCount, 2);
+    }
+
+    @Test
+    public void testGrouperMatchesExpressionGrouperInRecordsMode() {
+        Project project = createProject(new String[] { "key", "a" },
+                new Serializable[][] {
+                        { "k1", "x" },
+                        { null, "x" },
+                        { null, "y" },
+                        { "k2", "x" },
+                        { null, "" },
+                });
+        ColumnData data = ColumnData.get(project, project.columnModel.getColumnByName("a"));
+
+        ExpressionNominalValueGrouper expected = new ExpressionNominalValueGrouper(VALUE, "a", 1);
+        ColumnNominalValueGrouper actual = new ColumnNominalValueGrouper(VALUE, "a", data);
+        Engine engine = new Engine(project);
+        engine.setMode(Engine.Mode.RecordBased);
+        engine.getAllRecords().accept(project, expected);
+        engine.getAllRecords().accept(project, actual);
+
+        assertEquals(actual.choices.keySet(), expected.choices.keySet());
+        for (String value : new String[] { "x", "y" }) {
+            assertEquals(actual.choices.get(value).count, expected.choices.get(value).count);
+        }
+        assertEquals(actual.choices.get("x").count, 3);
+        assertEquals(actual.blankCount, expected.blankCount);
+    }
+}
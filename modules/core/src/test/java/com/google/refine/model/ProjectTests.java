@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.util.Pool;
+
+public class ProjectTests extends RefineTest {
+
+    @Test
+    public void testLoadRowsInParallelChunks() throws IOException {
+        int rowCount = 3 * Project.ROW_LOADING_CHUNK_SIZE + 17;
+        Serializable[][] grid = new Serializable[rowCount][];
+        for (int i = 0; i != rowCount; i++) {
+            grid[i] = new Serializable[] { "row " + i, i % 2 == 0 ? null : i };
+        }
+        Project project = createProject(new String[] { "a", "b" }, grid);
+        Recon recon = testRecon("a", "Q1", Recon.Judgment.Matched);
+        project.rows.get(rowCount - 1).setCell(0, new Cell("reconciled", recon));
+        project.rows.get(5).flagged = true;
+
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        project.saveToOutputStream(out, pool);
+        Project loaded = Project.loadFromInputStream(new ByteArrayInputStream(out.toByteArray()), project.id, pool);
+
+        assertProjectEquals(loaded, project);
+        assertEquals(loaded.rows.get(5).flagged, true);
+        assertSame(loaded.rows.get(rowCount - 1).getCell(0).recon, pool.getRecon(Long.toString(recon.id)));
+        assertEquals(loaded.columnModel.getMaxCellIndex(), 1);
+    }
+}
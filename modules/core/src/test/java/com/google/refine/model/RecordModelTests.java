@@ -27,7 +27,12 @@
 
 package com.google.refine.model;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
 import java.io.Serializable;
+import java.util.Random;
 
 import org.testng.annotations.Test;
 
@@ -46,4 +51,88 @@ public class RecordModelTests extends RefineTest {
                 });
         TestUtils.isSerializedTo(proj.recordModel, "{\"hasRecords\":true}");
     }
+
+    private void assertSameRecords(RecordModel actual, RecordModel expected) {
+        assertEquals(actual.getRecordCount(), expected.getRecordCount());
+        for (int i = 0; i < expected.getRecordCount(); i++) {
+            Record expectedRecord = expected.getRecord(i);
+            Record actualRecord = actual.getRecord(i);
+            assertEquals(actualRecord.fromRowIndex, expectedRecord.fromRowIndex);
+            assertEquals(actualRecord.toRowIndex, expectedRecord.toRowIndex);
+            assertEquals(actualRecord.recordIndex, expectedRecord.recordIndex);
+        }
+        assertEquals(actual.hasRecords(), expected.hasRecords());
+    }
+
+    @Test
+    public void testRecords() {
+        Project proj = createProject(
+                new String[] { "key", "val" },
+                new Serializable[][] {
+                        { "a", "1" },
+                        { null, "2" },
+                        { null, null },
+                        { "b", "3" },
+                        { null, "4" },
+                });
+
+        RecordModel model = proj.recordModel;
+        assertEquals(model.getRecordCount(), 3);
+        assertEquals(model.getRecord(0).toRowIndex, 2);
+        // a blank row starts a record
+        assertEquals(model.getRecord(1).fromRowIndex, 2);
+        assertEquals(model.getRecordOfRow(4).recordIndex, 2);
+        assertEquals(model.getRecordOfRow(1).recordIndex, 0);
+        assertNull(model.getRecordOfRow(5));
+        assertNull(model.getRecord(3));
+        assertEquals(model.getRowDependency(1).contextRows.get(0).intValue(), 0);
+        assertEquals(model.getRowDependency(3).recordIndex, 2);
+    }
+
+    @Test
+    public void testIncrementalUpdateMatchesRebuild() {
+        Random random = new Random(42);
+        Serializable[][] values = new Serializable[200][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Serializable[] {
+                    random.nextInt(4) == 0 ? "k" + i : null,
+                    random.nextBoolean() ? "v" : null,
+                    random.nextBoolean() ? "w" : "" };
+        }
+        Project proj = createProject(new String[] { "key", "val", "other" }, values);
+
+        for (int step = 0; step < 50; step++) {
+            int cellIndex = random.nextInt(3);
+            int[] rowIndices = new int[1 + random.nextInt(5)];
+            for (int i = 0; i < rowIndices.length; i++) {
+                rowIndices[i] = random.nextInt(values.length);
+                Serializable value = random.nextBoolean() ? (cellIndex == 0 ? "k" + step : "x") : null;
+                proj.rows.get(rowIndices[i]).setCell(cellIndex, new Cell(value, null));
+            }
+            proj.updateCells(cellIndex, rowIndices);
+
+            RecordModel rebuilt = new RecordModel();
+            rebuilt.update(proj);
+            assertSameRecords(proj.recordModel, rebuilt);
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdateOfDependentCell() {
+        Project proj = createProject(
+                new String[] { "key", "val" },
+                new Serializable[][] {
+                        { "a", "1" },
+                        { null, null },
+                        { null, "2" },
+                });
+        assertEquals(proj.recordModel.getRecordCount(), 2);
+
+        proj.rows.get(1).setCell(1, new Cell("filled", null));
+        proj.updateCells(1, new int[] { 1 });
+
+        assertEquals(proj.recordModel.getRecordCount(), 1);
+        assertEquals(proj.recordModel.getRecord(0).toRowIndex, 3);
+        assertFalse(proj.recordModel.getRowDependency(1).recordIndex >= 0);
+    }
 }
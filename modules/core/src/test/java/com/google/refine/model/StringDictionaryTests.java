@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+import com.google.refine.util.Pool;
+
+public class StringDictionaryTests extends RefineTest {
+
+    @Test
+    public void testIntern() {
+        StringDictionary dictionary = new StringDictionary(true);
+        String first = new String("United States");
+        String second = new String("United States");
+
+        assertSame(dictionary.intern(first), first);
+        assertSame(dictionary.intern(second), first);
+        assertEquals(dictionary.size(), 1);
+
+        Cell cell = new Cell(new String("United States"), null);
+        assertSame(dictionary.intern(cell).value, first);
+        Cell number = new Cell(12, null);
+        assertSame(dictionary.intern(number), number);
+    }
+
+    @Test
+    public void testLongStringsAndDisabledDictionary() {
+        StringDictionary dictionary = new StringDictionary(true);
+        String longString = "x".repeat(StringDictionary.MAX_LENGTH + 1);
+        dictionary.intern(longString);
+        assertNotSame(dictionary.intern(new String(longString)), longString);
+
+        StringDictionary disabled = new StringDictionary(false);
+        String value = "France";
+        disabled.intern(value);
+        assertNotSame(disabled.intern(new String(value)), value);
+        assertEquals(disabled.size(), 0);
+    }
+
+    @Test
+    public void testRowsLoadedWithPoolShareValues() throws Exception {
+        Pool pool = new Pool();
+        Row first = Row.load("{\"flagged\":false,\"starred\":false,\"cells\":[{\"v\":\"United States\"}]}", pool);
+        Row second = Row.load("{\"flagged\":false,\"starred\":false,\"cells\":[{\"v\":\"United States\"}]}", pool);
+
+        assertSame(first.getCellValue(0), second.getCellValue(0));
+    }
+
+    @Test
+    public void testMassCellChangeInternsValues() {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "France" },
+                        { "Spain" },
+                });
+        String value = project.getStringDictionary().intern("France");
+        Cell newCell = new Cell(new String("France"), null);
+        CellChange cellChange = new CellChange(1, 0, project.rows.get(1).getCell(0), newCell);
+
+        new MassCellChange(Collections.singletonList(cellChange), null, false).apply(project);
+
+        assertSame(project.rows.get(1).getCellValue(0), value);
+    }
+
+    @Test
+    public void testLoadedProjectUsesPoolDictionary() throws Exception {
+        Project project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "United States", "United States" },
+                        { "United States", "France" },
+                });
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        project.saveToOutputStream(out, pool);
+
+        Project loaded = Project.loadFromInputStream(new ByteArrayInputStream(out.toByteArray()), project.id, new Pool());
+
+        assertSame(loaded.rows.get(0).getCellValue(0), loaded.rows.get(1).getCellValue(0));
+        assertSame(loaded.rows.get(0).getCellValue(1), loaded.rows.get(0).getCellValue(0));
+        assertEquals(loaded.getStringDictionary().size(), 2);
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+public class SortedOrderTests extends RefineTest {
+
+    Project project;
+    SortingConfig sortingConfig;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        project = createProject(new String[] { "key", "value" },
+                new Serializable[][] {
+                        { "a", "d" },
+                        { null, "b" },
+                        { "c", "a" },
+                        { "e", "c" },
+                        { null, "e" },
+                });
+        sortingConfig = SortingConfig.reconstruct("{\"criteria\":[{\"column\":\"value\",\"valueType\":\"string\","
+                + "\"reverse\":false,\"blankPosition\":2,\"errorPosition\":1,\"caseSensitive\":false}]}");
+    }
+
+    @Test
+    public void testRowOrder() {
+        Engine engine = new Engine(project);
+        SortedOrder order = SortedOrder.get(project, engine, sortingConfig);
+
+        assertEquals(order.size(), 5);
+        assertEquals(order.getRowCount(), 5);
+        assertEquals(order.getPosition(3), 3);
+        assertEquals(order.getPosition(8), 5);
+
+        List<Integer> rowIndices = new ArrayList<>();
+        order.accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rowIndices.add(rowIndex);
+                return false;
+            }
+        }, 1, 4);
+        assertEquals(rowIndices, List.of(1, 3, 0));
+    }
+
+    @Test
+    public void testRecordOrder() {
+        Engine engine = new Engine(project);
+        engine.setMode(Engine.Mode.RecordBased);
+        SortedOrder order = SortedOrder.get(project, engine, sortingConfig);
+
+        // records are sorted by their smallest value: "a" for record 1 (rows 2), "b" for record 0 (rows 0-1)
+        assertEquals(order.size(), 3);
+        assertEquals(order.getRowCount(), 5);
+        assertEquals(order.getPosition(1), 1);
+        assertEquals(order.getPosition(2), 2);
+        assertEquals(order.getPosition(3), 2);
+
+        List<Integer> recordIndices = new ArrayList<>();
+        List<Integer> paginationIndices = new ArrayList<>();
+        order.accept(project, new RecordVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, Record record) {
+                return false;
+            }
+
+            @Override
+            public boolean visit(Project project, int sortedStartRowIndex, Record record) {
+                recordIndices.add(record.recordIndex);
+                paginationIndices.add(sortedStartRowIndex);
+                return false;
+            }
+        }, 0, 3);
+        assertEquals(recordIndices, List.of(1, 0, 2));
+        assertEquals(paginationIndices, List.of(0, 1, 3));
+    }
+
+    @Test
+    public void testOrderIsCachedUntilContentChanges() throws Exception {
+        Engine engine = new Engine(project);
+        SortedOrder order = SortedOrder.get(project, engine, sortingConfig);
+        assertSame(SortedOrder.get(project, engine, sortingConfig), order);
+
+        SortingConfig reversed = SortingConfig.reconstruct("{\"criteria\":[{\"column\":\"value\",\"valueType\":\"string\","
+                + "\"reverse\":true,\"blankPosition\":2,\"errorPosition\":1,\"caseSensitive\":false}]}");
+        assertNotSame(SortedOrder.get(project, engine, reversed), order);
+
+        order = SortedOrder.get(project, engine, sortingConfig);
+        project.markContentChanged();
+        assertNotSame(SortedOrder.get(project, engine, sortingConfig), order);
+    }
+
+    @Test
+    public void testPartialOrdersMatchFullOrder() throws Exception {
+        Serializable[][] grid = new Serializable[3 * SortedOrder.PARTIAL_SIZE][];
+        for (int i = 0; i < grid.length; i++) {
+            // few distinct values, so that the order of ties matters, and some records spanning several rows
+            grid[i] = new Serializable[] { i % 3 == 1 ? null : "k" + i, i % 11 == 0 ? null : "v" + (i * 7919 % 97) };
+        }
+        project = createProject(new String[] { "key", "value" }, grid);
+
+        for (Engine.Mode mode : Engine.Mode.values()) {
+            Engine engine = new Engine(project);
+            engine.setMode(mode);
+            SortedOrder full = SortedOrder.compute(project, engine, sortingConfig, null, 0, -1, false);
+            int totalRows = full.getRowCount();
+
+            SortedOrder first = SortedOrder.compute(project, engine, sortingConfig, null, 0, SortedOrder.PARTIAL_SIZE,
+                    false);
+            assertTrue(first.isPartial());
+            assertEquals(first.size(), full.size());
+            assertEquals(first.getRowCount(), totalRows);
+            assertEquals(visit(first, first.getPage(0, -1, 20), mode), visit(full, full.getPage(0, -1, 20), mode));
+            assertEquals(visit(first, first.getPage(200, -1, 20), mode), visit(full, full.getPage(200, -1, 20), mode));
+            assertNull(first.getPage(totalRows - 10, -1, 20));
+
+            SortedOrder last = SortedOrder.compute(project, engine, sortingConfig, null, 0, SortedOrder.PARTIAL_SIZE,
+                    true);
+            assertTrue(last.isPartial());
+            assertEquals(visit(last, last.getPage(-1, totalRows, 20), mode), visit(full, full.getPage(-1, totalRows, 20), mode));
+            assertEquals(visit(last, last.getPage(-1, totalRows - 30, 20), mode),
+                    visit(full, full.getPage(-1, totalRows - 30, 20), mode));
+            assertNull(last.getPage(0, -1, 20));
+        }
+    }
+
+    private List<Integer> visit(SortedOrder order, int[] page, Engine.Mode mode) {
+        List<Integer> visited = new ArrayList<>();
+        if (mode == Engine.Mode.RecordBased) {
+            order.accept(project, new RecordVisitor() {
+
+                @Override
+                public void start(Project project) {
+                }
+
+                @Override
+                public void end(Project project) {
+                }
+
+                @Override
+                public boolean visit(Project project, Record record) {
+                    return false;
+                }
+
+                @Override
+                public boolean visit(Project project, int sortedStartRowIndex, Record record) {
+                    visited.add(record.recordIndex);
+                    visited.add(sortedStartRowIndex);
+                    return false;
+                }
+            }, page[0], page[1]);
+        } else {
+            order.accept(project, new RowVisitor() {
+
+                @Override
+                public void start(Project project) {
+                }
+
+                @Override
+                public void end(Project project) {
+                }
+
+                @Override
+                public boolean visit(Project project, int rowIndex, Row row) {
+                    return false;
+                }
+
+                @Override
+                public boolean visit(Project project, int rowIndex, int sortedRowIndex, Row row) {
+                    visited.add(rowIndex);
+                    visited.add(sortedRowIndex);
+                    return false;
+                }
+            }, page[0], page[1]);
+        }
+        return visited;
+    }
+
+    @Test
+    public void testNoCriteria() {
+        assertNull(SortedOrder.get(project, new Engine(project), new SortingConfig(new Criterion[0])));
+    }
+}
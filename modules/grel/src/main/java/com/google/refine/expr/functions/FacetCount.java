@@ -73,7 +73,15 @@ public class FacetCount implements Function {
                     grouper = new ExpressionNominalValueGrouper(eval, columnName, column.getCellIndex());
                     engine.getAllRows().accept(project, grouper);
 
-                    column.setPrecompute(key, grouper);
+                    // when the counts are computed by several threads at once, they all use the first ones cached
+                    synchronized (column) {
+                        Object cached = column.getPrecompute(key);
+                        if (cached != null) {
+                            grouper = (ExpressionNominalValueGrouper) cached;
+                        } else {
+                            column.setPrecompute(key, grouper);
+                        }
+                    }
                 } catch (ParsingException e) {
                     return new EvalError(EvalErrorMessage.fun_facet_count_error_parsing_facet(facetExpression));
                 }
@@ -36,6 +36,7 @@ package com.google.refine.expr.functions.strings;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
@@ -76,6 +77,18 @@ public class Match implements Function {
         return new EvalError(EvalErrorMessage.expects_one_regex(ControlFunctionRegistry.getFunctionName(this)));
     }
 
+    @Override
+    public Object prepareConstantArgument(int index, Object value) {
+        if (index == 1 && value instanceof String) {
+            try {
+                return Pattern.compile((String) value);
+            } catch (PatternSyntaxException e) {
+                // report the error when the function is called
+            }
+        }
+        return value;
+    }
+
     @Override
     public String getDescription() {
         return FunctionDescription.str_match();
@@ -50,31 +50,14 @@ import com.google.refine.grel.FunctionDescription;
 public class Phonetic implements Function {
 
     // TODO deprecate and drop those legacy encodings?
-    static private Metaphone metaphone = null;
-    static private DoubleMetaphone doubleMetaphone = null;
-    static private Soundex soundex = null;
-
-    private Metaphone getMetaphone() {
-        if (metaphone == null) {
-            metaphone = new Metaphone();
-            metaphone.setMaxCodeLen(2000);
-        }
-        return metaphone;
-    }
-
-    private DoubleMetaphone getDoubleMetaphone() {
-        if (doubleMetaphone == null) {
-            doubleMetaphone = new DoubleMetaphone();
-            doubleMetaphone.setMaxCodeLen(2000);
-        }
-        return doubleMetaphone;
-    }
-
-    private Soundex getSoundex() {
-        if (soundex == null) {
-            soundex = new Soundex();
-        }
-        return soundex;
+    // the encoders are configured before being shared, as the function can be called by several threads at once
+    static private final Metaphone metaphone = new Metaphone();
+    static private final DoubleMetaphone doubleMetaphone = new DoubleMetaphone();
+    static private final Soundex soundex = new Soundex();
+
+    static {
+        metaphone.setMaxCodeLen(2000);
+        doubleMetaphone.setMaxCodeLen(2000);
     }
 
     @Override
@@ -101,11 +84,11 @@ public class Phonetic implements Function {
         }
         if (args.length < 3) {
             if ("doublemetaphone".equalsIgnoreCase(encoding)) {
-                return getDoubleMetaphone().doubleMetaphone(str);
+                return doubleMetaphone.doubleMetaphone(str);
             } else if ("metaphone".equalsIgnoreCase(encoding)) {
-                return getMetaphone().metaphone(str);
+                return metaphone.metaphone(str);
             } else if ("soundex".equalsIgnoreCase(encoding)) {
-                return getSoundex().soundex(str);
+                return soundex.soundex(str);
             } else {
                 Keyer keyer = KeyerFactory.get(encoding.toLowerCase());
                 if (keyer != null) {
@@ -35,6 +35,7 @@ package com.google.refine.grel;
 
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -51,6 +52,15 @@ public interface Control {
 
     public String checkArguments(Evaluable[] args);
 
+    /**
+     * Whether the control is pure: it does not bind any variable, and its result only depends on the results of its
+     * arguments, without any side effect.
+     */
+    @JsonIgnore
+    default public boolean isPure() {
+        return false;
+    }
+
     @JsonProperty("description")
     public String getDescription();
 
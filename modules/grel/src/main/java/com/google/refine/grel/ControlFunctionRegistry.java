@@ -35,6 +35,7 @@ package com.google.refine.grel;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -171,6 +172,11 @@ public class ControlFunctionRegistry {
     static private Map<String, Function> s_nameToFunction = new HashMap<String, Function>();
     static private Map<Function, String> s_functionToName = new HashMap<Function, String>();
 
+    // classes of the functions whose result only depends on their arguments
+    static private Set<Class<? extends Function>> s_pureFunctionClasses = new HashSet<>();
+    // classes of the functions which can be called by several threads at once
+    static private Set<Class<? extends Function>> s_threadSafeFunctionClasses = new HashSet<>();
+
     static private Map<String, Control> s_nameToControl = new HashMap<String, Control>();
     static private Map<Control, String> s_controlToName = new HashMap<Control, String>();
 
@@ -211,142 +217,181 @@ public class ControlFunctionRegistry {
         s_functionToName.put(f, name);
     }
 
+    /**
+     * Registers a pure function: its result only depends on its arguments, it does not modify them and has no other
+     * side effects, and it returns immutable values such as strings or numbers, rather than arrays or JSON objects. Calls
+     * to pure functions on constant arguments are evaluated once when the expression is compiled, and repeated calls
+     * with the same arguments can share their result. Pure functions must also be thread-safe, see
+     * {@link #registerThreadSafeFunction(String, Function)}.
+     */
+    static public void registerPureFunction(String name, Function f) {
+        registerThreadSafeFunction(name, f);
+        s_pureFunctionClasses.add(f.getClass());
+    }
+
+    /**
+     * Registers a function which can be called by several threads at once, each with its own bindings, because it
+     * keeps no state between calls or guards it. Expressions calling other functions, such as those registered by
+     * extensions with {@link #registerFunction(String, Function)}, are evaluated on a single thread.
+     */
+    static public void registerThreadSafeFunction(String name, Function f) {
+        registerFunction(name, f);
+        s_threadSafeFunctionClasses.add(f.getClass());
+    }
+
+    /**
+     * @return whether the function was registered as pure, see {@link #registerPureFunction(String, Function)}
+     */
+    static public boolean isPureFunction(Function f) {
+        return s_pureFunctionClasses.contains(f.getClass());
+    }
+
+    /**
+     * @return whether the function was registered as thread-safe, see
+     *         {@link #registerThreadSafeFunction(String, Function)}
+     */
+    static public boolean isThreadSafeFunction(Function f) {
+        return s_threadSafeFunctionClasses.contains(f.getClass());
+    }
+
     static public void registerControl(String name, Control c) {
         s_nameToControl.put(name, c);
         s_controlToName.put(c, name);
     }
 
     static {
-        registerFunction("coalesce", new Coalesce());
-        registerFunction("type", new Type());
+        registerPureFunction("coalesce", new Coalesce());
+        registerPureFunction("type", new Type());
 
-        registerFunction("toString", new ToString());
-        registerFunction("toNumber", new ToNumber());
-        registerFunction("toDate", new ToDate());
-        registerFunction("timeSinceUnixEpochToDate", new TimeSinceUnixEpochToDate());
+        registerPureFunction("toString", new ToString());
+        registerPureFunction("toNumber", new ToNumber());
+        registerThreadSafeFunction("toDate", new ToDate());
+        registerPureFunction("timeSinceUnixEpochToDate", new TimeSinceUnixEpochToDate());
 
-        registerFunction("toUppercase", new ToUppercase());
-        registerFunction("toLowercase", new ToLowercase());
-        registerFunction("toTitlecase", new ToTitlecase());
+        registerPureFunction("toUppercase", new ToUppercase());
+        registerPureFunction("toLowercase", new ToLowercase());
+        registerPureFunction("toTitlecase", new ToTitlecase());
 
+        // loads the language profiles lazily
         registerFunction("detectLanguage", new DetectLanguage());
 
-        registerFunction("hasField", new HasField());
-        registerFunction("get", new Get());
-        registerFunction("slice", new Slice());
-        registerFunction("substring", new Slice());
-        registerFunction("replace", new Replace());
-        registerFunction("replaceChars", new ReplaceChars());
-        registerFunction("replaceEach", new ReplaceEach());
-        registerFunction("range", new Range());
-        registerFunction("split", new Split());
-        registerFunction("smartSplit", new SmartSplit());
-        registerFunction("splitByCharType", new SplitByCharType());
-        registerFunction("splitByLengths", new SplitByLengths());
-        registerFunction("partition", new Partition());
-        registerFunction("rpartition", new RPartition());
-        registerFunction("trim", new Trim());
-        registerFunction("strip", new Trim());
-        registerFunction("contains", new Contains());
-        registerFunction("escape", new Escape());
-        registerFunction("unescape", new Unescape());
-        registerFunction("encode", new Encode());
-        registerFunction("decode", new Decode());
-        registerFunction("length", new Length());
-        registerFunction("sha1", new SHA1());
-        registerFunction("md5", new MD5());
-        registerFunction("unicode", new Unicode());
-        registerFunction("unicodeType", new UnicodeType());
-        registerFunction("diff", new Diff());
-        registerFunction("chomp", new Chomp());
-        registerFunction("fingerprint", new Fingerprint());
-        registerFunction("ngramFingerprint", new NGramFingerprint());
-        registerFunction("phonetic", new Phonetic());
-        registerFunction("reinterpret", new Reinterpret());
-        registerFunction("jsonize", new Jsonize());
-        registerFunction("parseJson", new ParseJson());
-        registerFunction("ngram", new NGram());
-        registerFunction("match", new Match());
-        registerFunction("find", new Find());
-        registerFunction("levenshteinDistance", new LevenshteinDistance());
-        registerFunction("normalize", new Normalize());
-
-        registerFunction("parseUri", new ParseUri());
+        registerPureFunction("hasField", new HasField());
+        registerThreadSafeFunction("get", new Get());
+        registerThreadSafeFunction("slice", new Slice());
+        registerThreadSafeFunction("substring", new Slice());
+        registerPureFunction("replace", new Replace());
+        registerPureFunction("replaceChars", new ReplaceChars());
+        registerPureFunction("replaceEach", new ReplaceEach());
+        registerThreadSafeFunction("range", new Range());
+        registerThreadSafeFunction("split", new Split());
+        registerThreadSafeFunction("smartSplit", new SmartSplit());
+        registerThreadSafeFunction("splitByCharType", new SplitByCharType());
+        registerThreadSafeFunction("splitByLengths", new SplitByLengths());
+        registerThreadSafeFunction("partition", new Partition());
+        registerThreadSafeFunction("rpartition", new RPartition());
+        registerPureFunction("trim", new Trim());
+        registerPureFunction("strip", new Trim());
+        registerPureFunction("contains", new Contains());
+        registerPureFunction("escape", new Escape());
+        registerPureFunction("unescape", new Unescape());
+        registerPureFunction("encode", new Encode());
+        registerPureFunction("decode", new Decode());
+        registerPureFunction("length", new Length());
+        registerPureFunction("sha1", new SHA1());
+        registerPureFunction("md5", new MD5());
+        registerThreadSafeFunction("unicode", new Unicode());
+        registerPureFunction("unicodeType", new UnicodeType());
+        registerPureFunction("diff", new Diff());
+        registerPureFunction("chomp", new Chomp());
+        registerPureFunction("fingerprint", new Fingerprint());
+        registerPureFunction("ngramFingerprint", new NGramFingerprint());
+        registerPureFunction("phonetic", new Phonetic());
+        registerThreadSafeFunction("reinterpret", new Reinterpret());
+        registerPureFunction("jsonize", new Jsonize());
+        registerThreadSafeFunction("parseJson", new ParseJson());
+        registerThreadSafeFunction("ngram", new NGram());
+        registerThreadSafeFunction("match", new Match());
+        registerThreadSafeFunction("find", new Find());
+        registerPureFunction("levenshteinDistance", new LevenshteinDistance());
+        registerPureFunction("normalize", new Normalize());
+
+        registerThreadSafeFunction("parseUri", new ParseUri());
 
         // XML and HTML functions from JSoup
-        registerFunction("parseXml", new ParseXml());
-        registerFunction("parseHtml", new ParseHtml());
-        registerFunction("select", new SelectXml());
-        registerFunction("xmlAttr", new XmlAttr());
-        registerFunction("htmlAttr", new XmlAttr());
-        registerFunction("xmlText", new XmlText());
-        registerFunction("htmlText", new XmlText());
-        registerFunction("innerXml", new InnerXml());
-        registerFunction("innerHtml", new InnerHtml());
-        registerFunction("ownText", new OwnText());
-        registerFunction("wholeText", new WholeText());
-        registerFunction("parent", new Parent());
-        registerFunction("scriptText", new ScriptText());
-
-        registerFunction("indexOf", new IndexOf());
-        registerFunction("lastIndexOf", new LastIndexOf());
-        registerFunction("startsWith", new StartsWith());
-        registerFunction("endsWith", new EndsWith());
-        registerFunction("join", new Join());
-        registerFunction("reverse", new Reverse());
-        registerFunction("sort", new Sort());
-        registerFunction("uniques", new Uniques());
-        registerFunction("inArray", new InArray());
-        registerFunction("zip", new Zip());
-
-        registerFunction("now", new Now());
-        registerFunction("inc", new Inc());
-        registerFunction("datePart", new DatePart());
-
-        registerFunction("acos", new ACos());
-        registerFunction("asin", new ASin());
-        registerFunction("atan", new ATan());
-        registerFunction("atan2", new ATan2());
-        registerFunction("cos", new Cos());
-        registerFunction("cosh", new Cosh());
-        registerFunction("sin", new Sin());
-        registerFunction("sinh", new Sinh());
-        registerFunction("tan", new Tan());
-        registerFunction("tanh", new Tanh());
-        registerFunction("round", new Round());
-        registerFunction("floor", new Floor());
-        registerFunction("ceil", new Ceil());
-        registerFunction("even", new Even());
-        registerFunction("odd", new Odd());
-        registerFunction("abs", new Abs());
-        registerFunction("mod", new Mod());
-        registerFunction("max", new Max());
-        registerFunction("min", new Min());
-        registerFunction("log", new Log());
-        registerFunction("ln", new Ln());
-        registerFunction("pow", new Pow());
-        registerFunction("exp", new Exp());
-        registerFunction("sum", new Sum());
-        registerFunction("fact", new Fact());
-        registerFunction("factn", new FactN());
-        registerFunction("combin", new Combin());
-        registerFunction("degrees", new Degrees());
-        registerFunction("radians", new Radians());
-        registerFunction("randomNumber", new RandomNumber());
-        registerFunction("random", new RandomNumber());
-        registerFunction("gcd", new GreatestCommonDenominator());
-        registerFunction("lcm", new LeastCommonMultiple());
-        registerFunction("multinomial", new Multinomial());
-        registerFunction("quotient", new Quotient());
-
-        registerFunction("and", new And());
-        registerFunction("or", new Or());
-        registerFunction("not", new Not());
-        registerFunction("xor", new Xor());
-
+        registerThreadSafeFunction("parseXml", new ParseXml());
+        registerThreadSafeFunction("parseHtml", new ParseHtml());
+        registerThreadSafeFunction("select", new SelectXml());
+        registerThreadSafeFunction("xmlAttr", new XmlAttr());
+        registerThreadSafeFunction("htmlAttr", new XmlAttr());
+        registerThreadSafeFunction("xmlText", new XmlText());
+        registerThreadSafeFunction("htmlText", new XmlText());
+        registerThreadSafeFunction("innerXml", new InnerXml());
+        registerThreadSafeFunction("innerHtml", new InnerHtml());
+        registerThreadSafeFunction("ownText", new OwnText());
+        registerThreadSafeFunction("wholeText", new WholeText());
+        registerThreadSafeFunction("parent", new Parent());
+        registerThreadSafeFunction("scriptText", new ScriptText());
+
+        registerPureFunction("indexOf", new IndexOf());
+        registerPureFunction("lastIndexOf", new LastIndexOf());
+        registerPureFunction("startsWith", new StartsWith());
+        registerPureFunction("endsWith", new EndsWith());
+        registerPureFunction("join", new Join());
+        registerThreadSafeFunction("reverse", new Reverse());
+        registerThreadSafeFunction("sort", new Sort());
+        registerThreadSafeFunction("uniques", new Uniques());
+        registerPureFunction("inArray", new InArray());
+        registerThreadSafeFunction("zip", new Zip());
+
+        registerThreadSafeFunction("now", new Now());
+        registerPureFunction("inc", new Inc());
+        registerPureFunction("datePart", new DatePart());
+
+        registerPureFunction("acos", new ACos());
+        registerPureFunction("asin", new ASin());
+        registerPureFunction("atan", new ATan());
+        registerPureFunction("atan2", new ATan2());
+        registerPureFunction("cos", new Cos());
+        registerPureFunction("cosh", new Cosh());
+        registerPureFunction("sin", new Sin());
+        registerPureFunction("sinh", new Sinh());
+        registerPureFunction("tan", new Tan());
+        registerPureFunction("tanh", new Tanh());
+        registerPureFunction("round", new Round());
+        registerPureFunction("floor", new Floor());
+        registerPureFunction("ceil", new Ceil());
+        registerPureFunction("even", new Even());
+        registerPureFunction("odd", new Odd());
+        registerPureFunction("abs", new Abs());
+        registerPureFunction("mod", new Mod());
+        registerPureFunction("max", new Max());
+        registerPureFunction("min", new Min());
+        registerPureFunction("log", new Log());
+        registerPureFunction("ln", new Ln());
+        registerPureFunction("pow", new Pow());
+        registerPureFunction("exp", new Exp());
+        registerPureFunction("sum", new Sum());
+        registerPureFunction("fact", new Fact());
+        registerPureFunction("factn", new FactN());
+        registerPureFunction("combin", new Combin());
+        registerPureFunction("degrees", new Degrees());
+        registerPureFunction("radians", new Radians());
+        registerThreadSafeFunction("randomNumber", new RandomNumber());
+        registerThreadSafeFunction("random", new RandomNumber());
+        registerPureFunction("gcd", new GreatestCommonDenominator());
+        registerPureFunction("lcm", new LeastCommonMultiple());
+        registerPureFunction("multinomial", new Multinomial());
+        registerPureFunction("quotient", new Quotient());
+
+        registerPureFunction("and", new And());
+        registerPureFunction("or", new Or());
+        registerPureFunction("not", new Not());
+        registerPureFunction("xor", new Xor());
+
+        // caches the lookups of other projects in an unsynchronized map
         registerFunction("cross", new Cross());
 
-        registerFunction("facetCount", new FacetCount());
+        registerThreadSafeFunction("facetCount", new FacetCount());
 
         registerControl("if", new If());
         registerControl("with", new With());
@@ -47,6 +47,20 @@ public interface Function {
 
     public Object call(Properties bindings, Object[] args);
 
+    /**
+     * Prepares a constant argument of this function for repeated calls, for instance by compiling a regular expression
+     * given as a string. Calls with the prepared argument must return the same results as with the original one.
+     *
+     * @param index
+     *            the position of the argument
+     * @param value
+     *            the constant value of the argument
+     * @return the prepared argument
+     */
+    default public Object prepareConstantArgument(int index, Object value) {
+        return value;
+    }
+
     @JsonProperty("description")
     public String getDescription();
 
@@ -47,6 +47,7 @@ import com.google.refine.grel.Scanner.Token;
 import com.google.refine.grel.Scanner.TokenType;
 import com.google.refine.grel.ast.ArrayExpr;
 import com.google.refine.grel.ast.BracketedExpr;
+import com.google.refine.grel.ast.CompiledExpr;
 import com.google.refine.grel.ast.ControlCallExpr;
 import com.google.refine.grel.ast.FieldAccessorExpr;
 import com.google.refine.grel.ast.FunctionCallExpr;
@@ -61,7 +62,8 @@ public class Parser {
         @Override
         public Evaluable parse(String source, String languagePrefix) throws ParsingException {
             Parser parser = new Parser(source);
-            return parser.getExpression();
+            Evaluable expression = parser.getExpression();
+            return CompiledExpr.isEnabled() ? CompiledExpr.compile(expression) : expression;
         }
     };
 
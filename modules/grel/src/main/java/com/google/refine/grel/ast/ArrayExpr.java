@@ -32,6 +32,17 @@ public class ArrayExpr extends FunctionCallExpr {
         return new ArrayExpr(translatedArgs);
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // building the array is thread-safe
+        for (Evaluable arg : _args) {
+            if (!arg.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
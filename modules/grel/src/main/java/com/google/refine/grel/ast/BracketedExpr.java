@@ -30,6 +30,21 @@ public class BracketedExpr extends GrelExpr {
         return inner.evaluate(bindings);
     }
 
+    @Override
+    public boolean isPureFunctionOfValue() {
+        return inner.isPureFunctionOfValue();
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        return inner.isPureFunctionOfRow();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return inner.isThreadSafe();
+    }
+
     @Override
     public Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
         return inner.getColumnDependencies(baseColumn);
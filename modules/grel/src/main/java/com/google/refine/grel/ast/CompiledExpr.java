@@ -0,0 +1,548 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import java.text.Collator;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.expr.BindingFrame;
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.HasFields;
+import com.google.refine.expr.util.JsonValueConverter;
+import com.google.refine.grel.Control;
+import com.google.refine.grel.ControlFunctionRegistry;
+import com.google.refine.grel.Function;
+
+/**
+ * A GREL expression compiled to a tree of closures, each specialized for the operator, function arity or variable slot
+ * of the corresponding syntax tree node. This saves the dispatching done by the interpreter at each evaluation. Nodes
+ * which cannot be compiled, such as those contributed by extensions, are evaluated by the interpreter.
+ * <p>
+ * Compilation also optimizes the expression:
+ * <ul>
+ * <li>calls to pure functions and operators on constant arguments are evaluated once, if their result is
+ * immutable;</li>
+ * <li>constant function arguments are prepared with {@link Function#prepareConstantArgument(int, Object)}, which
+ * compiles regular expressions given as strings for instance;</li>
+ * <li>pure function calls which occur several times outside of controls are only evaluated once per evaluation of the
+ * expression.</li>
+ * </ul>
+ * Compiled expressions evaluate to the same results as the syntax tree they are compiled from, which they delegate all
+ * other methods to.
+ */
+public class CompiledExpr extends GrelExpr {
+
+    static public final String ENABLED_PREF = "grel.compile";
+
+    /**
+     * A compiled node, evaluated with the temporaries holding the common subexpressions of the current evaluation.
+     */
+    protected interface Node {
+
+        Object evaluate(Properties bindings, Object[] temps);
+    }
+
+    /**
+     * A node with a constant value.
+     */
+    static protected class Constant implements Node {
+
+        final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings, Object[] temps) {
+            return value;
+        }
+    }
+
+    // marks a common subexpression which evaluated to null
+    static private final Object NULL = new Object();
+
+    final protected Evaluable _expr;
+    final protected Node _root;
+    final protected int _tempCount;
+
+    protected CompiledExpr(Evaluable expr) {
+        Compiler compiler = new Compiler(expr);
+        _expr = expr;
+        _root = compiler.node(expr);
+        _tempCount = compiler.tempCount;
+    }
+
+    /**
+     * Compiles a GREL syntax tree.
+     *
+     * @return the compiled expression, or the given evaluable itself if it is not a GREL syntax tree
+     */
+    static public Evaluable compile(Evaluable expr) {
+        if (expr instanceof CompiledExpr || !(expr instanceof GrelExpr)) {
+            return expr;
+        }
+        return new CompiledExpr(expr);
+    }
+
+    /**
+     * @return whether parsed GREL expressions should be compiled, as set by the {@link #ENABLED_PREF} preference
+     */
+    static public boolean isEnabled() {
+        if (ProjectManager.singleton == null || ProjectManager.singleton.getPreferenceStore() == null) {
+            return true;
+        }
+        Object v = ProjectManager.singleton.getPreferenceStore().get(ENABLED_PREF);
+        if (v != null) {
+            if (v instanceof Boolean) {
+                return (Boolean) v;
+            } else {
+                return !"false".equalsIgnoreCase(v.toString());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the syntax tree this expression was compiled from
+     */
+    public Evaluable getExpression() {
+        return _expr;
+    }
+
+    @Override
+    public Object evaluate(Properties bindings) {
+        return _root.evaluate(bindings, _tempCount == 0 ? null : new Object[_tempCount]);
+    }
+
+    @Override
+    public Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
+        return _expr.getColumnDependencies(baseColumn);
+    }
+
+    @Override
+    public boolean isPureFunctionOfValue() {
+        return _expr.isPureFunctionOfValue();
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        return _expr.isPureFunctionOfRow();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _expr.isThreadSafe();
+    }
+
+    @Override
+    public Evaluable renameColumnDependencies(Map<String, String> substitutions) {
+        return compile(_expr.renameColumnDependencies(substitutions));
+    }
+
+    @Override
+    public String toString() {
+        return _expr.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return _expr.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompiledExpr && _expr.equals(((CompiledExpr) obj)._expr);
+    }
+
+    /**
+     * @return whether a value can be shared between evaluations, which excludes arrays and JSON objects as they can be
+     *         modified
+     */
+    static protected boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Long
+                || value instanceof Integer || value instanceof Double || value instanceof Pattern
+                || value instanceof OffsetDateTime;
+    }
+
+    /*
+     * Compilation
+     */
+
+    static protected class Compiler {
+
+        // number of occurrences of the pure function calls outside of controls
+        final Map<Evaluable, Integer> counts = new HashMap<>();
+        // temporaries of the calls occurring several times
+        final Map<Evaluable, Integer> temps = new HashMap<>();
+        int tempCount = 0;
+
+        Compiler(Evaluable expr) {
+            count(expr);
+        }
+
+        void count(Evaluable expr) {
+            Class<?> c = expr.getClass();
+            if (c == BracketedExpr.class) {
+                count(((BracketedExpr) expr).inner);
+            } else if (c == FieldAccessorExpr.class) {
+                count(((FieldAccessorExpr) expr)._inner);
+            } else if (c == OperatorCallExpr.class) {
+                for (Evaluable arg : ((OperatorCallExpr) expr)._args) {
+                    count(arg);
+                }
+            } else if (c == FunctionCallExpr.class || c == ArrayExpr.class) {
+                FunctionCallExpr call = (FunctionCallExpr) expr;
+                if (ControlFunctionRegistry.isPureFunction(call._function)) {
+                    counts.merge(expr, 1, Integer::sum);
+                }
+                for (Evaluable arg : call._args) {
+                    count(arg);
+                }
+            }
+        }
+
+        Node node(Evaluable expr) {
+            Class<?> c = expr.getClass();
+            if (c == LiteralExpr.class) {
+                return new Constant(((LiteralExpr) expr)._value);
+            } else if (c == VariableExpr.class) {
+                return variable((VariableExpr) expr);
+            } else if (c == BracketedExpr.class) {
+                return node(((BracketedExpr) expr).inner);
+            } else if (c == FieldAccessorExpr.class) {
+                return fieldAccessor((FieldAccessorExpr) expr);
+            } else if (c == OperatorCallExpr.class) {
+                return operatorCall((OperatorCallExpr) expr);
+            } else if (c == FunctionCallExpr.class || c == ArrayExpr.class) {
+                Node node = functionCall((FunctionCallExpr) expr);
+                if (!(node instanceof Constant) && counts.getOrDefault(expr, 0) > 1) {
+                    return shared(expr, node);
+                }
+                return node;
+            } else if (c == ControlCallExpr.class) {
+                return controlCall((ControlCallExpr) expr);
+            }
+            return (bindings, temps) -> expr.evaluate(bindings);
+        }
+
+        Node shared(Evaluable expr, Node node) {
+            int temp = temps.computeIfAbsent(expr, e -> tempCount++);
+            return (bindings, temps) -> {
+                Object value = temps[temp];
+                if (value == null) {
+                    value = node.evaluate(bindings, temps);
+                    temps[temp] = value == null ? NULL : value;
+                    return value;
+                }
+                return value == NULL ? null : value;
+            };
+        }
+
+        Node variable(VariableExpr expr) {
+            String name = expr._name;
+            int slot = expr._slot;
+            if (slot < 0) {
+                return (bindings, temps) -> bindings.get(name);
+            }
+            return (bindings, temps) -> bindings instanceof BindingFrame ? ((BindingFrame) bindings).get(slot)
+                    : bindings.get(name);
+        }
+
+        Node fieldAccessor(FieldAccessorExpr expr) {
+            Node inner = node(expr._inner);
+            String fieldName = expr._fieldName;
+            return (bindings, temps) -> {
+                Object o = inner.evaluate(bindings, temps);
+                if (ExpressionUtils.isError(o)) {
+                    return o;
+                } else if (o == null) {
+                    return null;
+                } else if (o instanceof HasFields) {
+                    return ((HasFields) o).getField(fieldName, bindings);
+                } else if (o instanceof ObjectNode) {
+                    return JsonValueConverter.convert(((ObjectNode) o).get(fieldName));
+                } else {
+                    return null;
+                }
+            };
+        }
+
+        Node functionCall(FunctionCallExpr expr) {
+            Function function = expr._function;
+            Node[] args = new Node[expr._args.length];
+            boolean constant = true;
+            for (int i = 0; i < args.length; i++) {
+                args[i] = node(expr._args[i]);
+                constant = constant && args[i] instanceof Constant;
+            }
+            if (constant && ControlFunctionRegistry.isPureFunction(function)) {
+                Object[] values = new Object[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    values[i] = ((Constant) args[i]).value;
+                }
+                Object result = call(function, null, values);
+                if (!ExpressionUtils.isError(result) && isImmutable(result)) {
+                    return new Constant(result);
+                }
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof Constant) {
+                    args[i] = new Constant(function.prepareConstantArgument(i, ((Constant) args[i]).value));
+                }
+            }
+
+            // the arguments are passed in a new array for each call, as functions may keep it
+            switch (args.length) {
+                case 0:
+                    return (bindings, temps) -> call(function, bindings, new Object[0]);
+                case 1: {
+                    Node a0 = args[0];
+                    return (bindings, temps) -> {
+                        Object v0 = a0.evaluate(bindings, temps);
+                        if (ExpressionUtils.isError(v0)) {
+                            return v0;
+                        }
+                        return call(function, bindings, new Object[] { v0 });
+                    };
+                }
+                case 2: {
+                    Node a0 = args[0];
+                    Node a1 = args[1];
+                    return (bindings, temps) -> {
+                        Object v0 = a0.evaluate(bindings, temps);
+                        if (ExpressionUtils.isError(v0)) {
+                            return v0;
+                        }
+                        Object v1 = a1.evaluate(bindings, temps);
+                        if (ExpressionUtils.isError(v1)) {
+                            return v1;
+                        }
+                        return call(function, bindings, new Object[] { v0, v1 });
+                    };
+                }
+                default:
+                    return (bindings, temps) -> {
+                        Object[] values = new Object[args.length];
+                        for (int i = 0; i < args.length; i++) {
+                            Object v = args[i].evaluate(bindings, temps);
+                            if (ExpressionUtils.isError(v)) {
+                                return v;
+                            }
+                            values[i] = v;
+                        }
+                        return call(function, bindings, values);
+                    };
+            }
+        }
+
+        Node controlCall(ControlCallExpr expr) {
+            Control control = expr._control;
+            // controls look at the syntax of their arguments, such as the names of the variables they bind, and
+            // evaluate them with their own bindings, so each argument is compiled separately
+            Evaluable[] args = new Evaluable[expr._args.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = expr._args[i] instanceof VariableExpr ? expr._args[i] : compile(expr._args[i]);
+            }
+            return (bindings, temps) -> {
+                try {
+                    return control.call(bindings, args);
+                } catch (Exception e) {
+                    return new EvalError(e.toString());
+                }
+            };
+        }
+
+        Node operatorCall(OperatorCallExpr expr) {
+            BinaryOperator<Object> operation = expr._args.length == 2 ? operation(expr._op) : null;
+            if (operation == null) {
+                return (bindings, temps) -> expr.evaluate(bindings);
+            }
+            Node left = node(expr._args[0]);
+            Node right = node(expr._args[1]);
+            Node node = (bindings, temps) -> {
+                Object a = left.evaluate(bindings, temps);
+                if (ExpressionUtils.isError(a)) {
+                    return a;
+                }
+                Object b = right.evaluate(bindings, temps);
+                if (ExpressionUtils.isError(b)) {
+                    return b;
+                }
+                return operation.apply(a, b);
+            };
+            if (left instanceof Constant && right instanceof Constant) {
+                try {
+                    Object result = node.evaluate(null, null);
+                    if (!ExpressionUtils.isError(result) && isImmutable(result)) {
+                        return new Constant(result);
+                    }
+                } catch (RuntimeException e) {
+                    // evaluate it each time, to fail the same way as the interpreter
+                }
+            }
+            return node;
+        }
+    }
+
+    static private Object call(Function function, Properties bindings, Object[] args) {
+        try {
+            return function.call(bindings, args);
+        } catch (Exception e) {
+            return new EvalError(e);
+        }
+    }
+
+    /*
+     * Operators, with the same semantics as in OperatorCallExpr
+     */
+
+    private interface LongOperation {
+
+        Object apply(long a, long b);
+    }
+
+    private interface DoubleOperation {
+
+        Object apply(double a, double b);
+    }
+
+    static private final ThreadLocal<Collator> s_collator = ThreadLocal.withInitial(() -> {
+        Collator collator = Collator.getInstance();
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    });
+
+    static protected BinaryOperator<Object> operation(String op) {
+        switch (op) {
+            case "+":
+                return (a, b) -> {
+                    if (a != null && b != null) {
+                        if (isIntegral(a) && isIntegral(b)) {
+                            return ((Number) a).longValue() + ((Number) b).longValue();
+                        } else if (a instanceof Number && b instanceof Number) {
+                            return ((Number) a).doubleValue() + ((Number) b).doubleValue();
+                        } else if (a instanceof String || b instanceof String) {
+                            return a.toString() + b.toString();
+                        }
+                    }
+                    return null;
+                };
+            case "-":
+                return arithmetic((n1, n2) -> n1 - n2, (n1, n2) -> n1 - n2);
+            case "*":
+                return arithmetic((n1, n2) -> n1 * n2, (n1, n2) -> n1 * n2);
+            case "/":
+                return arithmetic((n1, n2) -> {
+                    if (n2 == 0) {
+                        if (n1 == 0) {
+                            return Double.NaN;
+                        } else {
+                            return n1 > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+                        }
+                    }
+                    return n1 / n2;
+                }, (n1, n2) -> n2 == 0 && n1 == 0 ? Double.NaN : n1 / n2);
+            case "%":
+                return arithmetic((n1, n2) -> n1 % n2, (n1, n2) -> n1 % n2);
+            case ">":
+                return comparison((n1, n2) -> n1 > n2, (n1, n2) -> n1 > n2, c -> c > 0, null);
+            case ">=":
+                return comparison((n1, n2) -> n1 >= n2, (n1, n2) -> n1 >= n2, c -> c >= 0, null);
+            case "<":
+                return comparison((n1, n2) -> n1 < n2, (n1, n2) -> n1 < n2, c -> c < 0, null);
+            case "<=":
+                return comparison((n1, n2) -> n1 <= n2, (n1, n2) -> n1 <= n2, c -> c <= 0, null);
+            case "==":
+                return comparison((n1, n2) -> n1 == n2, (n1, n2) -> n1 == n2, c -> c == 0, true);
+            case "!=":
+                return comparison((n1, n2) -> n1 != n2, (n1, n2) -> n1 != n2, c -> c != 0, false);
+            default:
+                return null;
+        }
+    }
+
+    static private BinaryOperator<Object> arithmetic(LongOperation longOperation, DoubleOperation doubleOperation) {
+        return (a, b) -> {
+            if (a != null && b != null) {
+                if (isIntegral(a) && isIntegral(b)) {
+                    return longOperation.apply(((Number) a).longValue(), ((Number) b).longValue());
+                } else if (a instanceof Number && b instanceof Number) {
+                    return doubleOperation.apply(((Number) a).doubleValue(), ((Number) b).doubleValue());
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * @param equality
+     *            null for orderings, true for equality and false for inequality, which also apply to values which
+     *            cannot be compared
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static private BinaryOperator<Object> comparison(LongOperation longOperation, DoubleOperation doubleOperation,
+            IntPredicate comparison, Boolean equality) {
+        return (a, b) -> {
+            if (a != null && b != null) {
+                if (isIntegral(a) && isIntegral(b)) {
+                    return longOperation.apply(((Number) a).longValue(), ((Number) b).longValue());
+                } else if (a instanceof Number && b instanceof Number) {
+                    return doubleOperation.apply(((Number) a).doubleValue(), ((Number) b).doubleValue());
+                } else if (a instanceof String && b instanceof String) {
+                    return comparison.test(s_collator.get().compare((String) a, (String) b));
+                } else if (a instanceof Comparable && b instanceof Comparable
+                        && (a.getClass().isAssignableFrom(b.getClass()) || b.getClass().isAssignableFrom(a.getClass()))) {
+                    return comparison.test(((Comparable) a).compareTo(b));
+                }
+            }
+            if (equality != null) {
+                boolean equal = a != null ? a.equals(b) : b == null;
+                return equal == equality;
+            }
+            return null;
+        };
+    }
+
+    static private boolean isIntegral(Object n) {
+        return n instanceof Long || n instanceof Integer;
+    }
+}
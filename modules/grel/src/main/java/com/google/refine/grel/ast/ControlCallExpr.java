@@ -87,6 +87,42 @@ public class ControlCallExpr extends GrelExpr {
         }
     }
 
+    @Override
+    public boolean isPureFunctionOfValue() {
+        if (!_control.isPure()) {
+            return false;
+        }
+        for (Evaluable arg : _args) {
+            if (!arg.isPureFunctionOfValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        if (!_control.isPure()) {
+            return false;
+        }
+        for (Evaluable arg : _args) {
+            if (!arg.isPureFunctionOfRow()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        for (Evaluable arg : _args) {
+            if (!arg.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public final Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
         Set<String> dependencies = new HashSet<>();
@@ -79,6 +79,21 @@ public class FieldAccessorExpr extends GrelExpr {
         }
     }
 
+    @Override
+    public boolean isPureFunctionOfValue() {
+        return _inner.isPureFunctionOfValue();
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        return _inner.isPureFunctionOfRow();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _inner.isThreadSafe();
+    }
+
     @Override
     public Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
         Optional<Set<String>> innerDeps = _inner.getColumnDependencies(baseColumn);
@@ -49,6 +49,7 @@ import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.functions.Get;
+import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.Function;
 
 /**
@@ -112,6 +113,45 @@ public class FunctionCallExpr extends GrelExpr {
         }
     }
 
+    @Override
+    public boolean isPureFunctionOfValue() {
+        if (!ControlFunctionRegistry.isPureFunction(_function)) {
+            return false;
+        }
+        for (Evaluable arg : _args) {
+            if (!arg.isPureFunctionOfValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        if (!ControlFunctionRegistry.isPureFunction(_function)) {
+            return false;
+        }
+        for (Evaluable arg : _args) {
+            if (!arg.isPureFunctionOfRow()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        if (!ControlFunctionRegistry.isThreadSafeFunction(_function)) {
+            return false;
+        }
+        for (Evaluable arg : _args) {
+            if (!arg.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public final Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
         // special case to handle "get(cells, "foo")" which only depends on the "foo" column
@@ -207,6 +207,36 @@ public class OperatorCallExpr extends GrelExpr {
         return null;
     }
 
+    @Override
+    public boolean isPureFunctionOfValue() {
+        for (Evaluable arg : _args) {
+            if (!arg.isPureFunctionOfValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        for (Evaluable arg : _args) {
+            if (!arg.isPureFunctionOfRow()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        for (Evaluable arg : _args) {
+            if (!arg.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public final Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
         Set<String> dependencies = new HashSet<>();
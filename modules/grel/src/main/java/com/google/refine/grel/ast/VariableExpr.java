@@ -39,6 +39,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 
+import com.google.refine.expr.BindingFrame;
 import com.google.refine.expr.Evaluable;
 
 /**
@@ -47,10 +48,13 @@ import com.google.refine.expr.Evaluable;
 public class VariableExpr extends GrelExpr {
 
     final protected String _name;
+    // the slot holding the variable in binding frames, if any
+    final protected int _slot;
 
     public VariableExpr(String name) {
         if (name != null || !name.isEmpty()) {
             _name = name;
+            _slot = BindingFrame.getSlot(name);
         } else {
             throw new IllegalArgumentException("Illegal variable name ");
         }
@@ -58,9 +62,22 @@ public class VariableExpr extends GrelExpr {
 
     @Override
     public Object evaluate(Properties bindings) {
+        if (_slot >= 0 && bindings instanceof BindingFrame) {
+            return ((BindingFrame) bindings).get(_slot);
+        }
         return bindings.get(_name);
     }
 
+    @Override
+    public boolean isPureFunctionOfValue() {
+        return "value".equals(_name) || "true".equals(_name) || "false".equals(_name) || "PI".equals(_name);
+    }
+
+    @Override
+    public boolean isPureFunctionOfRow() {
+        return true;
+    }
+
     @Override
     public Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
         if (("value".equals(_name) || "cell".equals(_name) || "recon".equals(_name)) && baseColumn.isPresent()) {
@@ -70,6 +70,11 @@ public class If implements Control {
         return ControlDescription.if_desc();
     }
 
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
     @Override
     public String getParams() {
         return "expression o, expression eTrue, expression eFalse";
@@ -62,6 +62,11 @@ abstract class IsTest implements Control {
         return test(o);
     }
 
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
     @Override
     public String getParams() {
         return "expression o";
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.expr.functions.strings.Match;
+import com.google.refine.grel.ControlFunctionRegistry;
+import com.google.refine.grel.Function;
+import com.google.refine.grel.Parser;
+import com.google.refine.model.Project;
+
+public class CompiledExprTest {
+
+    private static final Object[] VALUES = { null, 0, 3L, -3, 2.5, 0.0, Double.NaN, "a", "B", "10", true, false,
+            new EvalError("error") };
+    private static final String[] OPERATORS = { "+", "-", "*", "/", "%", "<", "<=", ">", ">=", "==", "!=", "<>" };
+
+    @Test
+    public void testOperatorsMatchInterpreter() {
+        Properties bindings = new Properties();
+        for (String op : OPERATORS) {
+            for (Object a : VALUES) {
+                for (Object b : VALUES) {
+                    Evaluable expr = new OperatorCallExpr(new Evaluable[] {
+                            new LiteralExpr(a, "a"), new LiteralExpr(b, "b") }, op);
+                    Evaluable compiled = CompiledExpr.compile(expr);
+                    assertEquals(evaluate(compiled, bindings), evaluate(expr, bindings), a + " " + op + " " + b);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExpressionsMatchInterpreter() throws ParsingException {
+        String[] sources = {
+                "value.trim().toUppercase()",
+                "value + ' ' + rowIndex",
+                "if(value.length() > 3, value[0, 3], value)",
+                "forEach(value.split(' '), v, v.length()).join(',')",
+                "with(value, value, value + 1)",
+                "[value, rowIndex, 1.5].join('|')",
+                "cells.a.value",
+                "parseJson('{\"a\": {\"b\": 2}}').a.b * rowIndex",
+                "value.foo",
+                "toNumber(value) / 0",
+                "and(true, PI > 3)",
+                "value.match('(\\w+) (\\w+)')",
+                "value.match('(')",
+                "'a,b'.split(',').join('|') + value",
+                "value.toLowercase() + value.toLowercase().length()",
+                "forEach([1, 2], v, value.toString() + v + value.toString())",
+        };
+        Properties bindings = ExpressionUtils.createBindings(new Project());
+        bindings.put("rowIndex", 4);
+        bindings.put("cells", Map.of());
+        for (String source : sources) {
+            Evaluable expr = new Parser(source).getExpression();
+            Evaluable compiled = CompiledExpr.compile(expr);
+            assertTrue(compiled instanceof CompiledExpr, source);
+            assertEquals(compiled.toString(), expr.toString());
+            for (Object value : new Object[] { " some text ", "abcd", 12L }) {
+                bindings.put("value", value);
+                assertEquals(evaluate(compiled, bindings), evaluate(expr, bindings), source);
+            }
+        }
+    }
+
+    @Test
+    public void testDelegatesToSyntaxTree() throws ParsingException {
+        Evaluable expr = new Parser("value + cells.b.value").getExpression();
+        Evaluable compiled = CompiledExpr.compile(expr);
+        assertEquals(compiled.getColumnDependencies(Optional.of("a")),
+                expr.getColumnDependencies(Optional.of("a")));
+        assertEquals(compiled.renameColumnDependencies(Map.of("b", "c")).toString(), "value + cells.c.value");
+        assertEquals(compiled, CompiledExpr.compile(new Parser("value + cells.b.value").getExpression()));
+        assertEquals(CompiledExpr.compile(compiled), compiled);
+    }
+
+    @Test
+    public void testConstantCallsAreFolded() throws ParsingException {
+        CompiledExpr compiled = (CompiledExpr) CompiledExpr
+                .compile(new Parser("'A,B'.toLowercase().replace(',', '|') + 1").getExpression());
+        assertTrue(compiled._root instanceof CompiledExpr.Constant);
+        assertEquals(compiled.evaluate(new Properties()), "a|b1");
+
+        // arrays and JSON objects can be modified, so they are computed each time
+        for (String source : new String[] { "parseJson('{}')", "'a,b'.split(',')", "range(3)", "[1, 2]" }) {
+            compiled = (CompiledExpr) CompiledExpr.compile(new Parser(source).getExpression());
+            assertFalse(compiled._root instanceof CompiledExpr.Constant, source);
+        }
+    }
+
+    @Test
+    public void testCommonSubexpressionsAreEvaluatedOnce() {
+        int[] calls = new int[1];
+        Function counting = new Function() {
+
+            @Override
+            public Object call(Properties bindings, Object[] args) {
+                calls[0]++;
+                return args[0] + "!";
+            }
+
+            @Override
+            public String getDescription() {
+                return "";
+            }
+
+            @Override
+            public String getReturns() {
+                return "string";
+            }
+        };
+        ControlFunctionRegistry.registerPureFunction("testCount", counting);
+        Evaluable call = new FunctionCallExpr(new Evaluable[] { new VariableExpr("value") }, counting, "count", true);
+        Evaluable compiled = CompiledExpr.compile(new OperatorCallExpr(new Evaluable[] { call, call }, "+"));
+        Properties bindings = new Properties();
+        bindings.put("value", "a");
+        assertEquals(compiled.evaluate(bindings), "a!a!");
+        assertEquals(calls[0], 1);
+        bindings.put("value", "b");
+        assertEquals(compiled.evaluate(bindings), "b!b!");
+        assertEquals(calls[0], 2);
+    }
+
+    @Test
+    public void testRegexArgumentsArePrepared() {
+        Match match = new Match();
+        assertTrue(match.prepareConstantArgument(1, "(a+)") instanceof Pattern);
+        assertEquals(match.prepareConstantArgument(1, "("), "(");
+        assertEquals(match.prepareConstantArgument(0, "(a+)"), "(a+)");
+    }
+
+    private Object evaluate(Evaluable expr, Properties bindings) {
+        try {
+            Object result = expr.evaluate(bindings);
+            return result instanceof EvalError ? "error: " + ((EvalError) result).message : result;
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+}
@@ -4,7 +4,9 @@ package com.google.refine.grel.ast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 
 import java.util.Optional;
 
@@ -12,7 +14,9 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ParsingException;
 import com.google.refine.grel.Function;
+import com.google.refine.grel.Parser;
 
 public class FunctionCallExprTest extends ExprTestBase {
 
@@ -64,4 +68,14 @@ public class FunctionCallExprTest extends ExprTestBase {
         assertEquals(ev.renameColumnDependencies(sampleRename),
                 new FunctionCallExpr(new Evaluable[] { currentColumnRenamed, unanalyzable }, function, "fun", false));
     }
+
+    @Test
+    public void testThreadSafety() throws ParsingException {
+        when(constant.isThreadSafe()).thenReturn(true);
+        // functions are only thread-safe if they are registered as such
+        assertFalse(new FunctionCallExpr(new Evaluable[] { constant }, function, "fun", false).isThreadSafe());
+        assertTrue(new Parser("value.phonetic('metaphone').replace('a', 'b')").getExpression().isThreadSafe());
+        assertTrue(new Parser("[value.split(','), facetCount(value, 'value', 'a')]").getExpression().isThreadSafe());
+        assertFalse(new Parser("if(isBlank(value), cross(value, 'p', 'c'), 0)").getExpression().isThreadSafe());
+    }
 }